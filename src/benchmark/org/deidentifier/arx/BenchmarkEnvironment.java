@@ -0,0 +1,167 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Prepares the internal operators of the anonymization engine in the same manner as
+ * the anonymizer, so that they can be benchmarked in isolation.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkEnvironment {
+
+    /** The configuration */
+    private final ARXConfiguration   config;
+
+    /** The data manager */
+    private final DataManager        manager;
+
+    /** The dictionary for frequencies of distributions, shared by transformers and histories */
+    private final IntArrayDictionary dictionarySensFreq;
+
+    /** The dictionary for values of distributions, shared by transformers and histories */
+    private final IntArrayDictionary dictionarySensValue;
+
+    /** The solution space */
+    private final SolutionSpace      solutionSpace;
+
+    /**
+     * Creates a new instance. The configuration is cloned.
+     *
+     * @param data
+     * @param config
+     */
+    public BenchmarkEnvironment(final Data data, final ARXConfiguration config) {
+
+        // Encode
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        DataDefinition definition = handle.getDefinition();
+        definition.materializeHierarchies(handle);
+        Map<String, DistributionAggregateFunction> functions = new HashMap<String, DistributionAggregateFunction>();
+        for (String key : definition.getQuasiIdentifiersWithMicroaggregation()) {
+            functions.put(key, definition.getMicroAggregationFunction(key).getFunction());
+        }
+        this.config = config.clone();
+        this.manager = new DataManager(handle.header,
+                                       handle.data,
+                                       handle.dictionary,
+                                       definition,
+                                       this.config.getPrivacyModels(),
+                                       functions,
+                                       this.config.isColumnarInputEnabled(),
+                                       this.config.getColumnarInputFile());
+
+        // Initialize
+        this.config.initialize(manager);
+        this.solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        this.config.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), this.config);
+        this.dictionarySensValue = new IntArrayDictionary(0);
+        this.dictionarySensFreq = new IntArrayDictionary(0);
+    }
+
+    /**
+     * Returns the internal configuration.
+     *
+     * @return
+     */
+    public ARXConfigurationInternal getConfiguration() {
+        return config.getInternalConfiguration();
+    }
+
+    /**
+     * Returns the data manager.
+     *
+     * @return
+     */
+    public DataManager getDataManager() {
+        return manager;
+    }
+
+    /**
+     * Returns the initialized quality model.
+     *
+     * @return
+     */
+    public Metric<?> getMetric() {
+        return config.getQualityModel();
+    }
+
+    /**
+     * Returns the solution space.
+     *
+     * @return
+     */
+    public SolutionSpace getSolutionSpace() {
+        return solutionSpace;
+    }
+
+    /**
+     * Creates a new groupify operator.
+     *
+     * @return
+     */
+    public HashGroupify newGroupify() {
+        return new HashGroupify((int) (manager.getDataGeneralized().getDataLength() * 0.01d), getConfiguration());
+    }
+
+    /**
+     * Creates a new history, which accepts snapshots of any size.
+     *
+     * @param size
+     * @return
+     */
+    public History newHistory(final int size) {
+        return new History(manager.getDataGeneralized().getDataLength(),
+                           size,
+                           1d,
+                           1d,
+                           getConfiguration(),
+                           dictionarySensValue,
+                           dictionarySensFreq,
+                           solutionSpace);
+    }
+
+    /**
+     * Creates a new transformer.
+     *
+     * @return
+     */
+    public Transformer newTransformer() {
+        ARXConfigurationInternal internal = getConfiguration();
+        return new Transformer(manager.getDataGeneralized().getArray(),
+                               manager.getDataAnalyzed().getArray(),
+                               manager.getHierarchies(),
+                               internal,
+                               dictionarySensValue,
+                               dictionarySensFreq,
+                               manager.getDataGeneralized().getColumns());
+    }
+}
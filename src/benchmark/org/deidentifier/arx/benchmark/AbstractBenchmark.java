@@ -0,0 +1,99 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Base class for microbenchmarks. A benchmark is set up once for each set of parameters
+ * and provides one or more operations, the execution times of which are measured.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class AbstractBenchmark {
+
+    /**
+     * An operation that is measured.
+     *
+     * @author Fabian Prasser
+     */
+    public static abstract class Operation {
+
+        /** The name */
+        private final String name;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param name
+         */
+        public Operation(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name.
+         *
+         * @return
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Executes the operation once. The result is consumed by the harness, which
+         * prevents the JIT compiler from eliminating the computation.
+         *
+         * @return
+         * @throws IOException
+         */
+        public abstract long run() throws IOException;
+    }
+
+    /**
+     * Returns the name of the benchmark.
+     *
+     * @return
+     */
+    public abstract String getName();
+
+    /**
+     * Returns the sets of parameters, for which the benchmark is executed.
+     *
+     * @param settings
+     * @return
+     */
+    public abstract List<BenchmarkParameters> getParameters(BenchmarkSettings settings);
+
+    /**
+     * Sets up the benchmark for the given parameters and returns the operations to measure.
+     *
+     * @param parameters
+     * @return
+     * @throws IOException
+     */
+    public abstract List<Operation> setup(BenchmarkParameters parameters) throws IOException;
+
+    /**
+     * Releases all resources acquired during setup.
+     */
+    public void teardown() {
+        // Empty by design
+    }
+}
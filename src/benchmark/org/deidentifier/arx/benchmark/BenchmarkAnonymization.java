@@ -0,0 +1,89 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Benchmarks anonymizing the datasets provided with ARX as well as synthetic datasets
+ * with 5-anonymity, a suppression limit of 5% and the loss model.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkAnonymization extends AbstractBenchmark {
+
+    /** Name of synthetic datasets */
+    private static final String SYNTHETIC = "synthetic";
+
+    /** The data directory */
+    private String              directory;
+
+    @Override
+    public String getName() {
+        return "Anonymization";
+    }
+
+    @Override
+    public List<BenchmarkParameters> getParameters(BenchmarkSettings settings) {
+        this.directory = settings.getData();
+        List<BenchmarkParameters> result = BenchmarkParameters.empty();
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.DATASET, settings.getDatasets());
+        List<BenchmarkParameters> synthetic = BenchmarkParameters.empty();
+        synthetic = BenchmarkParameters.cross(synthetic, BenchmarkParameters.DATASET, new String[] { SYNTHETIC });
+        synthetic = BenchmarkParameters.cross(synthetic, BenchmarkParameters.ROWS, settings.getRows());
+        synthetic = BenchmarkParameters.cross(synthetic, BenchmarkParameters.QIS, settings.getQis());
+        result.addAll(synthetic);
+        return result;
+    }
+
+    @Override
+    public List<Operation> setup(BenchmarkParameters parameters) throws IOException {
+
+        // Prepare
+        String dataset = parameters.get(BenchmarkParameters.DATASET);
+        final Data data = dataset.equals(SYNTHETIC) ?
+                BenchmarkData.getSyntheticData(parameters.getInt(BenchmarkParameters.ROWS), parameters.getInt(BenchmarkParameters.QIS)) :
+                BenchmarkData.getData(directory, dataset);
+        if (data == null) {
+            return null;
+        }
+        final ARXConfiguration config = ARXConfiguration.create(0.05d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+
+        List<Operation> result = new ArrayList<Operation>();
+        result.add(new Operation("anonymize") {
+            @Override
+            public long run() throws IOException {
+                data.getHandle().release();
+                ARXResult result = anonymizer.anonymize(data, config);
+                return result.getLattice().getSize();
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+
+/**
+ * Provides the datasets used in benchmarks.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkData {
+
+    /** The size of the domain of each attribute of synthetic datasets */
+    private static final int DOMAIN_SIZE = 100;
+
+    /** The fan-out of the hierarchies of synthetic datasets */
+    private static final int FANOUT      = 10;
+
+    /** The seed used for creating synthetic datasets */
+    private static final int SEED        = 0xCAFEBABE;
+
+    /**
+     * Returns the names of the quasi-identifiers of a synthetic dataset.
+     *
+     * @param qis
+     * @return
+     */
+    public static String[] getSyntheticHeader(int qis) {
+        String[] header = new String[qis];
+        for (int column = 0; column < qis; column++) {
+            header[column] = "attribute" + column;
+        }
+        return header;
+    }
+
+    /**
+     * Returns the records of a synthetic dataset, which consist of uniformly distributed values.
+     *
+     * @param rows
+     * @param qis
+     * @return
+     */
+    public static String[][] getSyntheticRecords(int rows, int qis) {
+        Random random = new Random(SEED);
+        String[][] records = new String[rows][qis];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < qis; column++) {
+                records[row][column] = String.valueOf(random.nextInt(DOMAIN_SIZE));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Creates a synthetic dataset, in which each attribute is a quasi-identifier with a
+     * hierarchy of height three.
+     *
+     * @param rows
+     * @param qis
+     * @return
+     */
+    public static Data getSyntheticData(int rows, int qis) {
+
+        // Data
+        DefaultData data = Data.create();
+        String[] header = getSyntheticHeader(qis);
+        data.add(header);
+        for (String[] record : getSyntheticRecords(rows, qis)) {
+            data.add(record);
+        }
+
+        // Hierarchies
+        for (int column = 0; column < qis; column++) {
+            DefaultHierarchy hierarchy = Hierarchy.create();
+            for (int value = 0; value < DOMAIN_SIZE; value++) {
+                int lower = value / FANOUT * FANOUT;
+                hierarchy.add(String.valueOf(value), "[" + lower + "-" + (lower + FANOUT - 1) + "]", "*");
+            }
+            data.getDefinition().setAttributeType(header[column], hierarchy);
+        }
+        return data;
+    }
+
+    /**
+     * Loads one of the datasets provided with ARX. All attributes, for which a hierarchy is
+     * provided, are treated as quasi-identifiers. Returns null, if the dataset is not available.
+     *
+     * @param directory
+     * @param dataset
+     * @return
+     * @throws IOException
+     */
+    public static Data getData(String directory, final String dataset) throws IOException {
+
+        File file = new File(directory, dataset + ".csv");
+        if (!file.exists()) {
+            return null;
+        }
+        Data data = Data.create(file, StandardCharsets.UTF_8, ';');
+        File[] hierarchies = new File(directory).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(dataset + "_hierarchy_") && name.endsWith(".csv");
+            }
+        });
+        for (File hierarchy : hierarchies) {
+            String name = hierarchy.getName();
+            String attribute = name.substring(dataset.length() + "_hierarchy_".length(), name.length() - ".csv".length());
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(hierarchy, StandardCharsets.UTF_8, ';'));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.framework.data.Dictionary;
+
+/**
+ * Benchmarks encoding records with a dictionary.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkDictionary extends AbstractBenchmark {
+
+    @Override
+    public String getName() {
+        return "Dictionary";
+    }
+
+    @Override
+    public List<BenchmarkParameters> getParameters(BenchmarkSettings settings) {
+        List<BenchmarkParameters> result = BenchmarkParameters.empty();
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.ROWS, settings.getRows());
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.QIS, settings.getQis());
+        return result;
+    }
+
+    @Override
+    public List<Operation> setup(BenchmarkParameters parameters) {
+
+        final int qis = parameters.getInt(BenchmarkParameters.QIS);
+        final String[][] records = BenchmarkData.getSyntheticRecords(parameters.getInt(BenchmarkParameters.ROWS), qis);
+
+        List<Operation> result = new ArrayList<Operation>();
+        result.add(new Operation("register") {
+            @Override
+            public long run() {
+                Dictionary dictionary = new Dictionary(qis);
+                long sum = 0L;
+                for (String[] record : records) {
+                    for (int column = 0; column < qis; column++) {
+                        sum += dictionary.register(column, record[column]);
+                    }
+                }
+                return sum;
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * Benchmarks adding records to the groupify operator and analyzing the resulting
+ * equivalence classes for different numbers of classes.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkHashGroupify extends AbstractBenchmark {
+
+    @Override
+    public String getName() {
+        return "HashGroupify";
+    }
+
+    @Override
+    public List<BenchmarkParameters> getParameters(BenchmarkSettings settings) {
+        List<BenchmarkParameters> result = BenchmarkParameters.empty();
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.ROWS, settings.getRows());
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.QIS, settings.getQis());
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.CLASSES, settings.getClasses());
+        return result;
+    }
+
+    @Override
+    public List<Operation> setup(BenchmarkParameters parameters) {
+
+        // Prepare
+        int rows = parameters.getInt(BenchmarkParameters.ROWS);
+        int qis = parameters.getInt(BenchmarkParameters.QIS);
+        int classes = parameters.getInt(BenchmarkParameters.CLASSES);
+        if (classes > rows) {
+            return null;
+        }
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.getSyntheticData(rows, qis), config);
+        final HashGroupify groupify = environment.newGroupify();
+        final Transformation transformation = environment.getSolutionSpace().getBottom();
+
+        // Create tuples with the given number of distinct values
+        final int[][] tuples = new int[rows][qis];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < qis; column++) {
+                tuples[row][column] = (row % classes) * (column + 1);
+            }
+        }
+
+        List<Operation> result = new ArrayList<Operation>();
+        result.add(new Operation("add") {
+            @Override
+            public long run() {
+                groupify.stateClear();
+                for (int row = 0; row < tuples.length; row++) {
+                    groupify.addFromBuffer(tuples[row], null, row, 1, -1);
+                }
+                return groupify.getNumberOfEquivalenceClasses();
+            }
+        });
+        result.add(new Operation("addAndAnalyze") {
+            @Override
+            public long run() {
+                groupify.stateClear();
+                for (int row = 0; row < tuples.length; row++) {
+                    groupify.addFromBuffer(tuples[row], null, row, 1, -1);
+                }
+                groupify.stateAnalyze(transformation, true);
+                return groupify.isPrivacyModelFulfilled() ? 1L : 0L;
+            }
+        });
+        return result;
+    }
+}
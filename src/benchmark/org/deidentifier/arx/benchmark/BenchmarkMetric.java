@@ -0,0 +1,129 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Benchmarks evaluating the main quality models for a transformation, which generalizes
+ * all attributes to the first level.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkMetric extends AbstractBenchmark {
+
+    /** The quality models */
+    private static final String[] METRICS = new String[] { "AECS",
+                                                           "Ambiguity",
+                                                           "Discernability",
+                                                           "Entropy",
+                                                           "Height",
+                                                           "KLDivergence",
+                                                           "Loss",
+                                                           "NormalizedEntropy",
+                                                           "Precision" };
+
+    /**
+     * Returns the quality model with the given name.
+     *
+     * @param name
+     * @return
+     */
+    private static Metric<?> getMetric(String name) {
+        switch (name) {
+        case "AECS":
+            return Metric.createAECSMetric();
+        case "Ambiguity":
+            return Metric.createAmbiguityMetric();
+        case "Discernability":
+            return Metric.createDiscernabilityMetric();
+        case "Entropy":
+            return Metric.createEntropyMetric();
+        case "Height":
+            return Metric.createHeightMetric();
+        case "KLDivergence":
+            return Metric.createKLDivergenceMetric();
+        case "Loss":
+            return Metric.createLossMetric();
+        case "NormalizedEntropy":
+            return Metric.createNormalizedEntropyMetric();
+        case "Precision":
+            return Metric.createPrecisionMetric();
+        default:
+            throw new IllegalArgumentException("Unknown quality model: " + name);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Metric";
+    }
+
+    @Override
+    public List<BenchmarkParameters> getParameters(BenchmarkSettings settings) {
+        List<BenchmarkParameters> result = BenchmarkParameters.empty();
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.METRIC, METRICS);
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.ROWS, settings.getRows());
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.QIS, settings.getQis());
+        return result;
+    }
+
+    @Override
+    public List<Operation> setup(BenchmarkParameters parameters) {
+
+        // Prepare
+        int rows = parameters.getInt(BenchmarkParameters.ROWS);
+        int qis = parameters.getInt(BenchmarkParameters.QIS);
+        ARXConfiguration config = ARXConfiguration.create(0.05d, getMetric(parameters.get(BenchmarkParameters.METRIC)));
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.getSyntheticData(rows, qis), config);
+        final Metric<?> metric = environment.getMetric();
+
+        // Transform
+        int[] generalization = new int[qis];
+        Arrays.fill(generalization, 1);
+        final Transformation transformation = environment.getSolutionSpace().getTransformation(generalization);
+        final HashGroupify groupify = environment.newTransformer().apply(0L, generalization, environment.newGroupify());
+        groupify.stateAnalyze(transformation, true);
+
+        List<Operation> result = new ArrayList<Operation>();
+        result.add(new Operation("evaluate") {
+            @Override
+            public long run() {
+                return metric.getInformationLoss(transformation, groupify).getInformationLoss().hashCode();
+            }
+        });
+        result.add(new Operation("bound") {
+            @Override
+            public long run() {
+                Object bound = metric.getLowerBound(transformation, groupify);
+                return bound == null ? 0L : bound.hashCode();
+            }
+        });
+        return result;
+    }
+}
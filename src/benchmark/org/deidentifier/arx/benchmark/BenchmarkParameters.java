@@ -0,0 +1,147 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A set of named parameters of a benchmark.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkParameters {
+
+    /** Parameter */
+    public static final String CLASSES = "classes";
+
+    /** Parameter */
+    public static final String DATASET = "dataset";
+
+    /** Parameter */
+    public static final String METRIC  = "metric";
+
+    /** Parameter */
+    public static final String QIS     = "qis";
+
+    /** Parameter */
+    public static final String ROWS    = "rows";
+
+    /**
+     * Returns the cross product of the given sets of parameters.
+     *
+     * @param parameters
+     * @param name
+     * @param values
+     * @return
+     */
+    public static List<BenchmarkParameters> cross(List<BenchmarkParameters> parameters, String name, int[] values) {
+        List<BenchmarkParameters> result = new ArrayList<BenchmarkParameters>();
+        for (BenchmarkParameters element : parameters) {
+            for (int value : values) {
+                result.add(element.with(name, String.valueOf(value)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cross product of the given sets of parameters.
+     *
+     * @param parameters
+     * @param name
+     * @param values
+     * @return
+     */
+    public static List<BenchmarkParameters> cross(List<BenchmarkParameters> parameters, String name, String[] values) {
+        List<BenchmarkParameters> result = new ArrayList<BenchmarkParameters>();
+        for (BenchmarkParameters element : parameters) {
+            for (String value : values) {
+                result.add(element.with(name, value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a list containing an empty set of parameters.
+     *
+     * @return
+     */
+    public static List<BenchmarkParameters> empty() {
+        List<BenchmarkParameters> result = new ArrayList<BenchmarkParameters>();
+        result.add(new BenchmarkParameters());
+        return result;
+    }
+
+    /** The values */
+    private final Map<String, String> values = new LinkedHashMap<String, String>();
+
+    /**
+     * Returns the value of the given parameter.
+     *
+     * @param name
+     * @return
+     */
+    public String get(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value of the given parameter as an integer.
+     *
+     * @param name
+     * @return
+     */
+    public int getInt(String name) {
+        return Integer.valueOf(get(name));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Entry<String, String> entry : values.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns a copy of this set, which additionally contains the given parameter.
+     *
+     * @param name
+     * @param value
+     * @return
+     */
+    private BenchmarkParameters with(String name, String value) {
+        BenchmarkParameters result = new BenchmarkParameters();
+        result.values.putAll(this.values);
+        result.values.put(name, value);
+        return result;
+    }
+}
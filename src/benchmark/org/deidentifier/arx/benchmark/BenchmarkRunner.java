@@ -0,0 +1,153 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+import org.deidentifier.arx.benchmark.AbstractBenchmark.Operation;
+
+/**
+ * Executes microbenchmarks of the anonymization engine. Each operation is executed
+ * repeatedly for a number of warmup iterations, followed by a number of measured iterations,
+ * each of which lasts at least for a given amount of time. The average execution time per
+ * operation and its standard deviation over all measured iterations are reported.
+ * See {@link BenchmarkSettings} for the available parameters.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkRunner {
+
+    /** The benchmarks */
+    private static final AbstractBenchmark[] BENCHMARKS = new AbstractBenchmark[] {
+                                                            new BenchmarkDictionary(),
+                                                            new BenchmarkHashGroupify(),
+                                                            new BenchmarkTransformer(),
+                                                            new BenchmarkMetric(),
+                                                            new BenchmarkAnonymization()
+                                                        };
+
+    /** Consumes the results of all operations */
+    private static long                      sink;
+
+    /**
+     * Entry point.
+     *
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        BenchmarkSettings settings = BenchmarkSettings.fromSystemProperties();
+        PrintWriter output = settings.getOutput() == null ? null : new PrintWriter(new FileWriter(settings.getOutput(), true));
+        try {
+            for (AbstractBenchmark benchmark : BENCHMARKS) {
+                if (benchmark.getName().matches(settings.getFilter())) {
+                    for (BenchmarkParameters parameters : benchmark.getParameters(settings)) {
+                        run(benchmark, parameters, settings, output);
+                    }
+                }
+            }
+        } finally {
+            if (output != null) {
+                output.close();
+            }
+        }
+        System.out.println("Done (" + sink + ")");
+    }
+
+    /**
+     * Measures the average execution time of the operation in nanoseconds over one iteration.
+     *
+     * @param operation
+     * @param time
+     * @return
+     * @throws IOException
+     */
+    private static double measure(Operation operation, long time) throws IOException {
+        long result = 0L;
+        long count = 0L;
+        long start = System.nanoTime();
+        long end = start + time * 1000000L;
+        long now;
+        do {
+            result += operation.run();
+            count++;
+            now = System.nanoTime();
+        } while (now < end);
+        sink += result;
+        return (double) (now - start) / (double) count;
+    }
+
+    /**
+     * Runs the benchmark for the given parameters.
+     *
+     * @param benchmark
+     * @param parameters
+     * @param settings
+     * @param output
+     * @throws IOException
+     */
+    private static void run(AbstractBenchmark benchmark,
+                            BenchmarkParameters parameters,
+                            BenchmarkSettings settings,
+                            PrintWriter output) throws IOException {
+
+        List<Operation> operations = benchmark.setup(parameters);
+        if (operations == null) {
+            System.out.println(benchmark.getName() + " [" + parameters + "]: skipped");
+            return;
+        }
+        try {
+            for (Operation operation : operations) {
+
+                // Warmup
+                for (int i = 0; i < settings.getWarmup(); i++) {
+                    measure(operation, settings.getTime());
+                }
+
+                // Measure
+                double[] times = new double[settings.getIterations()];
+                double mean = 0d;
+                for (int i = 0; i < times.length; i++) {
+                    times[i] = measure(operation, settings.getTime());
+                    mean += times[i];
+                }
+                mean /= times.length;
+                double deviation = 0d;
+                for (double time : times) {
+                    deviation += (time - mean) * (time - mean);
+                }
+                deviation = times.length > 1 ? Math.sqrt(deviation / (times.length - 1)) : 0d;
+
+                // Report
+                String name = benchmark.getName() + "." + operation.getName();
+                System.out.println(String.format(Locale.ENGLISH, "%s [%s]: %.3f +- %.3f [us/op]", name, parameters, mean / 1000d, deviation / 1000d));
+                if (output != null) {
+                    output.println(String.format(Locale.ENGLISH, "%s;%s;%.3f;%.3f", name, parameters, mean / 1000d, deviation / 1000d));
+                    output.flush();
+                }
+            }
+        } finally {
+            benchmark.teardown();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+/**
+ * Settings of a benchmark run, which are read from system properties:
+ * <ul>
+ * <li><code>benchmark.filter</code>: a regular expression matching the names of the benchmarks to execute</li>
+ * <li><code>benchmark.rows</code>: a comma-separated list of numbers of records of synthetic datasets</li>
+ * <li><code>benchmark.qis</code>: a comma-separated list of numbers of quasi-identifiers of synthetic datasets</li>
+ * <li><code>benchmark.classes</code>: a comma-separated list of numbers of equivalence classes</li>
+ * <li><code>benchmark.datasets</code>: a comma-separated list of datasets in the data directory</li>
+ * <li><code>benchmark.data</code>: the data directory</li>
+ * <li><code>benchmark.warmup</code>: the number of warmup iterations</li>
+ * <li><code>benchmark.iterations</code>: the number of measured iterations</li>
+ * <li><code>benchmark.time</code>: the minimal duration of an iteration in milliseconds</li>
+ * <li><code>benchmark.output</code>: a CSV file to which the results are appended, optional</li>
+ * </ul>
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkSettings {
+
+    /**
+     * Reads the settings from the system properties.
+     *
+     * @return
+     */
+    public static BenchmarkSettings fromSystemProperties() {
+        BenchmarkSettings settings = new BenchmarkSettings();
+        settings.filter = System.getProperty("benchmark.filter", ".*");
+        settings.rows = getInts("benchmark.rows", "1000,10000,100000");
+        settings.qis = getInts("benchmark.qis", "4,8,12");
+        settings.classes = getInts("benchmark.classes", "10,1000,100000");
+        settings.datasets = System.getProperty("benchmark.datasets", "adult,cup,fars,ihis").split(",");
+        settings.data = System.getProperty("benchmark.data", "data");
+        settings.warmup = Integer.valueOf(System.getProperty("benchmark.warmup", "5"));
+        settings.iterations = Integer.valueOf(System.getProperty("benchmark.iterations", "10"));
+        settings.time = Long.valueOf(System.getProperty("benchmark.time", "1000"));
+        settings.output = System.getProperty("benchmark.output");
+        return settings;
+    }
+
+    /**
+     * Parses a comma-separated list of integers.
+     *
+     * @param property
+     * @param defaultValue
+     * @return
+     */
+    private static int[] getInts(String property, String defaultValue) {
+        String[] values = System.getProperty(property, defaultValue).split(",");
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Integer.valueOf(values[i].trim());
+        }
+        return result;
+    }
+
+    /** Numbers of equivalence classes */
+    private int[]    classes;
+
+    /** The data directory */
+    private String   data;
+
+    /** The datasets */
+    private String[] datasets;
+
+    /** The filter for benchmark names */
+    private String   filter;
+
+    /** The number of measured iterations */
+    private int      iterations;
+
+    /** The output file, may be null */
+    private String   output;
+
+    /** Numbers of quasi-identifiers */
+    private int[]    qis;
+
+    /** Numbers of records */
+    private int[]    rows;
+
+    /** The minimal duration of an iteration in milliseconds */
+    private long     time;
+
+    /** The number of warmup iterations */
+    private int      warmup;
+
+    /**
+     * Returns the numbers of equivalence classes.
+     *
+     * @return
+     */
+    public int[] getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the data directory.
+     *
+     * @return
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Returns the datasets.
+     *
+     * @return
+     */
+    public String[] getDatasets() {
+        return datasets;
+    }
+
+    /**
+     * Returns the filter for benchmark names.
+     *
+     * @return
+     */
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns the number of measured iterations.
+     *
+     * @return
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the output file, may be null.
+     *
+     * @return
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns the numbers of quasi-identifiers.
+     *
+     * @return
+     */
+    public int[] getQis() {
+        return qis;
+    }
+
+    /**
+     * Returns the numbers of records.
+     *
+     * @return
+     */
+    public int[] getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the minimal duration of an iteration in milliseconds.
+     *
+     * @return
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the number of warmup iterations.
+     *
+     * @return
+     */
+    public int getWarmup() {
+        return warmup;
+    }
+}
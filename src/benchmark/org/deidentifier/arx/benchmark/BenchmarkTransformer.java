@@ -0,0 +1,110 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * Benchmarks the three types of transitions performed by the transformer: transforming the
+ * input, rolling up the equivalence classes of a predecessor and applying a snapshot of a
+ * predecessor. The transformation of the predecessor generalizes all attributes to the first
+ * level, except for the last one. The transformation, which is applied, additionally
+ * generalizes the last attribute.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkTransformer extends AbstractBenchmark {
+
+    @Override
+    public String getName() {
+        return "Transformer";
+    }
+
+    @Override
+    public List<BenchmarkParameters> getParameters(BenchmarkSettings settings) {
+        List<BenchmarkParameters> result = BenchmarkParameters.empty();
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.ROWS, settings.getRows());
+        result = BenchmarkParameters.cross(result, BenchmarkParameters.QIS, settings.getQis());
+        return result;
+    }
+
+    @Override
+    public List<Operation> setup(BenchmarkParameters parameters) {
+
+        // Prepare
+        int rows = parameters.getInt(BenchmarkParameters.ROWS);
+        int qis = parameters.getInt(BenchmarkParameters.QIS);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(BenchmarkData.getSyntheticData(rows, qis), config);
+        final Transformer transformer = environment.newTransformer();
+        final HashGroupify source = environment.newGroupify();
+        final HashGroupify target = environment.newGroupify();
+
+        // Transformations
+        SolutionSpace solutionSpace = environment.getSolutionSpace();
+        final int[] successor = new int[qis];
+        Arrays.fill(successor, 1);
+        int[] generalization = successor.clone();
+        generalization[qis - 1] = 0;
+        Transformation predecessor = solutionSpace.getTransformation(generalization);
+        final long projection = (1L << (qis - 1)) - 1L;
+
+        // Create source and snapshot
+        transformer.apply(0L, predecessor.getGeneralization(), source);
+        source.stateAnalyze(predecessor, true);
+        History history = environment.newHistory(1);
+        predecessor.setProperty(solutionSpace.getPropertyForceSnapshot());
+        history.store(predecessor, source, null);
+        final int[] snapshot = history.get(successor);
+
+        List<Operation> result = new ArrayList<Operation>();
+        result.add(new Operation("apply") {
+            @Override
+            public long run() {
+                return transformer.apply(0L, successor, target).getNumberOfEquivalenceClasses();
+            }
+        });
+        result.add(new Operation("rollup") {
+            @Override
+            public long run() {
+                return transformer.applyRollup(projection, successor, source, target).getNumberOfEquivalenceClasses();
+            }
+        });
+        if (snapshot != null) {
+            result.add(new Operation("snapshot") {
+                @Override
+                public long run() {
+                    return transformer.applySnapshot(projection, successor, target, snapshot).getNumberOfEquivalenceClasses();
+                }
+            });
+        }
+        return result;
+    }
+}
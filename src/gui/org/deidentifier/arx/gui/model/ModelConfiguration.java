@@ -215,6 +215,14 @@ public class ModelConfiguration implements Serializable, Cloneable {
         return config.getPrivacyModel(clazz);
     }
     
+    /**
+     * @return
+     * @see org.deidentifier.arx.ARXConfiguration#getHeuristicSearchStepLimit()
+     */
+    public int getHeuristicSearchStepLimit() {
+        return config.getHeuristicSearchStepLimit();
+    }
+    
     /**
      * @return
      * @see org.deidentifier.arx.ARXConfiguration#getHeuristicSearchThreshold()
@@ -564,6 +572,14 @@ public class ModelConfiguration implements Serializable, Cloneable {
         config.setHeuristicSearchEnabled(heuristicSearchEnabled);
     }
     
+    /**
+     * @param numberOfTransformations
+     * @see org.deidentifier.arx.ARXConfiguration#setHeuristicSearchStepLimit(int)
+     */
+    public void setHeuristicSearchStepLimit(int numberOfTransformations) {
+        config.setHeuristicSearchStepLimit(numberOfTransformations);
+    }
+    
     /**
      * @param numberOfTransformations
      * @see org.deidentifier.arx.ARXConfiguration#setHeuristicSearchThreshold(int)
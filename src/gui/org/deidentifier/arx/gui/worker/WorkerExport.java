@@ -114,7 +114,7 @@ public class WorkerExport extends Worker<DataHandle> {
         // Export the data
         try {
             final CSVDataOutput csvout = new CSVDataOutput(cout, csvSyntax);
-            csvout.write(handle.getView().iterator());
+            handle.getView().save(csvout);
             cout.close();
             result = handle;
             stop = true;
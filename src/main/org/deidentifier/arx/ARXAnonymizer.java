@@ -37,6 +37,7 @@ import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
 import org.deidentifier.arx.framework.data.DataManager;
@@ -207,7 +208,7 @@ public class ARXAnonymizer {
         handle.getRegistry().createInputSubset(config);
         
         // Attach arrays to data handle
-        ((DataHandleInput)handle).update(manager.getDataGeneralized().getArray(), 
+        ((DataHandleInput)handle).update(manager.getDataGeneralized(), 
                                          manager.getDataAnalyzed().getArray(),
                                          manager.getDataStatic().getArray());
 
@@ -544,7 +545,10 @@ public class ARXAnonymizer {
         
         if (config.isHeuristicSearchEnabled() ||
             solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
-            return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
+            return LIGHTNINGAlgorithm.create(solutionSpace,
+                                             checker,
+                                             config.getHeuristicSearchTimeLimit(),
+                                             config.getHeuristicSearchStepLimit());
             
         } else {
             FLASHStrategy strategy = new FLASHStrategy(solutionSpace, manager.getHierarchies());
@@ -567,7 +571,14 @@ public class ARXAnonymizer {
         final String[] header = ((DataHandleInput) handle).header;
         final int[][] dataArray = ((DataHandleInput) handle).data;
         final Dictionary dictionary = ((DataHandleInput) handle).dictionary;
-        final DataManager manager = new DataManager(header, dataArray, dictionary, definition, config.getPrivacyModels(), getAggregateFunctions(definition));
+        final DataManager manager = new DataManager(header,
+                                                    dataArray,
+                                                    dictionary,
+                                                    definition,
+                                                    config.getPrivacyModels(),
+                                                    getAggregateFunctions(definition),
+                                                    config.isColumnarInputEnabled(),
+                                                    config.getColumnarInputFile());
         return manager;
     }
 
@@ -612,11 +623,30 @@ public class ARXAnonymizer {
                                                    checker);
         algorithm.setListener(listener);
 
+        // Create a pool of checkers for parallel checks
+        NodeCheckerPool pool = null;
+        if (config.getNumberOfThreads() > 1) {
+            pool = new NodeCheckerPool(checker,
+                                       solutionSpace,
+                                       manager,
+                                       config.getQualityModel(),
+                                       config.getInternalConfiguration(),
+                                       historySize,
+                                       snapshotSizeDataset,
+                                       snapshotSizeSnapshot);
+            algorithm.setPool(pool);
+        }
         
         // Execute
 
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
+        try {
+            algorithm.traverse();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
         
         // Deactivate history to prevent bugs when sorting data
         checker.getHistory().reset();
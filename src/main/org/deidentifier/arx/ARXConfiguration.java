@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -182,6 +183,22 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getSampleBasedPrivacyModelsAsArray();
         }
 
+        /**
+         * Returns the maximal number of bytes occupied by snapshots in the history, 0 if there is no limit.
+         * @return
+         */
+        public long getHistoryMemoryLimit() {
+            return config.getHistoryMemoryLimit();
+        }
+
+        /**
+         * Returns the number of threads used for checking transformations.
+         * @return
+         */
+        public int getNumberOfThreads() {
+            return config.getNumberOfThreads();
+        }
+
         /**
          * Returns the specific length of each entry in a snapshot.
          *
@@ -228,6 +245,22 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.isSuppressionAlwaysEnabled();
         }
 
+        /**
+         * Returns whether the quasi-identifiers which are generalized are stored in bit-packed columns.
+         * @return
+         */
+        public boolean isColumnarInputEnabled() {
+            return config.isColumnarInputEnabled();
+        }
+
+        /**
+         * Returns whether snapshots in the history are compressed.
+         * @return
+         */
+        public boolean isSnapshotCompressionEnabled() {
+            return config.isSnapshotCompressionEnabled();
+        }
+
         /**
          * Do we guarantee optimality for sample-based criteria?
          */
@@ -375,9 +408,27 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit                         = 30000;
 
+    /** The heuristic algorithm will terminate after checking the given number of transformations */
+    private Integer                            heuristicSearchStepLimit                         = Integer.MAX_VALUE;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration                         = ARXCostBenefitConfiguration.create();
 
+    /** The number of threads used for checking transformations */
+    private Integer                            numberOfThreads                                  = 1;
+
+    /** Should the quasi-identifiers which are generalized be stored in bit-packed columns? */
+    private boolean                            columnarInputEnabled                             = false;
+
+    /** The file into which the columns of the input are mapped, null if they are kept on the heap */
+    private File                               columnarInputFile                                = null;
+
+    /** The maximal number of bytes occupied by snapshots in the history, 0 if there is no limit */
+    private Long                               historyMemoryLimit                               = 0L;
+
+    /** Should snapshots in the history be compressed? */
+    private boolean                            snapshotCompressionEnabled                       = false;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -516,8 +567,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.heuristicSearchStepLimit = this.heuristicSearchStepLimit;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
+        result.numberOfThreads = this.getNumberOfThreads();
+        result.columnarInputEnabled = this.columnarInputEnabled;
+        result.columnarInputFile = this.columnarInputFile;
+        result.historyMemoryLimit = this.getHistoryMemoryLimit();
+        result.snapshotCompressionEnabled = this.snapshotCompressionEnabled;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
         } else {
@@ -584,6 +641,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return new HashMap<String, Double>(this.attributeWeights);
     }
     
+    /**
+     * Returns the file into which the columns of the input are mapped, if columnar input is
+     * enabled. The default is null.
+     * @return
+     */
+    public File getColumnarInputFile() {
+        return this.columnarInputFile;
+    }
+
     /**
      * Returns the cost/benefit configuration
      */
@@ -630,6 +696,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.getPrivacyModel(clazz);
     }
     
+    /**
+     * The heuristic search algorithm will terminate after checking the returned number of transformations.
+     * The default is Integer.MAX_VALUE, i.e. no limit.
+     * @return
+     */
+    public int getHeuristicSearchStepLimit() {
+        if (this.heuristicSearchStepLimit == null) {
+            this.heuristicSearchStepLimit = Integer.MAX_VALUE;
+        }
+        return this.heuristicSearchStepLimit;
+    }
+    
     /**
      * When the size of the solution space exceeds the returned number of transformations,
      * ARX will use a heuristic search strategy. The default is 100.000.
@@ -655,6 +733,29 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchTimeLimit;
     }
     
+    /**
+     * Returns the maximal number of bytes occupied by snapshots in the history. The default
+     * is 0, which means that the size of the history is only limited by the number of snapshots.
+     * @return
+     */
+    public long getHistoryMemoryLimit() {
+        if (this.historyMemoryLimit == null) {
+            this.historyMemoryLimit = 0L;
+        }
+        return this.historyMemoryLimit;
+    }
+
+    /**
+     * Returns the number of threads used for checking transformations. The default is 1.
+     * @return
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = 1;
+        }
+        return this.numberOfThreads;
+    }
+    
     /**
      * Returns the maximum number of allowed outliers.
      *
@@ -840,6 +941,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
     
+    /**
+     * Returns whether the quasi-identifiers which are generalized are stored in bit-packed columns.
+     * The default is false.
+     * @return
+     */
+    public boolean isColumnarInputEnabled() {
+        return this.columnarInputEnabled;
+    }
+    
     /**
      * Returns whether ARX will use a heuristic search strategy. The default is false.
      * @return
@@ -857,6 +967,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return practicalMonotonicity;
     }
     
+    /**
+     * Returns whether snapshots in the history are compressed. The default is false.
+     * @return
+     */
+    public boolean isSnapshotCompressionEnabled() {
+        return this.snapshotCompressionEnabled;
+    }
+    
     /**
      * Returns whether suppression is applied to the output of anonymous as well as non-anonymous transformations. If
      * this flag is set to <code>true</code>, suppression will be applied to the output of non-anonymous 
@@ -968,6 +1086,31 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.attributeWeights.put(attribute, weight);
     }
 
+    /**
+     * Sets whether the quasi-identifiers which are generalized are stored column by column
+     * instead of row by row, using as many bits per value as are needed for the largest
+     * value in a column. The columns replace the row-oriented representation, which is not
+     * created in this mode. They typically need a fraction of its memory, but values must
+     * be decoded when transformations are applied. The default is false.
+     * @param columnarInputEnabled
+     */
+    public void setColumnarInputEnabled(boolean columnarInputEnabled) {
+        this.columnarInputEnabled = columnarInputEnabled;
+    }
+
+    /**
+     * Sets a file into which the columns of the input are written and which is mapped into
+     * memory. The columns are then stored off-heap and paged in and out by the operating system.
+     * If the file already contains the encoded input, e.g. from a previous run, it is reused.
+     * Otherwise, it is created or replaced. The file is not deleted by ARX. If the file is
+     * null, the columns are kept on the heap. Only has an effect if columnar input is enabled.
+     * The default is null.
+     * @param columnarInputFile
+     */
+    public void setColumnarInputFile(File columnarInputFile) {
+        this.columnarInputFile = columnarInputFile;
+    }
+
     /**
      * Sets the cost/benefit configuration
      * @param config
@@ -989,6 +1132,16 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchEnabled = heuristicSearchEnabled;
     }
 
+    /**
+     * The heuristic search algorithm will terminate after checking the given number of transformations.
+     * The default is Integer.MAX_VALUE, i.e. no limit.
+     * @param numberOfTransformations
+     */
+    public void setHeuristicSearchStepLimit(int numberOfTransformations) {
+        if (numberOfTransformations <= 0) { throw new IllegalArgumentException("Parameter must be >= 0"); }
+        this.heuristicSearchStepLimit = numberOfTransformations;
+    }
+
     /**
      * When the size of the solution space exceeds the given number of transformations,
      * ARX will use a heuristic search strategy. The default is 100.000.
@@ -1010,6 +1163,31 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchTimeLimit = timeInMillis;
     }
 
+    /**
+     * Sets the maximal number of bytes occupied by snapshots in the history. If a limit is
+     * specified, snapshots are stored outside of the heap and, when space is needed, the
+     * snapshots which are least likely to be reused relative to their size are evicted first.
+     * The default is 0, which means that the size of the history is only limited by the
+     * number of snapshots.
+     * @param bytes
+     */
+    public void setHistoryMemoryLimit(long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Parameter must be >= 0"); }
+        this.historyMemoryLimit = bytes;
+    }
+
+    /**
+     * Sets the number of threads used for checking transformations. With more than one
+     * thread, transformations which are likely to be checked next are checked speculatively
+     * in the background. The result is identical to the result of a single-threaded run.
+     * The default is 1.
+     * @param numberOfThreads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfThreads = numberOfThreads;
+    }
+
     /**
      * Allows for a certain percentage of outliers and thus
      * triggers tuple suppression.
@@ -1051,6 +1229,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.metric = model;
     }
     
+    /**
+     * Sets whether snapshots in the history are compressed. Compressed snapshots store
+     * representatives as differences and all values as variable-length integers. They are
+     * decoded on the fly when they are used, which means that more snapshots fit into the
+     * history at the cost of some processing time. The default is false.
+     * @param snapshotCompressionEnabled
+     */
+    public void setSnapshotCompressionEnabled(boolean snapshotCompressionEnabled) {
+        this.snapshotCompressionEnabled = snapshotCompressionEnabled;
+    }
+    
     /**
      * Sets whether suppression is applied to the output of anonymous as well as non-anonymous transformations. If
      * this flag is set to <code>true</code>, suppression will be applied to the output of non-anonymous 
@@ -1223,6 +1412,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.criteria = criteria;
         MetricConfiguration utilityConfig = result.getQualityModel().getConfiguration();
         utilityConfig.setGsFactor(gsFactor);
+        
+        // The records which are optimized are mostly outliers, which means that bounds derived from the
+        // transformed data rarely allow to prune anything. Bounds which are derived without transforming
+        // the data allow to prune transformations before they are checked.
+        if (!utilityConfig.isPrecomputed() && result.getQualityModel().isPrecomputationOfLowerBoundsSupported()) {
+            utilityConfig.setPrecomputed(true);
+            utilityConfig.setPrecomputationThreshold(1d);
+        }
         result.metric = result.getQualityModel().getDescription().createInstance(utilityConfig);
         
         // Return
@@ -45,27 +45,29 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
     }
 
     /** Configuration */
-    private double        alpha         = 1d;
+    private double        alpha           = 1d;
     /** Configuration */
-    private double        decayExponent = 0.2d;
+    private double        decayExponent   = 0.2d;
     /** Configuration */
-    private double        lambda        = 0.000001d;
+    private double        lambda          = 0.000001d;
     /** Configuration */
-    private double        learningRate  = 1d;
+    private double        learningRate    = 1d;
     /** Configuration */
-    private int           stepOffset    = 10000;
+    private int           stepOffset      = 10000;
     /** Configuration */
-    private int           vectorLength  = 1000;
+    private int           vectorLength    = 1000;
     /** Max records */
-    private int           maxRecords    = 100000;
+    private int           maxRecords      = 100000;
     /** Seed */
-    private int           seed          = Integer.MAX_VALUE;
+    private int           seed            = Integer.MAX_VALUE;
     /** Folds */
-    private int           numberOfFolds = 10;
+    private int           numberOfFolds   = 10;
     /** Deterministic */
-    private boolean       deterministic = true;
+    private boolean       deterministic   = true;
     /** Configuration */
-    private PriorFunction prior         = PriorFunction.L1;
+    private PriorFunction prior           = PriorFunction.L1;
+    /** Threads */
+    private Integer       numberOfThreads = 1;
 
     /**
      * Constructor
@@ -116,6 +118,17 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
         return numberOfFolds;
     }
     
+    /**
+     * Returns the number of threads used for evaluating folds. The default is 1.
+     * @return the numberOfThreads
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = 1;
+        }
+        return numberOfThreads;
+    }
+    
     /**
      * @return the priorFunction
      */
@@ -216,6 +229,19 @@ public class ARXLogisticRegressionConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * Sets the number of threads used for evaluating folds. Results do not depend
+     * on the number of threads. The default is 1.
+     * @param numberOfThreads the numberOfThreads to set
+     */
+    public ARXLogisticRegressionConfiguration setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
+        this.numberOfThreads = numberOfThreads;
+        return this;
+    }
+
     /**
      * @param priorFunction the priorFunction to set
      */
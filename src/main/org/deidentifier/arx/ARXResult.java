@@ -43,6 +43,84 @@ import org.deidentifier.arx.metric.Metric;
  */
 public class ARXResult {
 
+    /**
+     * Maintains state which can be reused when local recoding is applied iteratively. The
+     * projected data is reused as long as the same records are optimized, which is the case
+     * when the generalization/suppression factor is adapted.
+     *
+     * @author Fabian Prasser
+     */
+    private class LocalRecodingEngine {
+
+        /** The anonymizer */
+        private final ARXAnonymizer  anonymizer = new ARXAnonymizer();
+
+        /** The data definition */
+        private final DataDefinition definition;
+
+        /** The records which are currently optimized */
+        private RowSet               rowset;
+
+        /** The data manager for the current records */
+        private DataManager          manager;
+
+        /**
+         * Creates a new instance
+         */
+        LocalRecodingEngine() {
+            // In the data definition, only microaggregation functions maintain a state, but these 
+            // are cloned, when cloning the definition
+            // TODO: This is probably not necessary, because they are used from the data manager,
+            //       which in turn creates a clone by itself
+            this.definition = ARXResult.this.definition.clone();
+        }
+
+        /**
+         * Anonymizes the given records
+         * @param rowset
+         * @param gsFactor
+         * @param listener
+         * @return
+         * @throws IOException
+         */
+        Result anonymize(RowSet rowset, double gsFactor, ARXListener listener) throws IOException {
+            
+            // Clone the data manager, if other records are to be optimized
+            if (this.rowset == null || !isEqual(this.rowset, rowset)) {
+                this.rowset = rowset;
+                this.manager = ARXResult.this.manager.getSubsetInstance(rowset);
+            }
+            
+            // We start by creating a projected instance of the configuration
+            // - All privacy models will be cloned
+            // - Subsets will be projected accordingly
+            // - Utility measures will be cloned
+            ARXConfiguration config = ARXResult.this.config.getInstanceForLocalRecoding(rowset, gsFactor);
+            
+            // Anonymize
+            anonymizer.setListener(listener);
+            return anonymizer.anonymize(manager, definition, config);
+        }
+
+        /**
+         * Returns whether both sets contain the same rows
+         * @param set1
+         * @param set2
+         * @return
+         */
+        private boolean isEqual(RowSet set1, RowSet set2) {
+            if (set1.length() != set2.length() || set1.size() != set2.size()) {
+                return false;
+            }
+            for (int row = 0; row < set1.length(); row++) {
+                if (set1.contains(row) != set2.contains(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /** Lock the buffer. */
     private DataHandle             bufferLockedByHandle = null;
 
@@ -119,10 +197,12 @@ public class ARXResult {
                                                     dictionary,
                                                     handle.getDefinition(),
                                                     config.getPrivacyModels(),
-                                                    getAggregateFunctions(handle.getDefinition()));
+                                                    getAggregateFunctions(handle.getDefinition()),
+                                                    config.isColumnarInputEnabled(),
+                                                    config.getColumnarInputFile());
 
         // Update handle
-        ((DataHandleInput)handle).update(manager.getDataGeneralized().getArray(), 
+        ((DataHandleInput)handle).update(manager.getDataGeneralized(), 
                                          manager.getDataAnalyzed().getArray(),
                                          manager.getDataStatic().getArray());
         
@@ -496,6 +576,18 @@ public class ARXResult {
      * @return The number of optimized records
      */
     public int optimize(DataHandle handle, double gsFactor, ARXListener listener) throws RollbackRequiredException {
+        return optimize(handle, gsFactor, listener, new LocalRecodingEngine());
+    }
+    
+    /**
+     * This method optimizes the given data output with local recoding to improve its utility
+     * @param handle
+     * @param gsFactor
+     * @param listener 
+     * @param engine
+     * @return The number of optimized records
+     */
+    private int optimize(DataHandle handle, double gsFactor, ARXListener listener, LocalRecodingEngine engine) throws RollbackRequiredException {
         
         // Check if null
         if (listener == null) {
@@ -542,31 +634,9 @@ public class ARXResult {
         // Everything that is used from here on, needs to be either
         // (a) state-less, or
         // (b) a fresh copy of the original configuration.
-
-        // We start by creating a projected instance of the configuration
-        // - All privacy models will be cloned
-        // - Subsets will be projected accordingly
-        // - Utility measures will be cloned
-        ARXConfiguration config = this.config.getInstanceForLocalRecoding(rowset, gsFactor);
-
-        // In the data definition, only microaggregation functions maintain a state, but these 
-        // are cloned, when cloning the definition
-        // TODO: This is probably not necessary, because they are used from the data manager,
-        //       which in turn creates a clone by itself
-        DataDefinition definition = this.definition.clone();
-        
-        // Clone the data manager
-        DataManager manager = this.manager.getSubsetInstance(rowset);
-        
-        // Create an anonymizer
-        // TODO: May this object stores some values that should be transferred?
-        ARXAnonymizer anonymizer = new ARXAnonymizer();
-        anonymizer.setListener(listener);
-        
-        // Anonymize
         Result result = null;
         try {
-            result = anonymizer.anonymize(manager, definition, config);
+            result = engine.anonymize(rowset, gsFactor, listener);
         } catch (IOException e) {
             // This should not happen at this point in time, as data has already been read from the source
             throw new RuntimeException("Internal error");
@@ -603,6 +673,7 @@ public class ARXResult {
             
             // Update data types
             output.updateDataTypes(result.optimum.getGeneralization());
+            registry.invalidateCaches();
             
             // Mark as optimized
             if (optimized != 0) {
@@ -676,6 +747,7 @@ public class ARXResult {
         }
 
         // Outer loop
+        LocalRecodingEngine engine = new LocalRecodingEngine();
         int iterations = 0;
         int optimized = Integer.MAX_VALUE;
         double totalAdaption = 0d;
@@ -695,7 +767,7 @@ public class ARXResult {
             };
 
             // Perform individual optimization
-            optimized = optimize(handle, gsFactor, wrapper);
+            optimized = optimize(handle, gsFactor, wrapper, engine);
             
             // Try to adapt, if possible
             if (optimized == 0 && adaptionFactor > 0d) {
@@ -22,13 +22,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.apache.poi.ss.formula.functions.T;
+import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.io.IEncodedData;
 import org.deidentifier.arx.io.ImportAdapter;
 import org.deidentifier.arx.io.ImportConfiguration;
 
@@ -117,6 +121,77 @@ public abstract class Data {
 
     }
 
+    /**
+     * A data object for data which has already been encoded, e.g. because it has been
+     * loaded from a {@link DataCache}. Creating a handle does not require any parsing.
+     *
+     * @author Fabian Prasser
+     */
+    static class EncodedData extends Data {
+
+        /** The header. */
+        private final String[]   header;
+
+        /** The finalized dictionary. */
+        private final Dictionary dictionary;
+
+        /** The encoded values. */
+        private final int[][]    values;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param header the header
+         * @param dictionary the finalized dictionary
+         * @param values the encoded values
+         */
+        EncodedData(final String[] header, final Dictionary dictionary, final int[][] values) {
+            this.header = header;
+            this.dictionary = dictionary;
+            this.values = values;
+        }
+
+        @Override
+        protected DataHandleInput createHandle() {
+            return new DataHandleInput(this, header, dictionary, values);
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return new Iterator<String[]>() {
+
+                private int pos = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < values.length;
+                }
+
+                @Override
+                public String[] next() throws NoSuchElementException {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (pos++ == -1) {
+                        return header.clone();
+                    }
+                    final String[][] mapping = dictionary.getMapping();
+                    final int[] tuple = values[pos - 1];
+                    final String[] result = new String[tuple.length];
+                    for (int i = 0; i < tuple.length; i++) {
+                        result[i] = mapping[i][tuple[i]];
+                    }
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -346,6 +421,49 @@ public abstract class Data {
         return new IterableData(new CSVDataInput(stream, charset, config, datatypes).iterator());
     }
 
+    /**
+     * Creates a new data object from encoded data, e.g. data which has been written in ARX's
+     * binary format and which is read with a BinaryDataInput. The values are not parsed
+     * but only re-encoded.
+     *
+     * @param data The encoded data
+     * @return A Data object
+     */
+    public static Data create(final IEncodedData data) {
+
+        // Build dictionaries without duplicates
+        final String[] header = data.getHeader().clone();
+        final String[][] mapping = new String[header.length][];
+        final int[][] codes = new int[header.length][];
+        for (int column = 0; column < header.length; column++) {
+            String[] dictionary = data.getDictionary(column);
+            Map<String, Integer> map = new HashMap<String, Integer>();
+            List<String> values = new ArrayList<String>();
+            codes[column] = new int[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                Integer value = map.get(dictionary[code]);
+                if (value == null) {
+                    value = values.size();
+                    map.put(dictionary[code], value);
+                    values.add(dictionary[code]);
+                }
+                codes[column][code] = value;
+            }
+            mapping[column] = values.toArray(new String[values.size()]);
+        }
+
+        // Encode
+        final int[][] values = new int[data.getNumRows()][header.length];
+        for (int row = 0; row < values.length; row++) {
+            for (int column = 0; column < header.length; column++) {
+                values[row][column] = codes[column][data.getEncodedValue(row, column)];
+            }
+        }
+        
+        // Return
+        return new EncodedData(header, new Dictionary(mapping), values);
+    }
+
     /**
      * Creates a new data object from an iterator over tuples.
      *
@@ -498,13 +616,22 @@ public abstract class Data {
      */
     public DataHandle getHandle() {
         if (handle == null) {
-            handle = new DataHandleInput(this);
+            handle = createHandle();
         } else {
             handle.update(this);
         }
         return handle;
     }
 
+    /**
+     * Creates a new data handle for this object.
+     *
+     * @return the handle
+     */
+    protected DataHandleInput createHandle() {
+        return new DataHandleInput(this);
+    }
+
     /**
      * Iterator.
      *
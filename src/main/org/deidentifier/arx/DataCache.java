@@ -0,0 +1,329 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.poi.ss.formula.functions.T;
+import org.deidentifier.arx.DataType.DataTypeWithFormat;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataChecksum;
+import org.deidentifier.arx.io.CSVSyntax;
+
+/**
+ * A persistent cache for encoded input data. When a CSV file is loaded for the first time,
+ * it is parsed and dictionary encoded as usual and the resulting header, dictionary and
+ * encoded values are written to the cache directory. Subsequent loads of the same file
+ * read the encoded representation directly, which does not require any parsing.<br>
+ * <br>
+ * Entries are identified by a SHA-256 checksum of the raw file and the syntax, as well as
+ * a hash of the charset and the data types used for cleansing values while parsing. Entries
+ * for files which have been modified will therefore not be found.
+ *
+ * @author Fabian Prasser
+ */
+public class DataCache {
+
+    /** Magic number identifying files */
+    private static final int    MAGIC          = 0x41525844;
+
+    /** Version of the file format */
+    private static final int    VERSION        = 1;
+
+    /** Suffix of cache files */
+    private static final String SUFFIX         = ".encoded";
+
+    /** Number of rows read and written at once */
+    private static final int    ROWS_PER_BLOCK = 4096;
+
+    /** The directory */
+    private final File          directory;
+
+    /**
+     * Creates a new cache in the given directory, which is created if it does not exist.
+     *
+     * @param directory
+     * @throws IOException
+     */
+    public DataCache(final File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the data in the given CSV file, reading it from the cache if possible.
+     *
+     * @param file
+     * @param charset
+     * @param syntax
+     * @return
+     * @throws IOException
+     */
+    public Data load(final File file, final Charset charset, final CSVSyntax syntax) throws IOException {
+        return load(file, charset, syntax, null);
+    }
+
+    /**
+     * Returns the data in the given CSV file, reading it from the cache if possible.
+     *
+     * @param file
+     * @param charset
+     * @param syntax
+     * @param datatypes Data types used for cleansing values, may be null
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public Data load(final File file, final Charset charset, final CSVSyntax syntax, final DataType<?>[] datatypes) throws IOException {
+
+        // Identify entry
+        final String definition = getDefinition(charset, datatypes);
+        final File entry = getEntry(file, syntax, definition);
+
+        // Read from cache
+        if (entry.exists()) {
+            Data data = read(entry, definition);
+            if (data != null) {
+                return data;
+            }
+        }
+
+        // Parse, encode and write to cache
+        Data data = datatypes == null ? Data.create(file, charset, syntax) : Data.create(file, charset, syntax, (DataType<T>[]) datatypes);
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        write(entry, definition, handle.header, handle.dictionary, handle.data);
+        return data;
+    }
+
+    /**
+     * Returns the file in which the given data is cached.
+     *
+     * @param file
+     * @param syntax
+     * @param definition
+     * @return
+     * @throws IOException
+     */
+    private File getEntry(final File file, final CSVSyntax syntax, final String definition) throws IOException {
+        String checksum;
+        InputStream stream = new FileInputStream(file);
+        try {
+            checksum = new CSVDataChecksum(syntax).getSHA256Checksum(stream);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        } finally {
+            stream.close();
+        }
+        return new File(directory, checksum + "-" + Integer.toHexString(definition.hashCode()) + SUFFIX);
+    }
+
+    /**
+     * Returns a textual representation of all parameters that influence the encoding.
+     *
+     * @param charset
+     * @param datatypes
+     * @return
+     */
+    private String getDefinition(final Charset charset, final DataType<?>[] datatypes) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(charset.name());
+        if (datatypes != null) {
+            for (DataType<?> type : datatypes) {
+                builder.append(';').append(type);
+                if (type instanceof DataTypeWithFormat) {
+                    builder.append(',').append(((DataTypeWithFormat) type).getFormat());
+                    builder.append(',').append(((DataTypeWithFormat) type).getLocale());
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads an entry. Returns null if the entry does not match the definition.
+     *
+     * @param entry
+     * @param definition
+     * @return
+     * @throws IOException
+     */
+    private Data read(final File entry, final String definition) throws IOException {
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(entry), 1 << 20));
+        try {
+
+            // Header
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Invalid file format");
+            }
+            if (!definition.equals(readString(input))) {
+                return null;
+            }
+            int dimensions = input.readInt();
+            String[] header = new String[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                header[i] = readString(input);
+            }
+
+            // Dictionary
+            String[][] mapping = new String[dimensions][];
+            for (int i = 0; i < dimensions; i++) {
+                mapping[i] = new String[input.readInt()];
+                for (int j = 0; j < mapping[i].length; j++) {
+                    mapping[i][j] = readString(input);
+                }
+            }
+
+            // Values
+            int[][] values = new int[input.readInt()][];
+            byte[] block = new byte[ROWS_PER_BLOCK * dimensions * 4];
+            IntBuffer buffer = ByteBuffer.wrap(block).asIntBuffer();
+            for (int offset = 0; offset < values.length; offset += ROWS_PER_BLOCK) {
+                int rows = Math.min(ROWS_PER_BLOCK, values.length - offset);
+                input.readFully(block, 0, rows * dimensions * 4);
+                buffer.rewind();
+                for (int row = offset; row < offset + rows; row++) {
+                    values[row] = new int[dimensions];
+                    buffer.get(values[row]);
+                }
+            }
+
+            // Return
+            return new Data.EncodedData(header, new Dictionary(mapping), values);
+
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param input
+     * @return
+     * @throws IOException
+     */
+    private String readString(final DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an entry. The file is written to a temporary location first, so that
+     * incomplete entries are never visible.
+     *
+     * @param entry
+     * @param definition
+     * @param header
+     * @param dictionary
+     * @param values
+     * @throws IOException
+     */
+    private void write(final File entry,
+                       final String definition,
+                       final String[] header,
+                       final Dictionary dictionary,
+                       final int[][] values) throws IOException {
+
+        File temp = File.createTempFile("arx", ".tmp", directory);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 20));
+        try {
+
+            // Header
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeString(output, definition);
+            output.writeInt(header.length);
+            for (String attribute : header) {
+                writeString(output, attribute);
+            }
+
+            // Dictionary
+            for (String[] column : dictionary.getMapping()) {
+                output.writeInt(column.length);
+                for (String value : column) {
+                    writeString(output, value);
+                }
+            }
+
+            // Values
+            output.writeInt(values.length);
+            byte[] block = new byte[ROWS_PER_BLOCK * header.length * 4];
+            IntBuffer buffer = ByteBuffer.wrap(block).asIntBuffer();
+            for (int offset = 0; offset < values.length; offset += ROWS_PER_BLOCK) {
+                int rows = Math.min(ROWS_PER_BLOCK, values.length - offset);
+                buffer.rewind();
+                for (int row = offset; row < offset + rows; row++) {
+                    buffer.put(values[row]);
+                }
+                output.write(block, 0, rows * header.length * 4);
+            }
+        } catch (IOException e) {
+            output.close();
+            temp.delete();
+            throw e;
+        }
+        output.close();
+
+        // Publish
+        if (entry.exists()) {
+            entry.delete();
+        }
+        if (!temp.renameTo(entry)) {
+            temp.delete();
+            throw new IOException("Cannot create cache entry: " + entry);
+        }
+    }
+
+    /**
+     * Writes a string.
+     *
+     * @param output
+     * @param string
+     * @throws IOException
+     */
+    private void writeString(final DataOutputStream output, final String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
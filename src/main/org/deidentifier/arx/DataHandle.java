@@ -43,8 +43,11 @@ import org.deidentifier.arx.DataType.ARXInteger;
 import org.deidentifier.arx.DataType.DataTypeDescription;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.io.BinaryDataOutput;
 import org.deidentifier.arx.io.CSVDataOutput;
 import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.io.IEncodedData;
+import org.deidentifier.arx.risk.EquivalenceClassCache;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
 import org.deidentifier.arx.risk.RiskModelHistogram;
 
@@ -64,6 +67,40 @@ import cern.colt.Swapper;
  */
 public abstract class DataHandle {
 
+    /**
+     * Provides access to the encoded data, for writing it without materializing rows.
+     * Suppressed values and values of identifiers are encoded with the last code of
+     * the dictionary of a column.
+     * 
+     * @author Fabian Prasser
+     */
+    private class EncodedData implements IEncodedData {
+
+        @Override
+        public String[] getDictionary(int column) {
+            String[] dictionary = internalGetDictionary(column);
+            String[] result = new String[dictionary.length + 1];
+            System.arraycopy(dictionary, 0, result, 0, dictionary.length);
+            result[dictionary.length] = DataType.ANY_VALUE;
+            return result;
+        }
+
+        @Override
+        public int getEncodedValue(int row, int column) {
+            return internalGetEncodedValue(row, column, false);
+        }
+
+        @Override
+        public String[] getHeader() {
+            return header;
+        }
+
+        @Override
+        public int getNumRows() {
+            return DataHandle.this.getNumRows();
+        }
+    }
+
     /** The data types. */
     protected DataType<?>[][]   dataTypes  = null;
 
@@ -81,6 +118,9 @@ public abstract class DataHandle {
 
     /** The current research subset. */
     protected DataHandle        subset     = null;
+
+    /** The equivalence classes used by risk analyses. */
+    protected final EquivalenceClassCache classCache = new EquivalenceClassCache();
     
     /**
      * Returns the name of the specified column.
@@ -600,6 +640,7 @@ public abstract class DataHandle {
      * as well.
      */
     public void release() {
+        classCache.invalidate();
         if (registry != null) {
             registry.release(this);
         }
@@ -639,6 +680,30 @@ public abstract class DataHandle {
         return registry.replace(column, original, replacement);
     }
 
+    /**
+     * Writes the data to the given binary output. The output is closed or flushed afterwards.
+     * The result can be read with BinaryDataInput and converted into a Data object with
+     * Data.create(IEncodedData).
+     *
+     * @param output the output
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final BinaryDataOutput output) throws IOException {
+        checkRegistry();
+        output.write(getEncodedData());
+    }
+
+    /**
+     * Writes the data to the given CSV output. The output is closed or flushed afterwards.
+     *
+     * @param output the output
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final CSVDataOutput output) throws IOException {
+        checkRegistry();
+        output.write(iterator());
+    }
+
     /**
      * Writes the data to a CSV file.
      *
@@ -648,7 +713,7 @@ public abstract class DataHandle {
     public void save(final File file) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(file);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -661,7 +726,7 @@ public abstract class DataHandle {
     public void save(final File file, final char separator) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(file, separator);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -674,7 +739,7 @@ public abstract class DataHandle {
     public void save(final File file, final CSVSyntax config) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(file, config);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -686,7 +751,7 @@ public abstract class DataHandle {
     public void save(final OutputStream out) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(out);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -699,7 +764,7 @@ public abstract class DataHandle {
     public void save(final OutputStream out, final char separator) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(out, separator);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -712,7 +777,7 @@ public abstract class DataHandle {
     public void save(final OutputStream out, final CSVSyntax config) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(out, config);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -724,7 +789,7 @@ public abstract class DataHandle {
     public void save(final String path) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(path);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -737,7 +802,7 @@ public abstract class DataHandle {
     public void save(final String path, final char separator) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(path, separator);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -750,7 +815,7 @@ public abstract class DataHandle {
     public void save(final String path, final CSVSyntax config) throws IOException {
         checkRegistry();
         final CSVDataOutput output = new CSVDataOutput(path, config);
-        output.write(iterator());
+        save(output);
     }
 
     /**
@@ -916,6 +981,15 @@ public abstract class DataHandle {
      */
     protected abstract String[] getDistinctValues(int column, boolean ignoreSuppression, InterruptHandler handler);
 
+    /**
+     * Returns an encoded representation of the data.
+     *
+     * @return
+     */
+    protected IEncodedData getEncodedData() {
+        return new EncodedData();
+    }
+
     /**
      * Returns the registry associated with this handle.
      *
@@ -959,6 +1033,26 @@ public abstract class DataHandle {
         }
     }
 
+    /**
+     * Returns the values of the given column indexed by their dictionary-encoded representation.
+     * The array may contain the same value more than once.
+     *
+     * @param column the column
+     * @return the dictionary
+     */
+    protected abstract String[] internalGetDictionary(int column);
+
+    /**
+     * Internal representation of get value, which returns the dictionary-encoded value. 
+     * Suppressed values are encoded as the length of the dictionary of the column.
+     *
+     * @param row the row
+     * @param col the col
+     * @param ignoreSuppression
+     * @return the encoded value
+     */
+    protected abstract int internalGetEncodedValue(int row, int col, boolean ignoreSuppression);
+
     /**
      * Internal representation of get value.
      *
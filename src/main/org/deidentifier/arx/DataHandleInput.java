@@ -41,7 +41,7 @@ public class DataHandleInput extends DataHandle {
     protected Dictionary dictionary = null;
 
     /** The data. */
-    private int[][]      dataGH     = null;
+    private org.deidentifier.arx.framework.data.Data dataGH = null;
 
     /** The data. */
     private int[][]      dataDI     = null;
@@ -100,6 +100,30 @@ public class DataHandleInput extends DataHandle {
         this.dataTypes = getDataTypeArray();
     }
 
+    /**
+     * Creates a new data handle for data which has already been encoded.
+     *
+     * @param data
+     * @param header
+     * @param dictionary A finalized dictionary
+     * @param values
+     */
+    protected DataHandleInput(final Data data, final String[] header, final Dictionary dictionary, final int[][] values) {
+
+        // Register
+        this.setRegistry(new DataRegistry());
+        this.getRegistry().updateInput(this);
+        this.definition = data.getDefinition().clone();
+
+        // Store
+        super.header = Arrays.copyOf(header, header.length);
+        this.dictionary = dictionary;
+        this.data = values;
+
+        // Create datatype array
+        this.dataTypes = getDataTypeArray();
+    }
+
     @Override
     public String getAttributeName(final int column) {
         checkRegistry();
@@ -243,11 +267,21 @@ public class DataHandleInput extends DataHandle {
      * Returns the input buffer
      * @return
      */
-    protected int[][] getInputBuffer() {
+    protected org.deidentifier.arx.framework.data.Data getInputBuffer() {
         checkRegistry();
         return this.dataGH;
     }
     
+    @Override
+    protected String[] internalGetDictionary(final int column) {
+        return dictionary.getMapping()[column];
+    }
+
+    @Override
+    protected int internalGetEncodedValue(final int row, final int column, final boolean ignoreSuppression) {
+        return data[row][column];
+    }
+
     @Override
     protected String internalGetValue(final int row, final int column, final boolean ignoreSuppression) {
         return dictionary.getMapping()[column][data[row][column]];
@@ -283,7 +317,7 @@ public class DataHandleInput extends DataHandle {
 
         // Swap
         swap(row1, row2, data);
-        if (dataGH != null) swap(row1, row2, dataGH);
+        if (dataGH != null) dataGH.swap(row1, row2);
         if (dataDI != null) swap(row1, row2, dataDI);
         if (dataIS != null) swap(row1, row2, dataIS);
     }
@@ -336,7 +370,7 @@ public class DataHandleInput extends DataHandle {
      * @param dataDI
      * @param dataIS
      */
-    protected void update(int[][] dataGH, int[][] dataDI, int[][] dataIS) {
+    protected void update(org.deidentifier.arx.framework.data.Data dataGH, int[][] dataDI, int[][] dataIS) {
         this.dataGH = dataGH;
         this.dataDI = dataDI;
         this.dataIS = dataIS;
@@ -21,6 +21,7 @@ import java.text.ParseException;
 import java.util.Date;
 
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.risk.EquivalenceClassCache;
 
 /**
  * Wrapper class that provides information to StatisticsBuilder.
@@ -208,6 +209,15 @@ public class DataHandleInternal {
         return this.handle.getStatistics();
     }
 
+    /**
+     * Returns the cache of equivalence classes for risk analyses
+     * 
+     * @return
+     */
+    public EquivalenceClassCache getEquivalenceClassCache() {
+        return handle.classCache;
+    }
+
     /**
      * Returns the superset, if this handle is a subset
      * @return
@@ -230,6 +240,30 @@ public class DataHandleInternal {
         return handle.getValue(row, column);
     }
 
+    /**
+     * Returns the values of the given column indexed by their dictionary-encoded representation.
+     * The array may contain the same value more than once.
+     * 
+     * @param column
+     * @return
+     */
+    public String[] getDictionary(final int column) {
+        return handle.internalGetDictionary(column);
+    }
+
+    /**
+     * Returns the dictionary-encoded value. Suppressed values are encoded as the length of the
+     * dictionary of the column.
+     * 
+     * @param row
+     * @param col
+     * @param ignoreSuppression
+     * @return
+     */
+    public int getEncodedValue(final int row, final int col, final boolean ignoreSuppression) {
+        return handle.internalGetEncodedValue(row, col, ignoreSuppression);
+    }
+
     /**
      * Gets the value
      */
@@ -237,6 +271,21 @@ public class DataHandleInternal {
         return handle.internalGetValue(row, col, ignoreSuppression);
     }
     
+    /**
+     * Returns the index of the given row in the superset, if this handle is a subset.
+     * Returns the row itself, if this handle is not a subset.
+     * 
+     * @param row
+     * @return
+     */
+    public int getSupersetRow(int row) {
+        if (!(handle instanceof DataHandleSubset)) {
+            return row;
+        } else {
+            return ((DataHandleSubset)handle).getSubset()[row];
+        }
+    }
+
     /**
      * Returns the view
      * @return
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -30,6 +31,7 @@ import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataManager.AttributeTypeInternal;
 import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataOutput;
 
 /**
  * An implementation of the class DataHandle for output data.
@@ -318,6 +320,19 @@ public class DataHandleOutput extends DataHandle {
     public boolean replace(int column, String original, String replacement) {
         throw new UnsupportedOperationException("This operation is only supported by handles for data input");
     }
+
+    /**
+     * Writes the data to the given CSV output. Rows are formatted in blocks directly from
+     * the encoded data, as configured in the output.
+     *
+     * @param output the output
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Override
+    public void save(final CSVDataOutput output) throws IOException {
+        checkRegistry();
+        output.write(getEncodedData());
+    }
     
     /**
      * Used to update data when loading projects after local recoding. This is part of the internal API
@@ -331,6 +346,7 @@ public class DataHandleOutput extends DataHandle {
 
         updateData(data, outputGeneralized, types, outliers);
         updateData(data, outputMicroaggregated, types, outliers);
+        classCache.invalidate();
         
         // Update outliers
         int previous = 0;
@@ -558,7 +574,7 @@ public class DataHandleOutput extends DataHandle {
      * Returns the input buffer
      * @return
      */
-    protected int[][] getInputBuffer() {
+    protected Data getInputBuffer() {
         checkRegistry();
         return registry.getInputHandle().getInputBuffer();
     }
@@ -631,6 +647,56 @@ public class DataHandleOutput extends DataHandle {
         return 0;
     }
     
+    /**
+     * Returns the dictionary of the given column. Identifying attributes have an empty
+     * dictionary, as all of their values are suppressed.
+     * 
+     * @param column
+     *            the column
+     * @return the dictionary
+     */
+    @Override
+    protected String[] internalGetDictionary(final int column) {
+        final int key = column * 2;
+        final int type = inverseMap[key];
+        switch (type) {
+        case AttributeTypeInternal.IDENTIFYING:
+            return new String[0];
+        default:
+            return inverseDictionaries[type].getMapping()[inverseMap[key + 1]];
+        }
+    }
+
+    /**
+     * Gets the encoded value internal.
+     * 
+     * @param row
+     *            the row
+     * @param col
+     *            the col
+     * @return the encoded value internal
+     */
+    @Override
+    protected int internalGetEncodedValue(final int row,
+                                          final int col,
+                                          final boolean ignoreSuppression) {
+        
+        // Return the according values
+        final int key = col * 2;
+        final int type = inverseMap[key];
+        switch (type) {
+        case AttributeTypeInternal.IDENTIFYING:
+            return 0;
+        default:
+            final int index = inverseMap[key + 1];
+            if (!ignoreSuppression && (suppressedAttributeTypes & (1 << type)) != 0 &&
+                ((outputGeneralized.getArray()[row][0] & Data.OUTLIER_MASK) != 0)) {
+                return inverseDictionaries[type].getMapping()[index].length;
+            }
+            return inverseData[type][row][index] & Data.REMOVE_OUTLIER_MASK;
+        }
+    }
+    
     /**
      * Gets the value internal.
      * 
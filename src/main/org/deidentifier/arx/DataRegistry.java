@@ -62,6 +62,7 @@ class DataRegistry {
      * @return
      */
     public boolean replace(int column, String original, String replacement) {
+        invalidateCaches();
         boolean replaced = false; 
         replaced |= input.internalReplace(column, original, replacement);
         if (!output.isEmpty()) {
@@ -70,6 +71,24 @@ class DataRegistry {
         return replaced;
     }
     
+    /**
+     * Invalidates the caches of all handles, e.g. because the data has been modified
+     */
+    protected void invalidateCaches() {
+        if (input != null) {
+            input.classCache.invalidate();
+        }
+        if (inputSubset != null) {
+            inputSubset.classCache.invalidate();
+        }
+        for (DataHandle handle : output.values()) {
+            handle.classCache.invalidate();
+        }
+        for (DataHandle handle : outputSubset.values()) {
+            handle.classCache.invalidate();
+        }
+    }
+
     /**
      * Helper that creates a view on a research subset.
      *
@@ -299,6 +318,9 @@ class DataRegistry {
      */
     protected void release(DataHandle handle) {
         
+        // Drop cached data
+        handle.classCache.invalidate();
+        
         // Handle subsets
         if (handle instanceof DataHandleSubset) {
            return;
@@ -400,6 +422,7 @@ class DataRegistry {
         handle.checkColumns(columns);
         handle.checkRow(from, handle.getNumRows());
         handle.checkRow(to, handle.getNumRows());
+        invalidateCaches();
         
         if (handle instanceof DataHandleSubset){
             sortSubset((DataHandleSubset)handle, swapper, from, to, ascending, columns);
@@ -416,6 +439,7 @@ class DataRegistry {
      * @param row2
      */
     protected void swap(DataHandle handle, int row1, int row2) {
+        invalidateCaches();
         if (handle instanceof DataHandleSubset){
             swapSubset((DataHandleSubset)handle, row1, row2);
         } else {
@@ -21,10 +21,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.classification.ClassificationDataSpecification;
+import org.deidentifier.arx.aggregates.classification.ClassificationFeatureMatrix;
 import org.deidentifier.arx.aggregates.classification.ClassificationMethod;
 import org.deidentifier.arx.aggregates.classification.ClassificationResult;
 import org.deidentifier.arx.aggregates.classification.MultiClassLogisticRegression;
@@ -41,6 +45,172 @@ import org.deidentifier.arx.exceptions.ComputationInterruptedException;
  */
 public class StatisticsClassification {
     
+    /**
+     * Trains the classifiers with all but one fold and evaluates them with the remaining fold.
+     * The results of each classification are stored, so that they can be accumulated in the
+     * order of the folds, independently of the order in which folds are evaluated.
+     * 
+     * @author Fabian Prasser
+     */
+    private class Fold extends RecursiveAction {
+
+        /** SVUID */
+        private static final long                        serialVersionUID = -4420357047745024117L;
+
+        /** The index of the fold used for validation */
+        private final int                                evaluationFold;
+        /** All folds */
+        private final List<List<Integer>>                folds;
+        /** Specification */
+        private final ClassificationDataSpecification    specification;
+        /** Configuration */
+        private final ARXLogisticRegressionConfiguration config;
+        /** Output handle */
+        private final DataHandleInternal                 outputHandle;
+        /** Input features */
+        private final ClassificationFeatureMatrix        inputFeatures;
+        /** Output features */
+        private final ClassificationFeatureMatrix        outputFeatures;
+        /** Class of each record */
+        private final int[]                              classes;
+        /** Progress */
+        private final AtomicInteger                      done;
+        /** Progress */
+        private final double                             total;
+
+        /** Results: the number of classifications */
+        private int                                      classifications;
+        /** Results: correct classes */
+        private String[]                                 actualValues;
+        /** Results: input LR */
+        private ClassificationResult[]                   resultsInputLR;
+        /** Results: input ZR */
+        private ClassificationResult[]                   resultsInputZR;
+        /** Results: output LR */
+        private ClassificationResult[]                   resultsOutputLR;
+
+        /**
+         * Creates a new instance
+         * @param evaluationFold
+         * @param folds
+         * @param specification
+         * @param config
+         * @param outputHandle
+         * @param inputFeatures
+         * @param outputFeatures
+         * @param classes
+         * @param done
+         * @param total
+         */
+        private Fold(int evaluationFold,
+                     List<List<Integer>> folds,
+                     ClassificationDataSpecification specification,
+                     ARXLogisticRegressionConfiguration config,
+                     DataHandleInternal outputHandle,
+                     ClassificationFeatureMatrix inputFeatures,
+                     ClassificationFeatureMatrix outputFeatures,
+                     int[] classes,
+                     AtomicInteger done,
+                     double total) {
+            this.evaluationFold = evaluationFold;
+            this.folds = folds;
+            this.specification = specification;
+            this.config = config;
+            this.outputHandle = outputHandle;
+            this.inputFeatures = inputFeatures;
+            this.outputFeatures = outputFeatures;
+            this.classes = classes;
+            this.done = done;
+            this.total = total;
+        }
+
+        @Override
+        protected void compute() {
+
+            // Create classifiers
+            final ClassificationMethod inputLR = new MultiClassLogisticRegression(specification, config);
+            final ClassificationMethod inputZR = new MultiClassZeroR(specification);
+            final ClassificationMethod outputLR = inputFeatures != outputFeatures ? new MultiClassLogisticRegression(specification, config) : null;
+            
+            // Try
+            try {
+                
+                // Train the output classifier concurrently
+                RecursiveAction outputTraining = null;
+                if (outputLR != null) {
+                    outputTraining = new RecursiveAction() {
+                        private static final long serialVersionUID = 3151289462389325040L;
+                        @Override
+                        protected void compute() {
+                            for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+                                if (trainingFold != evaluationFold) {
+                                    for (int index : folds.get(trainingFold)) {
+                                        checkInterrupt();
+                                        if (!outputHandle.isOutlier(index)) {
+                                            outputLR.train(outputFeatures, classes[index], index);
+                                        }
+                                    }
+                                }
+                            }
+                            outputLR.close();
+                        }
+                    };
+                    outputTraining.fork();
+                }
+                
+                // Train with all training sets
+                boolean trained = false;
+                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+                    if (trainingFold != evaluationFold) {                        
+                        for (int index : folds.get(trainingFold)) {
+                            checkInterrupt();
+                            inputLR.train(inputFeatures, classes[index], index);
+                            inputZR.train(inputFeatures, classes[index], index);
+                            trained = true;
+                            progress.value = (int)(done.incrementAndGet() * total);
+                        }
+                    }
+                }
+                
+                // Close
+                inputLR.close();
+                inputZR.close();
+                if (outputTraining != null) {
+                    outputTraining.join();
+                }
+                
+                // Now validate
+                List<Integer> rows = folds.get(evaluationFold);
+                actualValues = new String[rows.size()];
+                resultsInputLR = new ClassificationResult[rows.size()];
+                resultsInputZR = new ClassificationResult[rows.size()];
+                resultsOutputLR = new ClassificationResult[rows.size()];
+                for (int index : rows) {
+                    
+                    // Check
+                    checkInterrupt();
+                    
+                    // If trained
+                    if (trained) {
+                        
+                        // Classify
+                        resultsInputLR[classifications] = inputLR.classify(inputFeatures, index);
+                        resultsInputZR[classifications] = inputZR.classify(inputFeatures, index);
+                        resultsOutputLR[classifications] = outputLR == null ? null : outputLR.classify(outputFeatures, index);
+                        
+                        // Correct result
+                        actualValues[classifications] = outputHandle.getValue(index, specification.classIndex, true);
+                        classifications++;
+                    }
+                    
+                    progress.value = (int)(done.incrementAndGet() * total);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     /**
      * A matrix mapping confidence thresholds to precision and recall
      * 
@@ -189,94 +359,69 @@ public class StatisticsClassification {
                                                                                             clazz,
                                                                                             interrupt);
         
+        // Encode all records once
+        ClassificationFeatureMatrix inputFeatures = new ClassificationFeatureMatrix(inputHandle, specification, config, interrupt);
+        ClassificationFeatureMatrix outputFeatures = inputFeatures;
+        if (inputHandle != outputHandle) {
+            outputFeatures = new ClassificationFeatureMatrix(outputHandle, specification, config, interrupt);
+        }
+        int[] classes = specification.getClasses(outputHandle);
+        
         // Train and evaluate
         int k = inputHandle.getNumRows() > config.getNumFolds() ? config.getNumFolds() : inputHandle.getNumRows();
         List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), k);
 
         // Track
-        int classifications = 0;
         double total = 100d / ((double)inputHandle.getNumRows() * (double)folds.size());
-        double done = 0d;
+        AtomicInteger done = new AtomicInteger();
         
-        // For each fold as a validation set
+        // Use each fold as a validation set
+        final List<Fold> tasks = new ArrayList<Fold>();
         for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
-            
-            // Create classifiers
-            ClassificationMethod inputLR = new MultiClassLogisticRegression(specification, config);
-            ClassificationMethod inputZR = new MultiClassZeroR(specification);
-            ClassificationMethod outputLR = null;
-            if (inputHandle != outputHandle) {
-                outputLR = new MultiClassLogisticRegression(specification, config);
-            }
-            
-            // Try
-            try {
-                
-                // Train with all training sets
-                boolean trained = false;
-                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
-                    if (trainingFold != evaluationFold) {                        
-                        for (int index : folds.get(trainingFold)) {
-                            checkInterrupt();
-                            inputLR.train(inputHandle, outputHandle, index);
-                            inputZR.train(inputHandle, outputHandle, index);
-                            if (outputLR != null && !outputHandle.isOutlier(index)) {
-                                outputLR.train(outputHandle, outputHandle, index);
-                            }
-                            trained = true;
-                            this.progress.value = (int)((++done) * total);
-                        }
-                    }
+            tasks.add(new Fold(evaluationFold, folds, specification, config, outputHandle, inputFeatures, outputFeatures, classes, done, total));
+        }
+        ForkJoinPool pool = new ForkJoinPool(config.getNumberOfThreads());
+        try {
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = -2446498386390373393L;
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
                 }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        
+        // Accumulate results in the order of folds
+        int classifications = 0;
+        for (Fold task : tasks) {
+            for (int i = 0; i < task.classifications; i++) {
                 
-                // Close
-                inputLR.close();
-                inputZR.close();
-                if (outputLR != null) {
-                    outputLR.close();
-                }
+                // Correct result
+                String actualValue = task.actualValues[i];
+                ClassificationResult resultInputLR = task.resultsInputLR[i];
+                ClassificationResult resultInputZR = task.resultsInputZR[i];
+                ClassificationResult resultOutputLR = task.resultsOutputLR[i];
+                classifications++;
                 
-                // Now validate
-                for (int index : folds.get(evaluationFold)) {
-                    
-                    // Check
-                    checkInterrupt();
-                    
-                    // If trained
-                    if (trained) {
-                        
-                        // Classify
-                        ClassificationResult resultInputLR = inputLR.classify(inputHandle, index);
-                        ClassificationResult resultInputZR = inputZR.classify(inputHandle, index);
-                        ClassificationResult resultOutputLR = outputLR == null ? null : outputLR.classify(outputHandle, index);
-                        classifications++;
-                        
-                        // Correct result
-                        String actualValue = outputHandle.getValue(index, specification.classIndex, true);
-                        
-                        // Maintain data about inputZR
-                        this.zeroRAverageError += resultInputZR.error(actualValue);
-                        this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
-
-                        // Maintain data about inputLR
-                        boolean correct = resultInputLR.correct(actualValue);
-                        this.originalAverageError += resultInputLR.error(actualValue);
-                        this.originalAccuracy += correct ? 1d : 0d;
-                        this.originalMatrix.add(resultInputLR.confidence(), correct);
-
-                        // Maintain data about outputLR                        
-                        if (resultOutputLR != null) {
-                            correct = resultOutputLR.correct(actualValue);
-                            this.averageError += resultOutputLR.error(actualValue);
-                            this.accuracy += correct ? 1d : 0d;
-                            this.matrix.add(resultOutputLR.confidence(), correct);
-                        }
-                    }
-                    
-                    this.progress.value = (int)((++done) * total);
+                // Maintain data about inputZR
+                this.zeroRAverageError += resultInputZR.error(actualValue);
+                this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
+
+                // Maintain data about inputLR
+                boolean correct = resultInputLR.correct(actualValue);
+                this.originalAverageError += resultInputLR.error(actualValue);
+                this.originalAccuracy += correct ? 1d : 0d;
+                this.originalMatrix.add(resultInputLR.confidence(), correct);
+
+                // Maintain data about outputLR                        
+                if (resultOutputLR != null) {
+                    correct = resultOutputLR.correct(actualValue);
+                    this.averageError += resultOutputLR.error(actualValue);
+                    this.accuracy += correct ? 1d : 0d;
+                    this.matrix.add(resultOutputLR.confidence(), correct);
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
         }
         
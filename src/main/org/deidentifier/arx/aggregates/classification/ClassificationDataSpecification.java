@@ -101,6 +101,30 @@ public class ClassificationDataSpecification {
         }
     }
 
+    /**
+     * Returns the class of each record of the given handle, ignores suppression while accessing the handle
+     * @param handle
+     * @return
+     */
+    public int[] getClasses(DataHandleInternal handle) {
+
+        // Map codes to classes
+        String[] dictionary = handle.getDictionary(classIndex);
+        int[] classes = new int[dictionary.length + 1];
+        for (int code = 0; code < classes.length; code++) {
+            Integer clazz = classMap.get(code < dictionary.length ? dictionary[code] : DataType.ANY_VALUE);
+            classes[code] = clazz == null ? -1 : clazz;
+        }
+
+        // Encode
+        int[] result = new int[handle.getNumRows()];
+        for (int row = 0; row < result.length; row++) {
+            checkInterrupt();
+            result[row] = classes[handle.getEncodedValue(row, classIndex, true)];
+        }
+        return result;
+    }
+
     /**
      * Checks whether an interruption happened.
      */
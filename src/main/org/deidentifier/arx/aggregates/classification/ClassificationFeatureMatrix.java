@@ -0,0 +1,179 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.aggregates.classification;
+
+import java.util.Arrays;
+
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.Vector.Element;
+import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
+import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
+import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+/**
+ * The hashed feature vectors of all records of a data handle in a sparse representation.
+ * Each distinct value of a feature is hashed only once.
+ *
+ * @author Fabian Prasser
+ */
+public class ClassificationFeatureMatrix {
+
+    /** Indices into the feature vectors */
+    private int[]        indices;
+    /** The number of rows */
+    private final int    numRows;
+    /** Offsets of the rows in the arrays of indices and values */
+    private final int[]  offsets;
+    /** Values */
+    private double[]     values;
+    /** Length of the feature vectors */
+    private final int    vectorLength;
+
+    /**
+     * Creates a new instance
+     * @param handle
+     * @param specification
+     * @param config
+     * @param interrupt
+     */
+    public ClassificationFeatureMatrix(DataHandleInternal handle,
+                                       ClassificationDataSpecification specification,
+                                       ARXLogisticRegressionConfiguration config,
+                                       WrappedBoolean interrupt) {
+
+        // Prepare
+        this.numRows = handle.getNumRows();
+        this.vectorLength = config.getVectorLength();
+        this.offsets = new int[numRows + 1];
+        this.indices = new int[numRows * (specification.featureIndices.length + 1)];
+        this.values = new double[indices.length];
+        ConstantValueEncoder interceptEncoder = new ConstantValueEncoder("intercept");
+        StaticWordValueEncoder wordEncoder = new StaticWordValueEncoder("feature");
+
+        // Intercept
+        Vector intercept = new RandomAccessSparseVector(vectorLength);
+        interceptEncoder.addToVector("1", intercept);
+
+        // Special case where there are no features
+        if (specification.featureIndices.length == 0) {
+            wordEncoder.addToVector("Feature:1", 1, intercept);
+        }
+
+        // Encoded values, per feature and code
+        Vector[][] features = new Vector[specification.featureIndices.length][];
+        String[][] dictionaries = new String[specification.featureIndices.length][];
+        for (int i = 0; i < features.length; i++) {
+            dictionaries[i] = handle.getDictionary(specification.featureIndices[i]);
+            features[i] = new Vector[dictionaries[i].length + 1];
+        }
+
+        // TODO: Consider difference between continuous and categorical
+
+        // For each row
+        int offset = 0;
+        for (int row = 0; row < numRows; row++) {
+
+            offsets[row] = offset;
+            offset = add(intercept, offset);
+
+            // For each attribute
+            for (int i = 0; i < features.length; i++) {
+                int index = specification.featureIndices[i];
+                int code = handle.getEncodedValue(row, index, true);
+                Vector feature = features[i][code];
+                if (feature == null) {
+                    String value = code < dictionaries[i].length ? dictionaries[i][code] : DataType.ANY_VALUE;
+                    feature = new RandomAccessSparseVector(vectorLength);
+                    wordEncoder.addToVector("Attribute-" + index + ":" + value, 1, feature);
+                    features[i][code] = feature;
+                }
+                offset = add(feature, offset);
+            }
+
+            if (interrupt.value) {
+                throw new ComputationInterruptedException("Interrupted");
+            }
+        }
+        offsets[numRows] = offset;
+    }
+
+    /**
+     * Returns the number of rows
+     * @return
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Returns the length of the feature vectors
+     * @return
+     */
+    public int getVectorLength() {
+        return vectorLength;
+    }
+
+    /**
+     * Adds the features of the given row to the given vector
+     * @param row
+     * @param vector
+     */
+    void addTo(int row, Vector vector) {
+        for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+            int index = indices[i];
+            vector.setQuick(index, vector.getQuick(index) + values[i]);
+        }
+    }
+
+    /**
+     * Resets all elements of the given vector, which are used by the given row, to zero
+     * @param row
+     * @param vector
+     */
+    void clear(int row, Vector vector) {
+        for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+            vector.setQuick(indices[i], 0d);
+        }
+    }
+
+    /**
+     * Appends the non-zero elements of the given vector
+     * @param vector
+     * @param offset
+     * @return The new offset
+     */
+    private int add(Vector vector, int offset) {
+        int size = vector.getNumNondefaultElements();
+        if (offset + size > indices.length) {
+            int capacity = Math.max(indices.length * 2, offset + size);
+            indices = Arrays.copyOf(indices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        for (Element element : vector.nonZeroes()) {
+            indices[offset] = element.index();
+            values[offset] = element.get();
+            offset++;
+        }
+        return offset;
+    }
+}
@@ -16,8 +16,6 @@
  */
 package org.deidentifier.arx.aggregates.classification;
 
-import org.deidentifier.arx.DataHandleInternal;
-
 /**
  * Implements a classifier
  * @author Fabian Prasser
@@ -26,11 +24,11 @@ public interface ClassificationMethod {
     
     /**
      * Classify
-     * @param handle
+     * @param features
      * @param row
      * @return
      */
-    public abstract ClassificationResult classify(DataHandleInternal handle, int row);
+    public abstract ClassificationResult classify(ClassificationFeatureMatrix features, int row);
     
     /**
      * Close
@@ -40,9 +38,9 @@ public interface ClassificationMethod {
     /**
      * Train
      * @param features
-     * @param clazz
+     * @param clazz The class of the row, as specified by {@link ClassificationDataSpecification#classMap}
      * @param row
      */
-    public abstract void train(DataHandleInternal features, DataHandleInternal clazz, int row);
+    public abstract void train(ClassificationFeatureMatrix features, int clazz, int row);
 
 }
@@ -24,10 +24,7 @@ import org.apache.mahout.classifier.sgd.PriorFunction;
 import org.apache.mahout.classifier.sgd.UniformPrior;
 import org.apache.mahout.math.DenseVector;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
-import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
 import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
-import org.deidentifier.arx.DataHandleInternal;
 
 /**
  * Implements a classifier
@@ -35,16 +32,12 @@ import org.deidentifier.arx.DataHandleInternal;
  */
 public class MultiClassLogisticRegression implements ClassificationMethod {
 
-    /** Config */
-    private final ARXLogisticRegressionConfiguration config;
-    /** Encoder */
-    private final ConstantValueEncoder               interceptEncoder;
     /** Instance */
     private final OnlineLogisticRegression           lr;
     /** Specification */
     private final ClassificationDataSpecification    specification;
-    /** Encoder */
-    private final StaticWordValueEncoder             wordEncoder;
+    /** Feature vector, which is reused for all rows */
+    private final Vector                             vector;
 
     /**
      * Creates a new instance
@@ -55,8 +48,8 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
                                         ARXLogisticRegressionConfiguration config) {
 
         // Store
-        this.config = config;
         this.specification = specification;
+        this.vector = new DenseVector(config.getVectorLength());
         
         // Prepare classifier
         PriorFunction prior = null;
@@ -85,10 +78,6 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
         this.lr.stepOffset(config.getStepOffset());
         this.lr.decayExponent(config.getDecayExponent());    
         
-        // Prepare encoders
-        this.interceptEncoder = new ConstantValueEncoder("intercept");
-        this.wordEncoder = new StaticWordValueEncoder("feature");
-        
         // Configure
         this.lr.learningRate(1);
         this.lr.alpha(1);
@@ -98,8 +87,13 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
     }
 
     @Override
-    public ClassificationResult classify(DataHandleInternal features, int row) {
-        return new MultiClassLogisticRegressionClassificationResult(lr.classifyFull(encodeFeatures(features, row)), specification.classMap);
+    public ClassificationResult classify(ClassificationFeatureMatrix features, int row) {
+        features.addTo(row, vector);
+        try {
+            return new MultiClassLogisticRegressionClassificationResult(lr.classifyFull(vector), specification.classMap);
+        } finally {
+            features.clear(row, vector);
+        }
     }
 
     @Override
@@ -108,50 +102,12 @@ public class MultiClassLogisticRegression implements ClassificationMethod {
     }
 
     @Override
-    public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        lr.train(encodeClass(clazz, row), encodeFeatures(features, row));
-    }
-
-    /**
-     * Encodes a class
-     * @param handle
-     * @param row
-     * @return
-     */
-    private int encodeClass(DataHandleInternal handle, int row) {
-        return specification.classMap.get(handle.getValue(row, specification.classIndex, true));
-    }
-
-    /**
-     * Encodes a feature
-     * @param handle
-     * @param row
-     * @return
-     */
-    private Vector encodeFeatures(DataHandleInternal handle, int row) {
-
-        // Prepare
-        DenseVector vector = new DenseVector(config.getVectorLength());
-        interceptEncoder.addToVector("1", vector);
-        
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            wordEncoder.addToVector("Feature:1", 1, vector);
-            return vector;
+    public void train(ClassificationFeatureMatrix features, int clazz, int row) {
+        features.addTo(row, vector);
+        try {
+            lr.train(clazz, vector);
+        } finally {
+            features.clear(row, vector);
         }
-        
-        // TODO: Consider difference between continuous and categorical
-        
-        // For each attribute
-        for (int index : specification.featureIndices) {
-            
-            // Obtain data
-            String name = "Attribute-"+index;
-            String value = handle.getValue(row, index, true);
-            wordEncoder.addToVector(name + ":" + value, 1, vector);
-        }
-        
-        // Return
-        return vector;
     }
 }
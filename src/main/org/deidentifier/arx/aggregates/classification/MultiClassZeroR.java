@@ -20,8 +20,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.deidentifier.arx.DataHandleInternal;
-
 /**
  * Implements a classifier
  * @author Fabian Prasser
@@ -44,7 +42,7 @@ public class MultiClassZeroR implements ClassificationMethod {
     }
 
     @Override
-    public ClassificationResult classify(DataHandleInternal handle, int row) {
+    public ClassificationResult classify(ClassificationFeatureMatrix features, int row) {
         if (result == null) {
             result = getIndexWithMostCounts();
         }
@@ -57,8 +55,8 @@ public class MultiClassZeroR implements ClassificationMethod {
     }
 
     @Override
-    public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        Integer key = specification.classMap.get(clazz.getValue(row, specification.classIndex, true));
+    public void train(ClassificationFeatureMatrix features, int clazz, int row) {
+        Integer key = clazz;
         Integer count = counts.get(key);
         count = count == null ? 1 : count + 1;
         counts.put(key, count);
@@ -20,6 +20,7 @@ package org.deidentifier.arx.algorithm;
 import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -46,6 +47,9 @@ public abstract class AbstractAlgorithm {
     /** A node checker. */
     protected NodeChecker      checker                = null;
 
+    /** A pool of node checkers for speculative parallel checks, if any. */
+    protected NodeCheckerPool  pool                   = null;
+
     /** The lattice. */
     protected SolutionSpace    solutionSpace          = null;
 
@@ -78,6 +82,15 @@ public abstract class AbstractAlgorithm {
         this.listener = listener;
     }
     
+    /**
+     * Sets a pool of node checkers which is used for speculatively checking
+     * transformations in parallel
+     * @param pool
+     */
+    public void setPool(NodeCheckerPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * Implement this method in order to provide a new algorithm.
      */
@@ -96,7 +109,10 @@ public abstract class AbstractAlgorithm {
 
             // Independent evaluation or check
             if (checker.getMetric().isIndependent()) {
-                InformationLossWithBound<?> loss = checker.getMetric().getInformationLoss(transformation, (HashGroupify)null);
+                InformationLossWithBound<?> loss;
+                synchronized (checker.getLock()) {
+                    loss = checker.getMetric().getInformationLoss(transformation, (HashGroupify)null);
+                }
                 transformation.setInformationLoss(loss.getInformationLoss());
                 transformation.setLowerBound(loss.getLowerBound());
             } else {
@@ -105,6 +121,25 @@ public abstract class AbstractAlgorithm {
         }
     }
 
+    /**
+     * Checks the given transformation. Uses the result of a speculative check, if available.
+     * @param transformation
+     * @return
+     */
+    protected NodeChecker.Result check(Transformation transformation) {
+        return pool != null ? pool.check(transformation) : checker.check(transformation);
+    }
+
+    /**
+     * Checks the given transformation. Uses the result of a speculative check, if available.
+     * @param transformation
+     * @param forceMeasureInfoLoss
+     * @return
+     */
+    protected NodeChecker.Result check(Transformation transformation, boolean forceMeasureInfoLoss) {
+        return pool != null ? pool.check(transformation, forceMeasureInfoLoss) : checker.check(transformation, forceMeasureInfoLoss);
+    }
+
     /**
      * Propagate progress to listeners
      * @param progress
@@ -117,13 +117,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // For each node in the lattice
         for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
-            for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+            int[] ids = getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip());
+            int prefetched = 0;
+            for (int i = 0; i < ids.length; i++) {
 
                 // Run the correct phase
-                Transformation transformation = solutionSpace.getTransformation(id);
+                Transformation transformation = solutionSpace.getTransformation(ids[i]);
                 if (config.isBinaryPhaseRequired()) {
                     binarySearch(transformation, queue);
                 } else {
+                    prefetched = prefetch(ids, Math.max(i, prefetched), config.getLinearPhaseConfiguration().getTriggerSkip());
                     linearSearch(transformation);
                 }
             }
@@ -187,14 +190,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Check or evaluate
         if (configuration.getTriggerEvaluate().appliesTo(transformation)) {
-            InformationLossWithBound<?> loss = checker.getMetric().getInformationLoss(transformation, (HashGroupify)null);
-            transformation.setInformationLoss(loss.getInformationLoss());
-            transformation.setLowerBound(loss.getLowerBound());
-            if (loss.getLowerBound() == null) {
-                transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
+            synchronized (checker.getLock()) {
+                InformationLossWithBound<?> loss = checker.getMetric().getInformationLoss(transformation, (HashGroupify)null);
+                transformation.setInformationLoss(loss.getInformationLoss());
+                transformation.setLowerBound(loss.getLowerBound());
+                if (loss.getLowerBound() == null) {
+                    transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
+                }
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            transformation.setChecked(check(transformation));
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
@@ -206,6 +211,25 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Potentially prune some parts of the search space
         prune(transformation);
+
+        // Cancel speculative checks which have become obsolete
+        cancelPrefetched(configuration.getTriggerSkip());
+    }
+
+    /**
+     * Cancels all speculative checks of transformations which will be skipped.
+     *
+     * @param triggerSkip
+     */
+    private void cancelPrefetched(DependentAction triggerSkip) {
+        if (pool == null) {
+            return;
+        }
+        for (long id : pool.getSpeculativeChecks()) {
+            if (skip(triggerSkip, solutionSpace.getTransformation(id))) {
+                pool.cancel(id);
+            }
+        }
     }
 
     /**
@@ -237,6 +261,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Speculatively check the next probes
+                prefetch(path, low, high, triggerSkip);
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
@@ -352,8 +379,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
+            // Speculatively check the successors
+            int[] successors = getSortedSuccessors(transformation);
+            prefetch(successors, 0, triggerSkip);
+
             // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
+            for (final int child : successors) {
                 Transformation childTransformation = solutionSpace.getTransformation(child);
                 if (!skip(triggerSkip, childTransformation)) {
                     linearSearch(childTransformation);
@@ -365,6 +396,62 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
     }
 
+    /**
+     * Speculatively checks the transformations with the given identifiers, starting at the given offset,
+     * as long as workers are available. Transformations which are skipped, have already been checked
+     * or have already been scheduled are passed over.
+     *
+     * @param ids
+     * @param offset
+     * @param triggerSkip
+     * @return The offset of the first transformation which could not be scheduled, because no worker
+     *         was available. The transformations before it do not need to be considered again.
+     */
+    private int prefetch(int[] ids, int offset, DependentAction triggerSkip) {
+        if (pool == null) {
+            return ids.length;
+        }
+        for (int i = offset; i < ids.length; i++) {
+            Transformation transformation = solutionSpace.getTransformation(ids[i]);
+            if (!triggerSkip.appliesTo(transformation) &&
+                !transformation.hasProperty(solutionSpace.getPropertyChecked()) &&
+                !pool.prefetch(transformation)) {
+                return i;
+            }
+        }
+        return ids.length;
+    }
+
+    /**
+     * Speculatively checks the transformations which may be probed next by the binary search
+     * on the given part of the path, in breadth-first order, as long as workers are available.
+     *
+     * @param path
+     * @param low
+     * @param high
+     * @param triggerSkip
+     */
+    private void prefetch(List<Transformation> path, int low, int high, DependentAction triggerSkip) {
+        if (pool == null) {
+            return;
+        }
+        IntArrayList intervals = new IntArrayList();
+        intervals.add(low, high);
+        for (int i = 0; i < intervals.size(); i += 2) {
+            int start = intervals.get(i);
+            int end = intervals.get(i + 1);
+            if (start <= end) {
+                int mid = (start + end) / 2;
+                Transformation transformation = path.get(mid);
+                if (!triggerSkip.appliesTo(transformation) && !pool.prefetch(transformation)) {
+                    return;
+                }
+                intervals.add(start, mid - 1);
+                intervals.add(mid + 1, end);
+            }
+        }
+    }
+
     /**
      * We may be able to prune some transformations based on weak lower bounds on
      * the monotonic share of a node's information loss.
@@ -470,7 +557,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check whether a lower bound exists
             InformationLoss<?> lowerBound = transformation.getLowerBound();
             if (lowerBound == null) {
-                lowerBound = checker.getMetric().getLowerBound(transformation);
+                synchronized (checker.getLock()) {
+                    lowerBound = checker.getMetric().getLowerBound(transformation);
+                }
                 if (lowerBound != null) {
                     transformation.setLowerBound(lowerBound);
                 }
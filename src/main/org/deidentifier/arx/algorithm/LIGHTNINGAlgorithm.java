@@ -17,13 +17,13 @@
 
 package org.deidentifier.arx.algorithm;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
 
 import cern.colt.list.LongArrayList;
 import de.linearbits.jhpl.PredictiveProperty;
@@ -37,6 +37,136 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
 
+    /**
+     * A priority queue of transformations, which are ordered by their information loss. Identifiers
+     * are stored as primitives and the information loss is retrieved only once per transformation.
+     * The queue implements the same binary heap as java.util.PriorityQueue.
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Queue {
+
+        /** Identifiers */
+        private long[]               identifiers;
+
+        /** Information loss */
+        private InformationLoss<?>[] losses;
+
+        /** Size */
+        private int                  size;
+
+        /**
+         * Creates a new instance
+         * @param capacity
+         */
+        private Queue(int capacity) {
+            this.identifiers = new long[capacity];
+            this.losses = new InformationLoss<?>[capacity];
+        }
+
+        /**
+         * Adds a transformation
+         * @param identifier
+         * @param loss
+         */
+        private void add(long identifier, InformationLoss<?> loss) {
+            if (size == identifiers.length) {
+                int capacity = identifiers.length < 64 ? identifiers.length * 2 + 2 : identifiers.length + (identifiers.length >> 1);
+                identifiers = Arrays.copyOf(identifiers, capacity);
+                losses = Arrays.copyOf(losses, capacity);
+            }
+            siftUp(size++, identifier, loss);
+        }
+
+        /**
+         * Removes and returns the transformation with minimal information loss, -1 if the queue is empty
+         * @return
+         */
+        private long poll() {
+            if (size == 0) {
+                return -1;
+            }
+            long result = identifiers[0];
+            int last = --size;
+            long identifier = identifiers[last];
+            InformationLoss<?> loss = losses[last];
+            losses[last] = null;
+            if (last != 0) {
+                siftDown(0, identifier, loss);
+            }
+            return result;
+        }
+
+        /**
+         * Removes one occurrence of the given transformation
+         * @param identifier
+         */
+        private void remove(long identifier) {
+            for (int i = 0; i < size; i++) {
+                if (identifiers[i] == identifier) {
+                    int last = --size;
+                    if (last == i) {
+                        losses[i] = null;
+                    } else {
+                        long movedIdentifier = identifiers[last];
+                        InformationLoss<?> movedLoss = losses[last];
+                        losses[last] = null;
+                        siftDown(i, movedIdentifier, movedLoss);
+                        if (identifiers[i] == movedIdentifier && losses[i] == movedLoss) {
+                            siftUp(i, movedIdentifier, movedLoss);
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves the element down
+         * @param index
+         * @param identifier
+         * @param loss
+         */
+        private void siftDown(int index, long identifier, InformationLoss<?> loss) {
+            int half = size >>> 1;
+            while (index < half) {
+                int child = (index << 1) + 1;
+                int right = child + 1;
+                if (right < size && losses[child].compareTo(losses[right]) > 0) {
+                    child = right;
+                }
+                if (loss.compareTo(losses[child]) <= 0) {
+                    break;
+                }
+                identifiers[index] = identifiers[child];
+                losses[index] = losses[child];
+                index = child;
+            }
+            identifiers[index] = identifier;
+            losses[index] = loss;
+        }
+
+        /**
+         * Moves the element up
+         * @param index
+         * @param identifier
+         * @param loss
+         */
+        private void siftUp(int index, long identifier, InformationLoss<?> loss) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (loss.compareTo(losses[parent]) >= 0) {
+                    break;
+                }
+                identifiers[index] = identifiers[parent];
+                losses[index] = losses[parent];
+                index = parent;
+            }
+            identifiers[index] = identifier;
+            losses[index] = loss;
+        }
+    }
+
     /**
      * Creates a new instance
      * @param solutionSpace
@@ -47,8 +177,26 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     public static AbstractAlgorithm create(SolutionSpace solutionSpace,
                                            NodeChecker checker,
                                            int timeLimit) {
-        return new LIGHTNINGAlgorithm(solutionSpace, checker, timeLimit);
+        return new LIGHTNINGAlgorithm(solutionSpace, checker, timeLimit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @param stepLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           int timeLimit,
+                                           int stepLimit) {
+        return new LIGHTNINGAlgorithm(solutionSpace, checker, timeLimit, stepLimit);
     }
+    
+    /** Whether lower bounds are monotonic and can be propagated to successors */
+    private boolean                  monotonic;
     /** Property */
     private final PredictiveProperty propertyChecked;
     /** Property */
@@ -57,17 +205,22 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     private final int                stepping;
     /** Time limit */
     private final int                timeLimit;
+    /** The maximal number of transformations to check */
+    private final int                stepLimit;
 
     /** The start time */
     private long                     timeStart;
+    /** The number of transformations checked */
+    private int                      steps;
     
     /**
     * Constructor
     * @param space
     * @param checker
     * @param timeLimit
+    * @param stepLimit
     */
-    private LIGHTNINGAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+    private LIGHTNINGAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit, int stepLimit) {
         super(space, checker);
         this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
         int stepping = space.getTop().getLevel();
@@ -76,27 +229,28 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         this.propertyExpanded = space.getPropertyExpanded();
         this.solutionSpace.setAnonymityPropertyPredictable(false);
         this.timeLimit = timeLimit;
+        this.stepLimit = stepLimit;
         if (timeLimit <= 0) { 
             throw new IllegalArgumentException("Invalid time limit. Must be greater than zero."); 
         }
+        if (stepLimit <= 0) { 
+            throw new IllegalArgumentException("Invalid step limit. Must be greater than zero."); 
+        }
     }
 
     @Override
     public void traverse() {
         timeStart = System.currentTimeMillis();
-        PriorityQueue<Long> queue = new PriorityQueue<Long>(stepping, new Comparator<Long>() {
-            @Override
-            public int compare(Long arg0, Long arg1) {
-                return solutionSpace.getUtility(arg0).compareTo(solutionSpace.getUtility(arg1));
-            }
-        });
+        steps = 0;
+        monotonic = checker.getMetric().isMonotonic(checker.getConfiguration().getMaxOutliers());
+        Queue queue = new Queue(stepping);
         Transformation bottom = solutionSpace.getBottom();
         assureChecked(bottom);
-        queue.add(bottom.getIdentifier());
+        queue.add(bottom.getIdentifier(), bottom.getInformationLoss());
         Transformation next;
         int step = 0;
-        Long nextId;
-        while ((nextId = queue.poll()) != null) {
+        long nextId;
+        while ((nextId = queue.poll()) != -1) {
             next = solutionSpace.getTransformation(nextId);
             if (!prune(next)) {
                 step++;
@@ -105,11 +259,14 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 } else {
                     expand(queue, next);
                 }
-                if (getTime() > timeLimit) {
-                    return;
+                if (isTerminated()) {
+                    break;
                 }
             }
         }
+        
+        // Speculative checks which have not been consumed are obsolete
+        cancelPrefetched();
     }
     
     /**
@@ -118,9 +275,25 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     */
     private void assureChecked(final Transformation transformation) {
         if (!transformation.hasProperty(propertyChecked)) {
-            transformation.setChecked(checker.check(transformation, true));
+            transformation.setChecked(check(transformation, true));
             trackOptimum(transformation);
-            progress((double)(System.currentTimeMillis() - timeStart) / (double)timeLimit);
+            if (monotonic) {
+                solutionSpace.propagateLowerBound(transformation);
+            }
+            steps++;
+            progress(Math.max((double)getTime() / (double)timeLimit, (double)steps / (double)stepLimit));
+        }
+    }
+
+    /**
+     * Cancels all speculative checks which are still pending or whose results have not been consumed
+     */
+    private void cancelPrefetched() {
+        if (pool == null) {
+            return;
+        }
+        for (long id : pool.getSpeculativeChecks()) {
+            pool.cancel(id);
         }
     }
 
@@ -129,13 +302,13 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param queue
     * @param transformation
     */
-    private void dfs(PriorityQueue<Long> queue, Transformation transformation) {
-        if (getTime() > timeLimit) {
+    private void dfs(Queue queue, Transformation transformation) {
+        if (isTerminated()) {
             return;
         }
         Transformation next = expand(queue, transformation);
         if (next != null) {
-            queue.remove(next);
+            queue.remove(next.getIdentifier());
             dfs(queue, next);
         }
     }
@@ -145,21 +318,25 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param transformation
     * @return
     */
-    private Transformation expand(PriorityQueue<Long> queue, Transformation transformation) {
+    private Transformation expand(Queue queue, Transformation transformation) {
         Transformation result = null;
 
         LongArrayList list = transformation.getSuccessors();
+        prefetch(list);
         for (int i = 0; i < list.size(); i++) {
             long id = list.getQuick(i);
             Transformation successor = solutionSpace.getTransformation(id);
-            if (!successor.hasProperty(propertyExpanded)) {
+            if (!successor.hasProperty(propertyExpanded) && !isPrunedByPredecessors(successor)) {
                 assureChecked(successor);
-                queue.add(successor.getIdentifier());
-                if (result == null || successor.getInformationLoss().compareTo(result.getInformationLoss()) < 0) {
+                InformationLoss<?> loss = successor.getInformationLoss();
+                queue.add(successor.getIdentifier(), loss);
+                if (result == null || loss.compareTo(result.getInformationLoss()) < 0) {
                     result = successor;
                 }
+            } else if (pool != null) {
+                pool.cancel(id);
             }
-            if (getTime() > timeLimit) {
+            if (isTerminated()) {
                 return null;
             }
         }
@@ -175,6 +352,51 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         return (int)(System.currentTimeMillis() - timeStart);
     }
 
+    /**
+     * Returns whether the given transformation has not been checked and cannot improve the
+     * optimum because of a lower bound propagated from its predecessors
+     * @param transformation
+     * @return
+     */
+    private boolean isPrunedByPredecessors(Transformation transformation) {
+        if (!monotonic || getGlobalOptimum() == null || transformation.hasProperty(propertyChecked)) {
+            return false;
+        }
+        InformationLoss<?> bound = transformation.getLowerBoundFromPredecessors();
+        return bound != null && bound.compareTo(getGlobalOptimum().getInformationLoss()) > 0;
+    }
+
+    /**
+     * Returns whether the time limit or the step limit has been reached
+     * @return
+     */
+    private boolean isTerminated() {
+        return getTime() > timeLimit || steps >= stepLimit;
+    }
+
+    /**
+     * Speculatively checks the given successors in parallel, if a pool of checkers is available.
+     * The successors are checked in the order in which they will be requested by expand().
+     * @param successors
+     */
+    private void prefetch(LongArrayList successors) {
+        if (pool == null) {
+            return;
+        }
+        int budget = stepLimit - steps;
+        for (int i = 0; i < successors.size() && budget > 0; i++) {
+            Transformation successor = solutionSpace.getTransformation(successors.getQuick(i));
+            if (!successor.hasProperty(propertyChecked) &&
+                !successor.hasProperty(propertyExpanded) && 
+                !isPrunedByPredecessors(successor)) {
+                if (!pool.prefetch(successor, true)) {
+                    return;
+                }
+                budget--;
+            }
+        }
+    }
+
     /**
     * Returns whether we can prune this Transformation
     * @param transformation
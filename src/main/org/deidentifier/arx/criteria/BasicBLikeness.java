@@ -112,6 +112,11 @@ public class BasicBLikeness extends ExplicitPrivacyCriterion {
         return true;
     }
     
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
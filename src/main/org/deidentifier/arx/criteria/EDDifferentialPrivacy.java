@@ -214,6 +214,11 @@ public class EDDifferentialPrivacy extends ImplicitPrivacyCriterion {
         return entry.count >= k;
     }
 
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return false;
@@ -17,13 +17,20 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.certificate.elements.ElementData;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * The t-closeness criterion with hierarchical-distance EMD.
  *
@@ -32,13 +39,149 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class HierarchicalDistanceTCloseness extends TCloseness {
 
+    /**
+     * Scratch state for evaluating the criterion
+     *
+     * @author Fabian Prasser
+     */
+    private static class Context implements PrivacyCriterionContext {
+
+        /** Copy of the tree, if it is evaluated completely. */
+        private final int[]     tree;
+
+        /** Inner nodes visited, grouped by level. */
+        private final int[]     touched;
+
+        /** Number of inner nodes visited per level. */
+        private final int[]     touchedPerLevel;
+
+        /** Whether an inner node has been visited. */
+        private final boolean[] nodeTouched;
+
+        /** Number of records with values in the visited children of an inner node. */
+        private final long[]    nodeCovered;
+
+        /** Positive extras of the visited children of an inner node. */
+        private final long[]    nodePositive;
+
+        /** Negative extras of the visited children of an inner node. */
+        private final long[]    nodeNegative;
+
+        /** The elements of the distribution which is evaluated. */
+        private final long[]    elements;
+
+        /** Key for looking up distances of the distribution which is evaluated. */
+        private final Fingerprint fingerprint;
+
+        /**
+         * Creates a new instance
+         * @param tree The tree, if it is evaluated completely, null otherwise
+         * @param numNodes
+         * @param numLevels
+         * @param numLeafs
+         */
+        Context(int[] tree, int numNodes, int numLevels, int numLeafs) {
+            this.tree = tree;
+            this.elements = new long[numLeafs];
+            this.fingerprint = new Fingerprint(elements, 0);
+            this.touched = new int[numNodes];
+            this.touchedPerLevel = new int[numLevels];
+            this.nodeTouched = new boolean[numNodes];
+            this.nodeCovered = new long[numNodes];
+            this.nodePositive = new long[numNodes];
+            this.nodeNegative = new long[numNodes];
+        }
+    }
+
+    /**
+     * Key for the distances of distributions, consisting of the elements of a distribution,
+     * packed as (value << 32 | frequency), in ascending order. Keys used for lookups are
+     * backed by a buffer, which is updated for each distribution.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Fingerprint {
+
+        /** Elements */
+        private final long[] elements;
+        /** Number of elements */
+        private int          length;
+        /** Hash code */
+        private int          hashCode;
+
+        /**
+         * Creates a new instance
+         * @param elements
+         * @param length
+         */
+        Fingerprint(long[] elements, int length) {
+            this.elements = elements;
+            this.update(length);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Fingerprint other = (Fingerprint) obj;
+            if (hashCode != other.hashCode || length != other.length) return false;
+            for (int i = 0; i < length; i++) {
+                if (elements[i] != other.elements[i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Sets the number of elements and updates the hash code
+         * @param length
+         */
+        void update(int length) {
+            int hashCode = 1;
+            for (int i = 0; i < length; i++) {
+                long element = elements[i];
+                hashCode = 31 * hashCode + (int) (element ^ (element >>> 32));
+            }
+            this.length = length;
+            this.hashCode = hashCode;
+        }
+    }
+
+    /**
+     * Segment of the cache. Distances are looked up without locking. Distances are added
+     * and the segment is cleared while holding its monitor, which also guards the size.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Segment {
+
+        /** Cached distances */
+        private final Map<Fingerprint, Double> distances = new ConcurrentHashMap<Fingerprint, Double>();
+
+        /** Size of all cached distributions, in elements */
+        private int                            size;
+    }
+
     /**  SVUID */
     private static final long serialVersionUID = -2142590190479670706L;
 
+    /** The maximal size of all cached distributions, in elements */
+    private static final int  MAX_CACHE_SIZE   = 1 << 19;
+
+    /** The number of segments of the cache. Must be a power of two. */
+    private static final int  CACHE_SEGMENTS   = 16;
+
+    /** The overhead of a cached distribution, in elements */
+    private static final int  CACHE_OVERHEAD   = 8;
+
     /** The hierarchy used for the EMD. */
     private final Hierarchy   hierarchy;
 
-    /** Internal tree. */
+    /** Internal tree. Must not be modified after initialization. */
     private int[]             tree;
 
     /** Internal offset. */
@@ -47,6 +190,27 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     /** Internal empty tree. */
     private int[]             empty;
 
+    /** Cached distances of distributions. Each segment is cleared separately when it is full. */
+    private transient Segment[] cache;
+
+    /** Index of the parent of each leaf, null if the hierarchy is not a tree. */
+    private transient int[]   leafParents;
+
+    /** Index of the parent of each inner node, -1 for roots. */
+    private transient int[]   nodeParents;
+
+    /** Level of each inner node. */
+    private transient int[]   nodeLevels;
+
+    /** Number of records with values in the subtree of each inner node. */
+    private transient long[]  nodeFrequencies;
+
+    /** Index of the first inner node of each level. Inner nodes are ordered by level. */
+    private transient int[]   levelStart;
+
+    /** The context used for sequential evaluation. */
+    private transient Context context;
+
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
      * Li N, Li T, Venkatasubramanian S.
@@ -66,7 +230,24 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     public HierarchicalDistanceTCloseness clone() {
         return new HierarchicalDistanceTCloseness(this.getAttribute(), this.getT(), this.hierarchy);
     }
-    
+
+    @Override
+    public PrivacyCriterionContext createContext() {
+        return new Context(leafParents == null ? tree.clone() : null, nodeLevels.length, levelStart.length, tree[1]);
+    }
+
+    /**
+     * Returns the distance between the given distribution of values of the sensitive attribute
+     * and their distribution in the overall dataset. Values are represented by their indices
+     * in the dictionary. Must only be called after the criterion has been initialized.
+     *
+     * @param distribution
+     * @return
+     */
+    public double getDistance(Distribution distribution) {
+        return getDistance(distribution, context);
+    }
+
     /**
      * Returns the hierarchy backing the EMD calculations.
      *
@@ -82,11 +263,107 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
         this.tree = manager.getTree(attribute);
         this.start = this.tree[1] + 3;
         this.empty = new int[this.tree[1]];
+        this.cache = new Segment[CACHE_SEGMENTS];
+        for (int i = 0; i < CACHE_SEGMENTS; i++) {
+            this.cache[i] = new Segment();
+        }
+        this.initializeNodes();
+        this.context = (Context) createContext();
     }
 
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
-        
+        return isAnonymous(node, entry, context);
+    }
+
+    @Override
+    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry, PrivacyCriterionContext context) {
+        return getDistance(entry.distributions[index], (Context) context) <= t;
+    }
+
+	@Override
+    public boolean isLocalRecodingSupported() {
+        return true;
+    }
+
+    @Override
+    public ElementData render() {
+        ElementData result = new ElementData("t-Closeness");
+        result.addProperty("Attribute", attribute);
+        result.addProperty("Threshold (t)", this.t);
+        result.addProperty("Distance", "Hierarchical");
+        return result;
+    }
+
+    @Override
+	public String toString() {
+		return t+"-closeness with hierarchical ground-distance for attribute '"+attribute+"'";
+	}
+
+    /**
+     * Caches the given distance, clearing the according segment of the cache if it is full
+     *
+     * @param fingerprint
+     * @param distance
+     */
+    private void cache(Fingerprint fingerprint, double distance) {
+        final int size = fingerprint.length + CACHE_OVERHEAD;
+        if (size > MAX_CACHE_SIZE / CACHE_SEGMENTS) {
+            return;
+        }
+        Segment segment = getSegment(fingerprint);
+        synchronized (segment) {
+            if (segment.size + size > MAX_CACHE_SIZE / CACHE_SEGMENTS) {
+                segment.distances.clear();
+                segment.size = 0;
+            }
+            if (segment.distances.put(fingerprint, distance) == null) {
+                segment.size += size;
+            }
+        }
+    }
+
+    /**
+     * Looks up or calculates the EMD of the given distribution. The key for the lookup is
+     * built in the buffers of the context, which are copied when a distance is cached.
+     *
+     * @param distribution
+     * @param context
+     * @return
+     */
+    private double getDistance(Distribution distribution, Context context) {
+
+        // Build fingerprint
+        int[] buckets = distribution.getBuckets();
+        long[] elements = context.elements;
+        int count = 0;
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                elements[count++] = ((long) buckets[i] << 32) | buckets[i + 1];
+            }
+        }
+        Arrays.sort(elements, 0, count);
+        context.fingerprint.update(count);
+
+        // Lookup or calculate
+        Double distance = getSegment(context.fingerprint).distances.get(context.fingerprint);
+        if (distance == null) {
+            distance = leafParents != null ? getDistanceSparse(elements, count, context) :
+                                             getDistance(buckets, context.tree);
+            cache(new Fingerprint(Arrays.copyOf(elements, count), count), distance);
+        }
+        return distance;
+    }
+
+    /**
+     * Calculates the EMD by walking the complete tree
+     *
+     * @param buckets
+     * @param tree A copy of the tree
+     * @return
+     */
+    private double getDistance(int[] buckets, int[] tree) {
+
         // Empty data in tree
         System.arraycopy(empty, 0, tree, start, empty.length);
 
@@ -100,7 +377,6 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
 
         // Copy and count
         int totalElementsQ = 0;
-        int[] buckets = entry.distributions[index].getBuckets();
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 final int value = buckets[i];
@@ -161,27 +437,179 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
         }
 
         cost /= ((double) totalElementsP * (double) totalElementsQ);
+        return cost;
+    }
 
-        // check
-        return cost <= t;
+    /**
+     * Calculates the EMD by only walking the paths from the values in the distribution to the roots.
+     * Subtrees without values of the distribution only have positive extras, which do not
+     * contribute to the costs. Nodes are visited in the order of the tree, which yields the
+     * same result as walking the complete tree.
+     *
+     * @param elements
+     * @param count The number of elements
+     * @param context
+     * @return
+     */
+    private double getDistanceSparse(long[] elements, int count, Context context) {
+
+        // Scratch state
+        final int[] touched = context.touched;
+        final int[] touchedPerLevel = context.touchedPerLevel;
+        final boolean[] nodeTouched = context.nodeTouched;
+        final long[] nodeCovered = context.nodeCovered;
+        final long[] nodePositive = context.nodePositive;
+        final long[] nodeNegative = context.nodeNegative;
+
+        // init parameters
+        final long totalElementsP = tree[0];
+        final double height = tree[2];
+        long totalElementsQ = 0;
+        for (int i = 0; i < count; i++) {
+            totalElementsQ += (int) elements[i];
+        }
+
+        // leafs
+        for (int i = 0; i < count; i++) {
+            final long element = elements[i];
+            final int value = (int) (element >>> 32);
+            final int parent = leafParents[value];
+            if (parent != -1) {
+                final long frequency = tree[value + 3];
+                touch(context, parent, frequency, frequency * totalElementsQ - (int) element * totalElementsP);
+            }
+        }
+
+        // innerNodes, level by level
+        double cost = 0;
+        for (int level = 1; level < touchedPerLevel.length; level++) {
+            final int from = levelStart[level];
+            final int to = from + touchedPerLevel[level];
+            Arrays.sort(touched, from, to);
+            for (int i = from; i < to; i++) {
+                final int node = touched[i];
+
+                // Children without values in the distribution have positive extras
+                final long pos_e = nodePositive[node] + (nodeFrequencies[node] - nodeCovered[node]) * totalElementsQ;
+                final long neg_e = nodeNegative[node];
+                final double cost_n = (nodeLevels[node] / height) * Math.min(pos_e, neg_e);
+                cost += cost_n;
+
+                // Propagate
+                if (nodeParents[node] != -1) {
+                    touch(context, nodeParents[node], nodeFrequencies[node], pos_e - neg_e);
+                }
+
+                // Reset
+                nodeTouched[node] = false;
+                nodeCovered[node] = 0;
+                nodePositive[node] = 0;
+                nodeNegative[node] = 0;
+            }
+            touchedPerLevel[level] = 0;
+        }
+
+        cost /= ((double) totalElementsP * (double) totalElementsQ);
+        return cost;
     }
-    
-	@Override
-    public boolean isLocalRecodingSupported() {
-        return true;
+
+    /**
+     * Returns the segment of the cache for the given fingerprint
+     *
+     * @param fingerprint
+     * @return
+     */
+    private Segment getSegment(Fingerprint fingerprint) {
+        int hash = fingerprint.hashCode;
+        return cache[(hash ^ (hash >>> 16)) & (CACHE_SEGMENTS - 1)];
     }
 
-    @Override
-    public ElementData render() {
-        ElementData result = new ElementData("t-Closeness");
-        result.addProperty("Attribute", attribute);
-        result.addProperty("Threshold (t)", this.t);
-        result.addProperty("Distance", "Hierarchical");
-        return result;
+    /**
+     * Indexes the inner nodes of the tree for sparse evaluation. If a node has more than
+     * one parent, the tree will be evaluated completely.
+     */
+    private void initializeNodes() {
+
+        final int numLeafs = tree[1];
+        final int height = tree[2];
+        final int extraStartPos = numLeafs + 3;
+        final int extraEndPos = extraStartPos + numLeafs;
+
+        // Index inner nodes
+        IntIntOpenHashMap indices = new IntIntOpenHashMap();
+        int numNodes = 0;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            indices.put(i, numNodes++);
+        }
+
+        // Prepare
+        int[] leafParents = new int[numLeafs];
+        Arrays.fill(leafParents, -1);
+        this.nodeParents = new int[numNodes];
+        Arrays.fill(nodeParents, -1);
+        this.nodeLevels = new int[numNodes];
+        this.nodeFrequencies = new long[numNodes];
+        this.levelStart = new int[height + 1];
+        this.leafParents = null;
+
+        // Link nodes. Children are always stored before their parents.
+        int node = 0;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            final int numChilds = tree[i];
+            final int level = tree[i + 1];
+            if (level > height || (node > 0 && level < nodeLevels[node - 1])) {
+                return;
+            }
+            if (node == 0 || level != nodeLevels[node - 1]) {
+                for (int l = node == 0 ? 1 : nodeLevels[node - 1] + 1; l <= level; l++) {
+                    levelStart[l] = node;
+                }
+            }
+            nodeLevels[node] = level;
+            for (int j = 0; j < numChilds; j++) {
+                final int child = tree[i + 2 + j];
+                if (level == 1) {
+                    final int leaf = child - extraStartPos;
+                    if (leafParents[leaf] != -1) {
+                        return;
+                    }
+                    leafParents[leaf] = node;
+                    nodeFrequencies[node] += tree[leaf + 3];
+                } else {
+                    final int index = indices.get(child);
+                    if (nodeParents[index] != -1) {
+                        return;
+                    }
+                    nodeParents[index] = node;
+                    nodeFrequencies[node] += nodeFrequencies[index];
+                }
+            }
+            node++;
+        }
+
+        // Done
+        this.leafParents = leafParents;
     }
 
-    @Override
-	public String toString() {
-		return t+"-closeness with hierarchical ground-distance for attribute '"+attribute+"'";
-	}
+    /**
+     * Registers the extra of a child with a parent node
+     *
+     * @param context
+     * @param node
+     * @param frequency
+     * @param extra
+     */
+    private void touch(Context context, int node, long frequency, long extra) {
+        if (!context.nodeTouched[node]) {
+            final int level = nodeLevels[node];
+            context.nodeTouched[node] = true;
+            context.touched[levelStart[level] + context.touchedPerLevel[level]++] = node;
+        }
+        context.nodeCovered[node] += frequency;
+        if (extra > 0) { // positive
+            context.nodePositive[node] += extra;
+        } else { // negative
+            context.nodeNegative[node] -= extra;
+        }
+    }
 }
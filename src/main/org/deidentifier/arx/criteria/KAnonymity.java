@@ -105,6 +105,11 @@ public class KAnonymity extends ImplicitPrivacyCriterion {
         throw new RuntimeException("This should never be called!");
     }
 
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
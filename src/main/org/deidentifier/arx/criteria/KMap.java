@@ -308,6 +308,11 @@ public class KMap extends ImplicitPrivacyCriterion {
         }
     }
 
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return !isAccurate();
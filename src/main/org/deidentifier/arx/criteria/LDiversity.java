@@ -100,6 +100,11 @@ public abstract class LDiversity extends ExplicitPrivacyCriterion {
         return 1d / minSize;
     }
 
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isMinimalClassSizeAvailable() {
         return true;
@@ -23,8 +23,6 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
-import com.carrotsearch.hppc.IntDoubleOpenHashMap;
-
 /**
  * The t-closeness criterion for ordered attributes.
  *
@@ -33,6 +31,25 @@ import com.carrotsearch.hppc.IntDoubleOpenHashMap;
  */
 public class OrderedDistanceTCloseness extends TCloseness {
 
+    /**
+     * Scratch state for evaluating the criterion
+     *
+     * @author Fabian Prasser
+     */
+    private static class Context implements PrivacyCriterionContext {
+
+        /** The distribution of the class, cleared after each evaluation */
+        private final double[] frequencies;
+
+        /**
+         * Creates a new instance
+         * @param size
+         */
+        Context(int size) {
+            this.frequencies = new double[size];
+        }
+    }
+
     /** SVUID */
     private static final long serialVersionUID = -2395544663063577862L;
 
@@ -41,6 +58,9 @@ public class OrderedDistanceTCloseness extends TCloseness {
 
     /** The order of the elements. */
     private int[]             order;
+
+    /** The context used for sequential evaluation. */
+    private transient Context context;
     
     /**
      * Creates a new instance of the t-closeness criterion for ordered attributes as proposed in:
@@ -60,49 +80,69 @@ public class OrderedDistanceTCloseness extends TCloseness {
         return new OrderedDistanceTCloseness(this.getAttribute(), this.getT());
     }
     
+    @Override
+    public PrivacyCriterionContext createContext() {
+        return new Context(distribution.length);
+    }
+
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
         this.distribution = manager.getDistribution(attribute);
         this.order = manager.getOrder(attribute);
+        this.context = new Context(distribution.length);
     }
 
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
+        return isAnonymous(node, entry, context);
+    }
+
+    @Override
+    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry, PrivacyCriterionContext context) {
 
         // Init
         int[] buckets = entry.distributions[index].getBuckets();
         double count = entry.count;
+        double[] frequencies = ((Context) context).frequencies;
         
         // Prepare
-        IntDoubleOpenHashMap map = new IntDoubleOpenHashMap(buckets.length/2);
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 int value = buckets[i];
                 double frequency = ((double) buckets[i + 1] / count);
-                map.put(value, frequency);
+                frequencies[value] = frequency;
             }
         }
         double threshold = t * (order.length - 1d);
         double distance = 0d;
         double sum_i = 0d;
+        boolean result = true;
         
         // Calculate and check
         for (int i=0; i<order.length; i++) {
             
             // Compute summands and distance
             int value = order[i];
-            sum_i += (map.getOrDefault(value, 0d) - distribution[value]);
+            sum_i += (frequencies[value] - distribution[value]);
             distance += Math.abs(sum_i);
             
             // Early abort
             if (distance > threshold) {
-                return false;
+                result = false;
+                break;
             }
         }
         
-        // Yes
-        return true;
+        // Clear
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                frequencies[buckets[i]] = 0d;
+            }
+        }
+        
+        // Return
+        return result;
     }
 
     @Override
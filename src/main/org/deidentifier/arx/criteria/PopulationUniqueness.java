@@ -23,6 +23,7 @@ import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.risk.ModelSolverCache;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 
@@ -45,6 +46,9 @@ public class PopulationUniqueness extends RiskBasedCriterion {
     /** The solver config */
     private ARXSolverConfiguration    solverConfig;
 
+    /** Estimates for the histograms seen during anonymization */
+    private transient ModelSolverCache cache;
+
     /**
      * Creates a new instance of this criterion. Uses Dankar's method for estimating population uniqueness.
      * This constructor will clone the population model, making further changes to it will not influence
@@ -144,6 +148,9 @@ public class PopulationUniqueness extends RiskBasedCriterion {
         if (this.populationModel != null) {
             this.populationModel.makeBackwardsCompatible(manager.getDataGeneralized().getDataLength());
         }
+
+        // Solvers are only warm-started if results need not be reproducible
+        this.cache = new ModelSolverCache(!this.solverConfig.isDeterministic());
     }
 
     @Override
@@ -177,7 +184,8 @@ public class PopulationUniqueness extends RiskBasedCriterion {
 
         RiskModelPopulationUniqueness riskModel = new RiskModelPopulationUniqueness(this.populationModel,
                                                                                     distribution.getHistogram(),
-                                                                                    solverConfig);
+                                                                                    solverConfig,
+                                                                                    cache);
         
         double populationUniques = 0d;
         if (this.statisticalModel == PopulationUniquenessModel.DANKAR) {
@@ -73,6 +73,17 @@ public abstract class PrivacyCriterion implements Serializable{
         }
         return this.clone();
     }
+
+    /**
+     * Creates a context with the scratch state needed for evaluating this criterion with
+     * {@link #isAnonymous(Transformation, HashGroupifyEntry, PrivacyCriterionContext)}.
+     * Each thread must use its own context. The criterion must have been initialized.
+     * 
+     * @return The context, or null if the criterion does not need one
+     */
+    public PrivacyCriterionContext createContext() {
+        return null;
+    }
     
     /**
      * If a privacy model uses a data subset, it must overwrite this method
@@ -156,6 +167,30 @@ public abstract class PrivacyCriterion implements Serializable{
      */
     public abstract boolean isAnonymous(Transformation node, HashGroupifyEntry entry);
 
+    /**
+     * Enforces the criterion using scratch state from the given context, which must have been
+     * created by {@link #createContext()}. Override this together with createContext(), if the
+     * criterion needs scratch state.
+     * 
+     * @param node
+     * @param entry
+     * @param context
+     * @return
+     */
+    public boolean isAnonymous(Transformation node, HashGroupifyEntry entry, PrivacyCriterionContext context) {
+        return isAnonymous(node, entry);
+    }
+
+    /**
+     * Returns whether the criterion may be evaluated for different equivalence classes concurrently,
+     * with each thread using its own context.
+     * 
+     * @return
+     */
+    public boolean isConcurrentEvaluationSupported() {
+        return false;
+    }
+
     /**
      * Returns whether the criterion supports local recoding.
      * @return
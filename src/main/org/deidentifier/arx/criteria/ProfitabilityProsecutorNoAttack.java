@@ -133,6 +133,11 @@ public class ProfitabilityProsecutorNoAttack extends ImplicitPrivacyCriterion {
         return entry.count >= k;
     }
 
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isLocalRecodingSupported() {
         return true;
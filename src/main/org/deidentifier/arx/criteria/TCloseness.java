@@ -61,4 +61,9 @@ public abstract class TCloseness extends ExplicitPrivacyCriterion {
     public double getT(){
         return t;
     }
+
+    @Override
+    public boolean isConcurrentEvaluationSupported() {
+        return true;
+    }
 }
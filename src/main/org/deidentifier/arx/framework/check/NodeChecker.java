@@ -122,6 +122,9 @@ public class NodeChecker {
     /** Is a minimal class size required */
     private final boolean                         minimalClassSizeRequired;
 
+    /** Guards the evaluation of privacy models and utility measures */
+    private final Object                          lock;
+
     /**
      * Creates a new NodeChecker instance.
      * 
@@ -140,6 +143,29 @@ public class NodeChecker {
                        final double snapshotSizeDataset,
                        final double snapshotSizeSnapshot,
                        final SolutionSpace solutionSpace) {
+        this(manager, metric, config, historyMaxSize, snapshotSizeDataset, snapshotSizeSnapshot, solutionSpace, new Object());
+    }
+
+    /**
+     * Creates a new NodeChecker instance which shares the given lock with other instances.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param lock Guards the evaluation of privacy models and utility measures
+     */
+    NodeChecker(final DataManager manager,
+                final Metric<?> metric,
+                final ARXConfigurationInternal config,
+                final int historyMaxSize,
+                final double snapshotSizeDataset,
+                final double snapshotSizeSnapshot,
+                final SolutionSpace solutionSpace,
+                final Object lock) {
         
         // Initialize all operators
         this.metric = metric;
@@ -152,6 +178,7 @@ public class NodeChecker {
         this.microaggregationHeader = manager.getMicroaggregationHeader();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.lock = lock;
         
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
         IntArrayDictionary dictionarySensValue;
@@ -165,7 +192,7 @@ public class NodeChecker {
             dictionarySensFreq = new IntArrayDictionary(0);
         }
         
-        this.history = new History(manager.getDataGeneralized().getArray().length,
+        this.history = new History(manager.getDataGeneralized().getDataLength(),
                                    historyMaxSize,
                                    snapshotSizeDataset,
                                    snapshotSizeSnapshot,
@@ -182,7 +209,8 @@ public class NodeChecker {
                                            manager.getHierarchies(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           manager.getDataGeneralized().getColumns());
     }
 
     
@@ -296,23 +324,32 @@ public class NodeChecker {
             break;
         }
         
-        // We are done with transforming and adding
-        currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
-        if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
-            currentGroupify.stateResetSuppression();
+        // Privacy models which support concurrent evaluation are evaluated outside of the lock
+        boolean concurrent = currentGroupify.isConcurrentAnalysisSupported();
+        if (concurrent) {
+            analyze(node, forceMeasureInfoLoss);
         }
         
-        // Compute information loss and lower bound
-        InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
-                metric.getInformationLoss(node, currentGroupify) : null;
-        InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
-        InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
-        
-        // Return result;
-        return new NodeChecker.Result(currentGroupify.isPrivacyModelFulfilled(),
-                                      minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null,
-                                      loss,
-                                      bound);
+        // Other privacy models and utility measures may not be evaluated concurrently
+        synchronized (lock) {
+
+            // We are done with transforming and adding
+            if (!concurrent) {
+                analyze(node, forceMeasureInfoLoss);
+            }
+            
+            // Compute information loss and lower bound
+            InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
+                    metric.getInformationLoss(node, currentGroupify) : null;
+            InformationLoss<?> loss = result != null ? result.getInformationLoss() : null;
+            InformationLoss<?> bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
+            
+            // Return result;
+            return new NodeChecker.Result(currentGroupify.isPrivacyModelFulfilled(),
+                                          minimalClassSizeRequired ? currentGroupify.isMinimalClassSizeFulfilled() : null,
+                                          loss,
+                                          bound);
+        }
     }
     
     /**
@@ -336,10 +373,19 @@ public class NodeChecker {
      * Returns the input buffer
      * @return
      */
-    public int[][] getInputBuffer() {
-        return this.dataGeneralized.getArray();
+    public Data getInputBuffer() {
+        return this.dataGeneralized;
     }
     
+    /**
+     * Returns the lock which guards the evaluation of privacy models and utility measures.
+     * It is shared by all checkers working on the same problem in parallel.
+     * @return
+     */
+    public Object getLock() {
+        return lock;
+    }
+
     /**
      * Returns the utility measure
      * @return
@@ -347,4 +393,16 @@ public class NodeChecker {
     public Metric<?> getMetric() {
         return metric;
     }
+
+    /**
+     * Analyzes the current state with regard to the privacy models
+     * @param node
+     * @param forceMeasureInfoLoss
+     */
+    private void analyze(Transformation node, boolean forceMeasureInfoLoss) {
+        currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
+        if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
+            currentGroupify.stateResetSuppression();
+        }
+    }
 }
@@ -0,0 +1,367 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+import com.carrotsearch.hppc.LongOpenHashSet;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+
+/**
+ * A pool of node checkers which speculatively checks transformations in parallel. Each
+ * worker owns a checker with its own groupify operators and history. Workers never
+ * access the solution space of the search, which is only read and modified by the thread
+ * running the algorithm. Results are consumed in exactly the order in which the algorithm
+ * requests them, which means that the outcome of the search is identical to the outcome
+ * of a single-threaded run.
+ *
+ * @author Fabian Prasser
+ */
+public class NodeCheckerPool {
+
+    /**
+     * A speculative check. The number of running checks is decremented exactly once,
+     * either when the check has been performed or when it is cancelled before it started.
+     *
+     * @author Fabian Prasser
+     */
+    private class Task extends FutureTask<NodeChecker.Result> {
+
+        /** Whether the check has been started or cancelled */
+        private final AtomicBoolean claimed;
+
+        /**
+         * Creates a new instance
+         * @param generalization
+         * @param forceMeasureInfoLoss
+         */
+        private Task(final int[] generalization, final boolean forceMeasureInfoLoss) {
+            this(generalization, forceMeasureInfoLoss, new AtomicBoolean(false));
+        }
+
+        /**
+         * Creates a new instance
+         * @param generalization
+         * @param forceMeasureInfoLoss
+         * @param claimed
+         */
+        private Task(final int[] generalization, final boolean forceMeasureInfoLoss, final AtomicBoolean claimed) {
+            super(new Callable<NodeChecker.Result>() {
+                @Override
+                public NodeChecker.Result call() throws Exception {
+                    if (!claimed.compareAndSet(false, true)) {
+                        return null;
+                    }
+                    try {
+                        Worker worker = workers.take();
+                        try {
+                            return worker.checker.check(worker.solutionSpace.getTransformation(generalization), forceMeasureInfoLoss);
+                        } finally {
+                            workers.add(worker);
+                        }
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+            this.claimed = claimed;
+        }
+
+        /**
+         * Cancels the check. Checks which are already in progress are completed in the background.
+         */
+        private void discard() {
+            cancel(false);
+            if (claimed.compareAndSet(false, true)) {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A worker consisting of a checker and a private solution space with the same geometry
+     * as the solution space of the search.
+     *
+     * @author Fabian Prasser
+     */
+    private static class Worker {
+
+        /** The checker */
+        private final NodeChecker   checker;
+
+        /** The private solution space */
+        private final SolutionSpace solutionSpace;
+
+        /**
+         * Creates a new instance
+         * @param checker
+         * @param solutionSpace
+         */
+        private Worker(NodeChecker checker, SolutionSpace solutionSpace) {
+            this.checker = checker;
+            this.solutionSpace = solutionSpace;
+        }
+    }
+
+    /** Speculative checks which measure information loss regardless of the outcome. Only accessed by the thread running the algorithm. */
+    private final LongOpenHashSet                                    forced  = new LongOpenHashSet();
+
+    /** The checker used by the thread running the algorithm */
+    private final NodeChecker                                        checker;
+
+    /** The executor */
+    private final ExecutorService                                    executor;
+
+    /** The number of checks that are currently in progress */
+    private final AtomicInteger                                      running = new AtomicInteger(0);
+
+    /** Pending and completed speculative checks. Only accessed by the thread running the algorithm. */
+    private final LongObjectOpenHashMap<Task>                        results = new LongObjectOpenHashMap<Task>();
+
+    /** The solution space of the search */
+    private final SolutionSpace                                      solutionSpace;
+
+    /** The number of threads */
+    private final int                                                threads;
+
+    /** Idle workers */
+    private final BlockingQueue<Worker>                              workers;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param checker The checker used by the thread running the algorithm
+     * @param solutionSpace The solution space of the search
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     */
+    public NodeCheckerPool(final NodeChecker checker,
+                           final SolutionSpace solutionSpace,
+                           final DataManager manager,
+                           final Metric<?> metric,
+                           final ARXConfigurationInternal config,
+                           final int historyMaxSize,
+                           final double snapshotSizeDataset,
+                           final double snapshotSizeSnapshot) {
+
+        this.checker = checker;
+        this.solutionSpace = solutionSpace;
+        this.threads = config.getNumberOfThreads();
+        this.workers = new LinkedBlockingQueue<Worker>();
+        for (int i = 0; i < threads; i++) {
+
+            // Workers don't know the properties of transformations, so they store all snapshots
+            SolutionSpace space = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+            NodeChecker worker = new NodeChecker(manager,
+                                                 metric,
+                                                 config,
+                                                 historyMaxSize,
+                                                 snapshotSizeDataset,
+                                                 snapshotSizeSnapshot,
+                                                 space,
+                                                 checker.getLock());
+            worker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+            this.workers.add(new Worker(worker, space));
+        }
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX-NodeChecker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Checks the given transformation. If the transformation has already been checked
+     * speculatively, the according result is returned.
+     *
+     * @param transformation
+     * @return
+     */
+    public NodeChecker.Result check(final Transformation transformation) {
+        return check(transformation, false);
+    }
+
+    /**
+     * Checks the given transformation. If the transformation has already been checked
+     * speculatively in the same mode, the according result is returned.
+     *
+     * @param transformation
+     * @param forceMeasureInfoLoss
+     * @return
+     */
+    public NodeChecker.Result check(final Transformation transformation, final boolean forceMeasureInfoLoss) {
+
+        // Check, if a speculative check has been performed
+        long identifier = transformation.getIdentifier();
+        if (!results.containsKey(identifier)) {
+            return checker.check(transformation, forceMeasureInfoLoss);
+        }
+        
+        // Discard speculative checks performed in a different mode
+        Task future = results.remove(identifier);
+        if (forced.remove(identifier) != forceMeasureInfoLoss) {
+            future.discard();
+            return checker.check(transformation, forceMeasureInfoLoss);
+        }
+
+        // Obtain result
+        NodeChecker.Result result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+
+        // A lower bound known for the transformation takes precedence, as in NodeChecker.check()
+        if (result.informationLoss == null && transformation.getLowerBound() != null) {
+            result = new NodeChecker.Result(result.privacyModelFulfilled,
+                                            result.minimalClassSizeFulfilled,
+                                            null,
+                                            transformation.getLowerBound());
+        }
+        return result;
+    }
+
+    /**
+     * Cancels the speculative check of the given transformation, if any. Must be called
+     * for transformations which will not be checked by the algorithm anymore, e.g. because
+     * their properties have been predicted or because they have been pruned.
+     *
+     * @param identifier
+     */
+    public void cancel(final long identifier) {
+        Task future = results.remove(identifier);
+        if (future != null) {
+            forced.remove(identifier);
+            future.discard();
+        }
+    }
+
+    /**
+     * Returns the checker used by the thread running the algorithm
+     * @return
+     */
+    public NodeChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * Returns the identifiers of all transformations for which speculative checks are pending
+     * or for which results have not been consumed yet
+     * @return
+     */
+    public long[] getSpeculativeChecks() {
+        return results.keys().toArray();
+    }
+
+    /**
+     * Returns the number of threads
+     * @return
+     */
+    public int getNumberOfThreads() {
+        return threads;
+    }
+
+    /**
+     * Speculatively checks the given transformation in the background, if a worker is available.
+     *
+     * @param transformation
+     * @return Whether the transformation has been or is being checked
+     */
+    public boolean prefetch(final Transformation transformation) {
+        return prefetch(transformation, false);
+    }
+
+    /**
+     * Speculatively checks the given transformation in the background, if a worker is available.
+     *
+     * @param transformation
+     * @param forceMeasureInfoLoss
+     * @return Whether the transformation has been or is being checked
+     */
+    public boolean prefetch(final Transformation transformation, final boolean forceMeasureInfoLoss) {
+
+        // Already scheduled
+        long identifier = transformation.getIdentifier();
+        if (results.containsKey(identifier)) {
+            return true;
+        }
+
+        // Already checked
+        if (transformation.hasProperty(solutionSpace.getPropertyChecked())) {
+            return false;
+        }
+
+        // No capacity
+        if (running.get() >= threads) {
+            return false;
+        }
+
+        // Schedule
+        Task task = new Task(transformation.getGeneralization().clone(), forceMeasureInfoLoss);
+        running.incrementAndGet();
+        if (forceMeasureInfoLoss) {
+            forced.add(identifier);
+        }
+        results.put(identifier, task);
+        executor.execute(task);
+        return true;
+    }
+
+    /**
+     * Stops all workers. Pending speculative checks are discarded.
+     */
+    public void shutdown() {
+        for (LongObjectCursor<Task> cursor : results) {
+            cursor.value.discard();
+        }
+        results.clear();
+        forced.clear();
+        executor.shutdownNow();
+    }
+}
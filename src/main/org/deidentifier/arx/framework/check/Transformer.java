@@ -17,11 +17,19 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.SnapshotCodec;
 import org.deidentifier.arx.framework.check.transformer.AbstractTransformer;
 import org.deidentifier.arx.framework.check.transformer.Transformer01;
 import org.deidentifier.arx.framework.check.transformer.Transformer02;
@@ -39,6 +47,7 @@ import org.deidentifier.arx.framework.check.transformer.Transformer13;
 import org.deidentifier.arx.framework.check.transformer.Transformer14;
 import org.deidentifier.arx.framework.check.transformer.Transformer15;
 import org.deidentifier.arx.framework.check.transformer.TransformerAll;
+import org.deidentifier.arx.framework.data.DataColumns;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -49,6 +58,30 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** The minimal number of rows that is processed by one partition */
+    private static final int                   MIN_ROWS_PER_PARTITION = 10000;
+
+    /** The number of classes of a compressed snapshot which are decoded at once */
+    private static final int                   SNAPSHOT_BLOCK_SIZE    = 1024;
+
+    /** The pool shared by all transformers for processing partitions of the input */
+    private static ForkJoinPool                pool;
+
+    /**
+     * Returns the pool for processing partitions of the input.
+     *
+     * @return
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    /** The data stored column by column, may be null. */
+    protected final DataColumns                columns;
+
     /** The config. */
     protected final ARXConfigurationInternal   config;
 
@@ -67,7 +100,7 @@ public class Transformer {
     /** Other attribute values. */
     protected int[][]                          inputAnalyzed;
 
-    /** The data. */
+    /** The data, null if it is stored column by column. */
     protected final int[][]                    inputGeneralized;
 
     /** The instances. */
@@ -76,39 +109,55 @@ public class Transformer {
     /** The buffer. */
     protected int[][]                          outputGeneralized;
 
+    /** The number of rows. */
+    protected final int                        rows;
+
+    /** The groupify operators for the partitions of the input. Built lazily. */
+    private HashGroupify[]                     partitionGroupifies;
+
+    /** The instances for the partitions of the input. Built lazily. */
+    private AbstractTransformer[][]            partitionInstances;
+
+    /** The buffer for decoding compressed snapshots. Built lazily. */
+    private int[]                              snapshotBlock;
+
     /**
      * Instantiates a new transformer.
      *
-     * @param inputGeneralized
+     * @param inputGeneralized The input data, may be null if columns are given.
      * @param inputAnalyzed
      * @param hierarchies
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param columns The input data stored column by column. If not null, it will be read instead of the array.
      */
     public Transformer(final int[][] inputGeneralized,
                        final int[][] inputAnalyzed,
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final DataColumns columns) {
 
         this.config = config;
+        this.columns = columns;
         this.inputGeneralized = inputGeneralized;
         this.hierarchies = hierarchies;
         this.instances = new AbstractTransformer[16];
-        this.outputGeneralized = new int[inputGeneralized.length][];
+        this.rows = columns != null ? columns.getNumRows() : inputGeneralized.length;
+        this.dimensions = columns != null ? columns.getNumColumns() : inputGeneralized[0].length;
+        this.outputGeneralized = new int[rows][];
         
-        for (int i = 0; i < inputGeneralized.length; i++) {
-            outputGeneralized[i] = new int[inputGeneralized[0].length];
+        for (int i = 0; i < rows; i++) {
+            outputGeneralized[i] = new int[dimensions];
         }
 
-        this.dimensions = inputGeneralized[0].length;
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
 
-        buildApplicators();
+        buildApplicators(instances);
     }
 
     /**
@@ -194,104 +243,122 @@ public class Transformer {
 
     /**
      * Builds the applicators.
+     *
+     * @param instances
      */
-    private void buildApplicators() {
+    private void buildApplicators(final AbstractTransformer[] instances) {
         instances[15] = new Transformer15(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[14] = new Transformer14(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[13] = new Transformer13(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[12] = new Transformer12(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[11] = new Transformer11(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[10] = new Transformer10(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
         instances[9] = new Transformer09(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[8] = new Transformer08(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[7] = new Transformer07(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[6] = new Transformer06(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[5] = new Transformer05(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[4] = new Transformer04(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[3] = new Transformer03(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[2] = new Transformer02(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[1] = new Transformer01(inputGeneralized,
                                          hierarchies,
                                          inputAnalyzed,
                                          dictionarySensValue,
                                          dictionarySensFreq,
-                                         config);
+                                         config,
+                                         columns);
         instances[0] = new TransformerAll(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
                                           dictionarySensValue,
                                           dictionarySensFreq,
-                                          config);
+                                          config,
+                                          columns);
     }
 
     /**
@@ -327,7 +394,7 @@ public class Transformer {
         switch (transition) {
         case UNOPTIMIZED:
             startIndex = 0;
-            stopIndex = inputGeneralized.length;
+            stopIndex = rows;
             break;
         case ROLLUP:
             startIndex = 0;
@@ -336,12 +403,23 @@ public class Transformer {
             element = source.getFirstEquivalenceClass();
             break;
         case SNAPSHOT:
+            if (config.isSnapshotCompressionEnabled()) {
+                return applyCompressedSnapshot(projection, state, target, snapshot);
+            }
             startIndex = 0;
             stopIndex = snapshot.length /
                         config.getSnapshotLength();
             break;
         }
 
+        // Process partitions of the input in parallel
+        if (transition == TransitionType.UNOPTIMIZED) {
+            int partitions = Math.min(config.getNumberOfThreads(), stopIndex / MIN_ROWS_PER_PARTITION);
+            if (partitions > 1) {
+                return applyPartitioned(projection, state, target, partitions);
+            }
+        }
+
         AbstractTransformer app = null;
 
         app = getApplicator(projection);
@@ -361,6 +439,124 @@ public class Transformer {
         return app.call();
     }
 
+    /**
+     * Applies a compressed snapshot. The snapshot is decoded block by block into a buffer,
+     * which is processed like an uncompressed snapshot.
+     *
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @param snapshot the compressed snapshot
+     * @return the hash groupify
+     */
+    protected HashGroupify applyCompressedSnapshot(final long projection,
+                                                   final int[] state,
+                                                   final HashGroupify target,
+                                                   final int[] snapshot) {
+
+        // Prepare
+        if (snapshotBlock == null) {
+            snapshotBlock = new int[SNAPSHOT_BLOCK_SIZE * config.getSnapshotLength()];
+        }
+        final SnapshotCodec.Decoder decoder = new SnapshotCodec.Decoder(snapshot, config.getSnapshotLength());
+        final AbstractTransformer app = getApplicator(projection);
+
+        // Process blocks
+        target.stateClear();
+        while (decoder.hasNext()) {
+            final int count = decoder.next(snapshotBlock);
+            app.init(projection,
+                     state,
+                     target,
+                     null,
+                     snapshotBlock,
+                     TransitionType.SNAPSHOT,
+                     0,
+                     count,
+                     0,
+                     null,
+                     outputGeneralized);
+            app.process();
+        }
+        return target;
+    }
+
+    /**
+     * Splits the input into the given number of partitions of consecutive rows, groups
+     * each partition into its own groupify operator and merges the results into the target.
+     * Partitions are merged in the order of their rows. This means that the order of
+     * equivalence classes, their representatives and their counts are the same as when
+     * processing the input in one pass.
+     *
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @param partitions the number of partitions
+     * @return the hash groupify
+     */
+    protected HashGroupify applyPartitioned(final long projection,
+                                            final int[] state,
+                                            final HashGroupify target,
+                                            final int partitions) {
+
+        // Prepare
+        if (partitionInstances == null || partitionInstances.length < partitions) {
+            partitionInstances = new AbstractTransformer[partitions][];
+            partitionGroupifies = new HashGroupify[partitions];
+            int capacity = rows / partitions;
+            for (int i = 0; i < partitions; i++) {
+                partitionInstances[i] = new AbstractTransformer[instances.length];
+                buildApplicators(partitionInstances[i]);
+                partitionGroupifies[i] = new HashGroupify(capacity, config);
+            }
+        }
+
+        // Create tasks
+        final int index = getApplicatorIndex(projection);
+        List<Callable<HashGroupify>> tasks = new ArrayList<Callable<HashGroupify>>();
+        for (int i = 0; i < partitions; i++) {
+            AbstractTransformer app = partitionInstances[i][index];
+            app.init(projection,
+                     state,
+                     partitionGroupifies[i],
+                     null,
+                     null,
+                     TransitionType.UNOPTIMIZED,
+                     (int) ((long) rows * i / partitions),
+                     (int) ((long) rows * (i + 1) / partitions),
+                     0,
+                     null,
+                     outputGeneralized);
+            tasks.add(app);
+        }
+
+        // Execute
+        List<Future<HashGroupify>> results = getPool().invokeAll(tasks);
+
+        // Merge
+        target.stateClear();
+        for (Future<HashGroupify> result : results) {
+            HashGroupify groupify;
+            try {
+                groupify = result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+            HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+            while (entry != null) {
+                target.addFromGroupify(entry.key, entry.distributions, entry.representative, entry.count, entry.pcount);
+                entry = entry.nextOrdered;
+            }
+        }
+        return target;
+    }
+
     /**
      * Gets the applicator.
      * 
@@ -368,11 +564,21 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getApplicator(final long projection) {
+        return instances[getApplicatorIndex(projection)];
+    }
+
+    /**
+     * Returns the index of the applicator for the given projection.
+     *
+     * @param projection the projection
+     * @return the index
+     */
+    private int getApplicatorIndex(final long projection) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
-            return instances[0];
+            return 0;
         } else {
-            return instances[index];
+            return index;
         }
     }
 }
@@ -17,17 +17,26 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.criteria.PrivacyCriterionContext;
 import org.deidentifier.arx.criteria.SampleBasedCriterion;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 import org.deidentifier.arx.metric.Metric;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
@@ -40,10 +49,43 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
  * @author Florian Kohlmayer
  */
 public class HashGroupify {
+
+    /** The minimal number of classes that is analyzed by one partition */
+    private static final int             MIN_CLASSES_PER_PARTITION = 10000;
+
+    /** The pool shared by all operators for analyzing partitions of the classes */
+    private static ForkJoinPool          pool;
+
+    /**
+     * Returns the pool for analyzing partitions of the classes.
+     *
+     * @return
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
         
+    /** Accumulates the information loss of all classes while they are analyzed. Created on demand. */
+    private InformationLossAccumulator<?> accumulator;
+
+    /** The transformation for which the information loss has been accumulated completely, if any. */
+    private Transformation               accumulatorTransformation;
+
+    /** Whether the information loss may be accumulated while analyzing classes. */
+    private boolean                      accumulatorSupported;
+    
     /** Criteria. */
     private final PrivacyCriterion[]     classBasedCriteria;
     
+    /** Contexts for evaluating the criteria, per partition. Created on demand. */
+    private final PrivacyCriterionContext[][] contexts;
+    
+    /** Can all criteria be evaluated concurrently */
+    private final boolean                concurrentEvaluationSupported;
+    
     /** The current number of outliers. */
     private int                          currentNumOutliers;
     
@@ -74,6 +116,9 @@ public class HashGroupify {
     /** Is the result k-anonymous?. */
     private boolean                      minimalClassSizeFulfilled;
     
+    /** The number of threads for analyzing classes */
+    private final int                    numberOfThreads;
+    
     /** True, if the contained d-presence criterion is not inclusion. */
     private final boolean                privacyModelContainsDPresence;
     
@@ -124,6 +169,18 @@ public class HashGroupify {
         this.sampleBasedCriteria = config.getSampleBasedPrivacyModelsAsArray();
         this.minimalClassSize = config.getMinimalGroupSize();
         
+        // Prepare concurrent evaluation
+        boolean concurrent = true;
+        for (PrivacyCriterion criterion : classBasedCriteria) {
+            concurrent &= criterion.isConcurrentEvaluationSupported();
+        }
+        this.concurrentEvaluationSupported = concurrent;
+        this.numberOfThreads = concurrent ? config.getNumberOfThreads() : 1;
+        this.contexts = new PrivacyCriterionContext[numberOfThreads][];
+        
+        // Sample-based criteria may suppress further classes after they have been analyzed
+        this.accumulatorSupported = utilityMeasure != null && sampleBasedCriteria.length == 0;
+        
         // Sanity check: by convention, d-presence must be the first criterion
         // See analyze() and isAnonymous(Entry) for more details
         for (int i = 1; i < classBasedCriteria.length; i++) {
@@ -235,6 +292,21 @@ public class HashGroupify {
         }
     }
     
+    /**
+     * Returns the accumulator, if it has been created by the given utility measure and if
+     * it has processed all classes of the given transformation during the last analysis.
+     * Returns null otherwise.
+     * @param metric
+     * @param transformation
+     * @return
+     */
+    public InformationLossAccumulator<?> getAccumulator(Metric<?> metric, Transformation transformation) {
+        if (metric == utilityMeasure && transformation != null && transformation == accumulatorTransformation) {
+            return accumulator;
+        }
+        return null;
+    }
+    
     /**
      * Returns the entry for the given tuple
      * @param tuple
@@ -262,6 +334,16 @@ public class HashGroupify {
         return hashTableElementCount;
     }
     
+    /**
+     * Returns whether the current state can be analyzed concurrently with other operators.
+     * This is the case if all class-based privacy models support concurrent evaluation and if
+     * no sample-based privacy models need to be enforced.
+     * @return
+     */
+    public boolean isConcurrentAnalysisSupported() {
+        return concurrentEvaluationSupported && sampleBasedCriteria.length == 0;
+    }
+    
     /**
      * Returns whether the current state of the dataset fulfills the minimal class-size property
      * @return
@@ -366,6 +448,7 @@ public class HashGroupify {
      * @param force
      */
     public void stateAnalyze(Transformation transformation, boolean force) {
+        this.accumulatorTransformation = null;
         if (force) analyzeAll(transformation);
         else analyzeWithEarlyAbort(transformation);
     }
@@ -374,6 +457,7 @@ public class HashGroupify {
      * Clears all entries
      */
     public void stateClear() {
+        this.accumulatorTransformation = null;
         if (hashTableElementCount > 0) {
             this.hashTableElementCount = 0;
             this.currentNumOutliers = 0;
@@ -393,6 +477,7 @@ public class HashGroupify {
             entry = entry.nextOrdered;
         }
         this.currentNumOutliers = 0;
+        this.accumulatorTransformation = null;
     }
     
     /**
@@ -477,14 +562,19 @@ public class HashGroupify {
         // We have only checked k-anonymity so far
         minimalClassSizeFulfilled = (currentNumOutliers <= suppressionLimit);
         
+        // Check classes in parallel, if possible
+        int[] results = getNumberOfPartitions() > 1 ? analyzeInParallel(transformation, false) : null;
+        
         // Iterate over all classes
         boolean dpresent = true;
         currentNumOutliers = 0;
+        InformationLossAccumulator<?> accumulator = startAccumulator(transformation);
         HashGroupifyEntry entry = hashTableFirstEntry;
+        int index = 0;
         while (entry != null) {
             
             // Check for anonymity
-            int anonymous = isPrivacyModelFulfilled(transformation, entry);
+            int anonymous = results != null ? results[index++] : isPrivacyModelFulfilled(transformation, entry, getContexts(0));
             
             // Determine outliers
             if (anonymous != -1) {
@@ -504,14 +594,107 @@ public class HashGroupify {
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
             
+            // Accumulate information loss
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
+            
             // Next class
             entry = entry.nextOrdered;
         }
         
+        // All classes have been accumulated
+        if (accumulator != null) {
+            accumulatorTransformation = transformation;
+        }
+        
         this.analyzeSampleBasedCriteria(transformation, false);
         this.privacyModelFulfilled = (currentNumOutliers <= suppressionLimit) && dpresent;
     }
     
+    /**
+     * Checks the privacy criteria against all classes, which are split into partitions that are
+     * analyzed in parallel.
+     * @param transformation
+     * @param earlyAbort May we abort early, if the transformation cannot be anonymous
+     * @return The result of checking each class in order, null if we aborted early
+     */
+    private int[] analyzeInParallel(final Transformation transformation, final boolean earlyAbort) {
+        
+        // Prepare
+        final HashGroupifyEntry[] entries = new HashGroupifyEntry[hashTableElementCount];
+        HashGroupifyEntry entry = hashTableFirstEntry;
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = entry;
+            entry = entry.nextOrdered;
+        }
+        final int[] results = new int[entries.length];
+        final AtomicInteger outliers = new AtomicInteger();
+        final AtomicBoolean abort = new AtomicBoolean();
+        final int partitions = getNumberOfPartitions();
+        final int size = (int) Math.ceil((double) entries.length / (double) partitions);
+        
+        // Create tasks
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int partition = 0; partition < partitions; partition++) {
+            final int start = partition * size;
+            final int end = Math.min(start + size, entries.length);
+            final PrivacyCriterionContext[] contexts = getContexts(partition);
+            tasks.add(new RecursiveAction() {
+                private static final long serialVersionUID = -5217417787282396409L;
+                @Override
+                protected void compute() {
+                    for (int i = start; i < end && !abort.get(); i++) {
+                        HashGroupifyEntry entry = entries[i];
+                        int anonymous = isPrivacyModelFulfilled(transformation, entry, contexts);
+                        results[i] = anonymous;
+                        
+                        // The transformation cannot be anonymous, if d-presence is violated for 
+                        // records that cannot be suppressed or if there are too many outliers
+                        if (earlyAbort && anonymous != -1) {
+                            if ((privacyModelContainsDPresence && entry.count == 0 && anonymous == 1) ||
+                                outliers.addAndGet(entry.count) > suppressionLimit) {
+                                abort.set(true);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        
+        // Execute
+        getPool().invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 2540848063950406932L;
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        
+        // Return
+        return abort.get() ? null : results;
+    }
+    
+    /**
+     * Prepares the accumulator for analyzing the given transformation.
+     * @param transformation
+     * @return The accumulator, null if the utility measure does not support accumulation
+     */
+    private InformationLossAccumulator<?> startAccumulator(Transformation transformation) {
+        if (!accumulatorSupported) {
+            return null;
+        }
+        if (accumulator == null) {
+            accumulator = utilityMeasure.createAccumulator();
+            if (accumulator == null) {
+                accumulatorSupported = false;
+                return null;
+            }
+        }
+        accumulator.start(transformation);
+        return accumulator;
+    }
+    
     /**
      * Analyze sample-based criteria
      * @param transformation
@@ -567,13 +750,28 @@ public class HashGroupify {
             return;
         }
         
+        // Check classes in parallel, if possible
+        int[] results = null;
+        if (getNumberOfPartitions() > 1) {
+            results = analyzeInParallel(transformation, true);
+            
+            // CAUTION: This leaves GroupifyEntry.isNotOutlier and currentOutliers in an inconsistent state
+            // for non-anonymous transformations
+            if (results == null) {
+                this.privacyModelFulfilled = false;
+                return;
+            }
+        }
+        
         // Iterate over all classes
         currentNumOutliers = 0;
+        InformationLossAccumulator<?> accumulator = startAccumulator(transformation);
         HashGroupifyEntry entry = hashTableFirstEntry;
+        int index = 0;
         while (entry != null) {
             
             // Check for anonymity
-            int anonymous = isPrivacyModelFulfilled(transformation, entry);
+            int anonymous = results != null ? results[index++] : isPrivacyModelFulfilled(transformation, entry, getContexts(0));
             
             // Determine outliers
             if (anonymous != -1) {
@@ -603,10 +801,20 @@ public class HashGroupify {
             // We only suppress classes that are contained in the research subset
             entry.isNotOutlier = entry.count != 0 ? (anonymous == -1) : true;
             
+            // Accumulate information loss
+            if (accumulator != null) {
+                accumulator.add(entry);
+            }
+            
             // Next class
             entry = entry.nextOrdered;
         }
         
+        // All classes have been accumulated
+        if (accumulator != null) {
+            accumulatorTransformation = transformation;
+        }
+        
         this.analyzeSampleBasedCriteria(transformation, true);
         this.privacyModelFulfilled = (currentNumOutliers <= suppressionLimit);
     }
@@ -674,14 +882,41 @@ public class HashGroupify {
         return m;
     }
         
+    /**
+     * Returns the contexts for evaluating the criteria in the given partition
+     * @param partition
+     * @return
+     */
+    private PrivacyCriterionContext[] getContexts(int partition) {
+        if (contexts[partition] == null) {
+            contexts[partition] = new PrivacyCriterionContext[classBasedCriteria.length];
+            for (int i = 0; i < classBasedCriteria.length; i++) {
+                contexts[partition][i] = classBasedCriteria[i].createContext();
+            }
+        }
+        return contexts[partition];
+    }
+    
+    /**
+     * Returns the number of partitions in which the classes are analyzed
+     * @return
+     */
+    private int getNumberOfPartitions() {
+        if (numberOfThreads == 1 || classBasedCriteria.length == 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(numberOfThreads, hashTableElementCount / MIN_CLASSES_PER_PARTITION));
+    }
+    
     /**
      * Checks whether the given entry is anonymous.
      * @param transformation
      * @param entry
+     * @param contexts
      * @return
      * @returns -1, if all criteria are fulfilled, 0, if minimal group size is not fulfilled, (index+1) if criteria[index] is not fulfilled
      */
-    private int isPrivacyModelFulfilled(Transformation transformation, HashGroupifyEntry entry) {
+    private int isPrivacyModelFulfilled(Transformation transformation, HashGroupifyEntry entry, PrivacyCriterionContext[] contexts) {
         
         // Check minimal group size
         if (minimalClassSize != Integer.MAX_VALUE && entry.count < minimalClassSize) {
@@ -692,7 +927,7 @@ public class HashGroupify {
         // Note: The d-presence criterion must be checked first to ensure correct handling of d-presence with tuple suppression.
         // This is currently ensured by convention. See ARXConfiguration.getCriteriaAsArray();
         for (int i = 0; i < classBasedCriteria.length; i++) {
-            if (!classBasedCriteria[i].isAnonymous(transformation, entry)) {
+            if (!classBasedCriteria[i].isAnonymous(transformation, entry, contexts[i])) {
                 return i + 1;
             }
         }
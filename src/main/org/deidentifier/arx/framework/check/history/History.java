@@ -17,7 +17,6 @@
 
 package org.deidentifier.arx.framework.check.history;
 
-import java.util.HashMap;
 import java.util.Iterator;
 
 import org.deidentifier.arx.ARXConfiguration;
@@ -59,8 +58,17 @@ public class History {
     /** The dictionary for values of the distributions. */
     private final IntArrayDictionary        dictionarySensValue;
 
-    /** A map from nodes to snapshots. */
-    private HashMap<Long, int[]>            nodeToSnapshot                = null;
+    /** The maximal number of bytes occupied by snapshots, 0 if there is no such limit. */
+    private final long                      memoryLimit;
+
+    /** The maximal generalization levels. */
+    private final int[]                     maxLevels;
+
+    /** The snapshots. */
+    private SnapshotStore                   snapshots                     = null;
+
+    /** Whether snapshots are compressed. */
+    private final boolean                   compressed;
 
     /** The current requirements. */
     private final int                       requirements;
@@ -123,7 +131,9 @@ public class History {
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<MRUCacheEntryMetadata>(size);
-        this.nodeToSnapshot = new HashMap<Long, int[]>(size);
+        this.memoryLimit = config.getHistoryMemoryLimit();
+        this.snapshots = new SnapshotStore(memoryLimit > 0);
+        this.compressed = config.isSnapshotCompressionEnabled();
         this.size = size;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
@@ -131,6 +141,7 @@ public class History {
         this.requirements = config.getRequirements();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
+        this.maxLevels = solutionSpace.getTop().getGeneralization();
     }
     
     /**
@@ -142,7 +153,7 @@ public class History {
     public int[] get(final int[] transformation) {
 
         // Init
-        int[] resultSnapshot = null;
+        int resultLength = 0;
         MRUCacheEntryMetadata resultMetadata = null;
         int level = solutionSpace.getLevel(transformation);
 
@@ -151,11 +162,11 @@ public class History {
         while (entry != null) {
             MRUCacheEntryMetadata currentMetadata = entry.data;
             if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
+                final int currentLength = snapshots.getLength(currentMetadata.id);
+                if ((resultMetadata == null) || (currentLength < resultLength)) {
                     if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
                         resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
+                        resultLength = currentLength;
                     }
                 }
             }
@@ -163,8 +174,10 @@ public class History {
         }
 
         // Manager
+        int[] resultSnapshot = null;
         if (resultMetadata != null) {
             cache.touch(resultMetadata);
+            resultSnapshot = snapshots.get(resultMetadata.id);
         }
         this.resultMetadata = resultMetadata;
 
@@ -217,7 +230,7 @@ public class History {
      */
     public void reset() {
         this.cache.clear();
-        this.nodeToSnapshot.clear();
+        this.snapshots.clear();
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
@@ -244,6 +257,15 @@ public class History {
         }
     }
     
+    /**
+     * Returns the number of bytes occupied by snapshots.
+     *
+     * @return
+     */
+    public long getMemoryUsage() {
+        return snapshots.getByteSize();
+    }
+
     /**
      * 
      *
@@ -271,7 +293,7 @@ public class History {
 
         // Early abort if too large
         if (snapshot != null) {
-            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / ((double) snapshot.length / config.getSnapshotLength()));
+            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / ((double) getNumberOfEquivalenceClasses(snapshot)));
             if (relativeSize > snapshotSizeSnapshot) { return false; }
         }
         
@@ -280,21 +302,41 @@ public class History {
             (transformation.hasProperty(solutionSpace.getPropertySuccessorsPruned()) || !storageTrigger.appliesTo(transformation))) {
             return false;
         }
+
+        // Early abort if the transformation has already been stored, e.g. by a checker which checked it twice
+        if (snapshots.getLength(transformation.getIdentifier()) != -1) {
+            return false;
+        }
         
         // Clear the cache
         cleanUpHistory();
 
-        // Perform LRU eviction, if still too large
-        if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
-        }
-        
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
 
+        // Abort if larger than the memory limit
+        final long bytes = SnapshotStore.getByteSize(data.length);
+        if (memoryLimit > 0 && bytes > memoryLimit) {
+            releaseSnapshot(data);
+            return false;
+        }
+
+        // Perform LRU eviction, if still too large
+        if (memoryLimit == 0) {
+            if (cache.size() >= size) {
+                removeHistoryEntry(cache.removeHead());
+            }
+        // Perform cost-aware eviction, if a memory limit has been specified
+        } else {
+            while (cache.size() > 0 && (cache.size() >= size || snapshots.getByteSize() + bytes > memoryLimit)) {
+                MRUCacheEntryMetadata metadata = getEvictionCandidate();
+                cache.remove(metadata);
+                removeHistoryEntry(metadata);
+            }
+        }
 
         // assign snapshot and keep reference for cache
-        nodeToSnapshot.put(transformation.getIdentifier(), data);
+        snapshots.put(transformation.getIdentifier(), data);
         cache.append(new MRUCacheEntryMetadata(transformation));
 
         return true;
@@ -323,7 +365,10 @@ public class History {
      */
     private final int[] createSnapshot(final HashGroupify g) {
 
-        final int[] data = new int[g.getNumberOfEquivalenceClasses() * config.getSnapshotLength()];
+        // Compressed snapshots are encoded entry by entry
+        final int length = config.getSnapshotLength();
+        final SnapshotCodec.Encoder encoder = compressed ? new SnapshotCodec.Encoder(g.getNumberOfEquivalenceClasses()) : null;
+        final int[] data = new int[compressed ? length : g.getNumberOfEquivalenceClasses() * length];
         int index = 0;
         HashGroupifyEntry m = g.getFirstEquivalenceClass();
         while (m != null) {
@@ -360,24 +405,112 @@ public class History {
             default:
                 throw new RuntimeException("Invalid requirements: " + requirements);
             }
-            index += config.getSnapshotLength();
+            if (compressed) {
+                encoder.add(data, length);
+            } else {
+                index += length;
+            }
             // Next element
             m = m.nextOrdered;
         }
-        return data;
+        return compressed ? encoder.getSnapshot() : data;
     }
 
     /**
-     * Removes a snapshot.
+     * Returns the entry which should be evicted next. This is the entry with the lowest
+     * expected benefit per byte, where the expected benefit is estimated from the number of
+     * direct successors of the transformation that have not been checked yet. Ties are broken
+     * in favor of evicting the least recently used entry.
      *
-     * @param metadata
+     * @return
      */
-    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
-        final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+    private MRUCacheEntryMetadata getEvictionCandidate() {
 
+        MRUCacheEntryMetadata result = null;
+        double resultBenefit = Double.MAX_VALUE;
+        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
+        while (entry != null) {
+            MRUCacheEntryMetadata metadata = entry.data;
+            double benefit = (1d + getNumberOfUncheckedSuccessors(metadata.transformation)) /
+                             (double) SnapshotStore.getByteSize(snapshots.getLength(metadata.id));
+            if (benefit < resultBenefit) {
+                result = metadata;
+                resultBenefit = benefit;
+            }
+            entry = entry.next;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of direct successors of the given transformation which have not been checked.
+     *
+     * @param transformation
+     * @return
+     */
+    private int getNumberOfUncheckedSuccessors(final int[] transformation) {
+        int result = 0;
+        final int[] successor = transformation.clone();
+        for (int i = 0; i < successor.length; i++) {
+            if (successor[i] < maxLevels[i]) {
+                successor[i]++;
+                if (!solutionSpace.hasProperty(successor, solutionSpace.getPropertyChecked())) {
+                    result++;
+                }
+                successor[i]--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of equivalence classes in the given snapshot.
+     *
+     * @param snapshot
+     * @return
+     */
+    private int getNumberOfEquivalenceClasses(final int[] snapshot) {
+        if (compressed) {
+            return SnapshotCodec.getNumberOfEntries(snapshot);
+        } else {
+            return snapshot.length / config.getSnapshotLength();
+        }
+    }
+
+    /**
+     * Releases the references from the given snapshot to the dictionaries.
+     *
+     * @param snapshot
+     */
+    private final void releaseSnapshot(final int[] snapshot) {
+
+        // Nothing to do
+        if ((requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) == 0) {
+            return;
+        }
+
+        // Decode compressed snapshots block by block
+        if (compressed) {
+            SnapshotCodec.Decoder decoder = new SnapshotCodec.Decoder(snapshot, config.getSnapshotLength());
+            int[] block = new int[Math.min(SnapshotCodec.getNumberOfEntries(snapshot), 1024) * config.getSnapshotLength()];
+            while (decoder.hasNext()) {
+                releaseSnapshot(block, decoder.next(block) * config.getSnapshotLength());
+            }
+        } else {
+            releaseSnapshot(snapshot, snapshot.length);
+        }
+    }
+
+    /**
+     * Releases the references from the given uncompressed entries to the dictionaries.
+     *
+     * @param snapshot
+     * @param length
+     */
+    private final void releaseSnapshot(final int[] snapshot, final int length) {
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-            for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
+            for (int i = 0; i < length; i += config.getSnapshotLength()) {
                 for (int j = i + 3; j < i + config.getSnapshotLength() - 1; j += 2) {
                     dictionarySensValue.decrementRefCount(snapshot[j]);
                     dictionarySensFreq.decrementRefCount(snapshot[j+1]);
@@ -387,7 +520,7 @@ public class History {
         // TODO: If we only need a distribution, we should get rid of the primary counter
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
         case ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-            for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
+            for (int i = 0; i < length; i += config.getSnapshotLength()) {
                 for (int j = i + 2; j < i + config.getSnapshotLength() - 1; j += 2) {
                     dictionarySensValue.decrementRefCount(snapshot[j]);
                     dictionarySensFreq.decrementRefCount(snapshot[j+1]);
@@ -395,4 +528,13 @@ public class History {
             }
         }
     }
+
+    /**
+     * Removes a snapshot.
+     *
+     * @param metadata
+     */
+    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        releaseSnapshot(snapshots.remove(metadata.id));
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes compressed snapshots. An uncompressed snapshot consists of one entry
+ * of fixed length per equivalence class: the representative, followed by counters and
+ * identifiers of distributions in the dictionaries of the history. In compressed snapshots,
+ * representatives are stored as the difference to the representative of the previous entry
+ * and all values are stored as variable-length integers, which means that small values occupy
+ * a single byte. The bytes are packed into an int array, which is preceded by the number of
+ * entries and the number of bytes.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotCodec {
+
+    /**
+     * Decodes a compressed snapshot entry by entry.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Decoder {
+
+        /** The length of an entry */
+        private final int   entryLength;
+
+        /** The number of entries which have not been decoded, yet */
+        private int         remaining;
+
+        /** The offset of the next byte */
+        private int         offset;
+
+        /** The representative of the last decoded entry */
+        private int         representative;
+
+        /** The snapshot */
+        private final int[] snapshot;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param snapshot
+         * @param entryLength
+         */
+        public Decoder(final int[] snapshot, final int entryLength) {
+            this.snapshot = snapshot;
+            this.entryLength = entryLength;
+            this.remaining = snapshot[0];
+            this.offset = 0;
+            this.representative = 0;
+        }
+
+        /**
+         * Returns whether there are further entries.
+         *
+         * @return
+         */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * Decodes as many entries as fit into the given block and returns their number.
+         *
+         * @param block
+         * @return
+         */
+        public int next(final int[] block) {
+            final int count = Math.min(remaining, block.length / entryLength);
+            int index = 0;
+            for (int i = 0; i < count; i++) {
+                representative += decodeZigZag(read());
+                block[index++] = representative;
+                for (int j = 1; j < entryLength; j++) {
+                    block[index++] = read();
+                }
+            }
+            remaining -= count;
+            return count;
+        }
+
+        /**
+         * Reads a variable-length integer.
+         *
+         * @return
+         */
+        private int read() {
+            int result = 0;
+            int shift = 0;
+            int value;
+            do {
+                value = (snapshot[HEADER_LENGTH + (offset >>> 2)] >>> ((offset & 3) << 3)) & 0xFF;
+                offset++;
+                result |= (value & 0x7F) << shift;
+                shift += 7;
+            } while ((value & 0x80) != 0);
+            return result;
+        }
+    }
+
+    /**
+     * Encodes a compressed snapshot entry by entry.
+     *
+     * @author Fabian Prasser
+     */
+    public static class Encoder {
+
+        /** The encoded bytes */
+        private byte[] bytes;
+
+        /** The number of entries */
+        private int    count;
+
+        /** The number of bytes */
+        private int    offset;
+
+        /** The representative of the last encoded entry */
+        private int    representative;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param entries The expected number of entries
+         */
+        public Encoder(final int entries) {
+            this.bytes = new byte[Math.max(16, entries * 4)];
+        }
+
+        /**
+         * Encodes an entry.
+         *
+         * @param entry
+         * @param entryLength
+         */
+        public void add(final int[] entry, final int entryLength) {
+            write(encodeZigZag(entry[0] - representative));
+            representative = entry[0];
+            for (int j = 1; j < entryLength; j++) {
+                write(entry[j]);
+            }
+            count++;
+        }
+
+        /**
+         * Returns the compressed snapshot.
+         *
+         * @return
+         */
+        public int[] getSnapshot() {
+            final int[] snapshot = new int[HEADER_LENGTH + ((offset + 3) >>> 2)];
+            snapshot[0] = count;
+            snapshot[1] = offset;
+            for (int i = 0; i < offset; i++) {
+                snapshot[HEADER_LENGTH + (i >>> 2)] |= (bytes[i] & 0xFF) << ((i & 3) << 3);
+            }
+            return snapshot;
+        }
+
+        /**
+         * Writes a variable-length integer.
+         *
+         * @param value
+         */
+        private void write(int value) {
+            if (offset + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[offset++] = (byte) value;
+        }
+    }
+
+    /** The number of header elements */
+    private static final int HEADER_LENGTH = 2;
+
+    /**
+     * Returns the number of entries in the given compressed snapshot.
+     *
+     * @param snapshot
+     * @return
+     */
+    public static int getNumberOfEntries(final int[] snapshot) {
+        return snapshot[0];
+    }
+
+    /**
+     * Decodes a zig-zag encoded integer.
+     *
+     * @param value
+     * @return
+     */
+    private static int decodeZigZag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Zig-zag encodes an integer, which maps small negative values to small positive values.
+     *
+     * @param value
+     * @return
+     */
+    private static int encodeZigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
+/**
+ * Stores the snapshots of a history and keeps track of the memory occupied by them.
+ * Snapshots are either kept on the heap or in direct buffers outside of the heap, in
+ * which case they are copied back to the heap when they are used.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotStore {
+
+    /** The size of an element of a snapshot in bytes */
+    private static final int                       BYTES_PER_ELEMENT = 4;
+
+    /** The number of bytes occupied by all snapshots */
+    private long                                   byteSize          = 0L;
+
+    /** Whether snapshots are stored outside of the heap */
+    private final boolean                          offHeap;
+
+    /** The snapshots */
+    private final LongObjectOpenHashMap<IntBuffer> snapshots         = new LongObjectOpenHashMap<IntBuffer>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param offHeap Whether snapshots are stored outside of the heap
+     */
+    public SnapshotStore(final boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Returns the number of bytes needed for storing a snapshot with the given number of elements.
+     *
+     * @param length
+     * @return
+     */
+    public static long getByteSize(final int length) {
+        return (long) length * BYTES_PER_ELEMENT;
+    }
+
+    /**
+     * Removes all snapshots.
+     */
+    public void clear() {
+        snapshots.clear();
+        byteSize = 0L;
+    }
+
+    /**
+     * Returns the snapshot with the given identifier, null if there is none.
+     *
+     * @param id
+     * @return
+     */
+    public int[] get(final long id) {
+        IntBuffer buffer = snapshots.getOrDefault(id, null);
+        if (buffer == null) {
+            return null;
+        } else if (buffer.hasArray()) {
+            return buffer.array();
+        } else {
+            int[] snapshot = new int[buffer.capacity()];
+            buffer.duplicate().get(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the number of bytes occupied by all snapshots.
+     *
+     * @return
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Returns the number of elements of the snapshot with the given identifier, -1 if there is none.
+     *
+     * @param id
+     * @return
+     */
+    public int getLength(final long id) {
+        IntBuffer buffer = snapshots.getOrDefault(id, null);
+        return buffer == null ? -1 : buffer.capacity();
+    }
+
+    /**
+     * Returns whether snapshots are stored outside of the heap.
+     *
+     * @return
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Stores a snapshot. An existing snapshot with the same identifier is replaced.
+     *
+     * @param id
+     * @param snapshot
+     */
+    public void put(final long id, final int[] snapshot) {
+        remove(id);
+        IntBuffer buffer;
+        if (offHeap) {
+            buffer = ByteBuffer.allocateDirect(snapshot.length * BYTES_PER_ELEMENT).order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(snapshot);
+            buffer.rewind();
+        } else {
+            buffer = IntBuffer.wrap(snapshot);
+        }
+        snapshots.put(id, buffer);
+        byteSize += getByteSize(snapshot.length);
+    }
+
+    /**
+     * Removes the snapshot with the given identifier and returns it, null if there is none.
+     *
+     * @param id
+     * @return
+     */
+    public int[] remove(final long id) {
+        int[] snapshot = get(id);
+        if (snapshot != null) {
+            snapshots.remove(id);
+            byteSize -= getByteSize(snapshot.length);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of snapshots.
+     *
+     * @return
+     */
+    public int size() {
+        return snapshots.size();
+    }
+}
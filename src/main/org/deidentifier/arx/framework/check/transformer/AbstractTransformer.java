@@ -25,6 +25,7 @@ import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.data.DataColumns;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -228,6 +229,12 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     /** The column index array. */
     protected final int[]                     columnIndexArray;
     
+    /** The number of columns that are not projected away. */
+    protected int                             columnIndexCount;
+    
+    /** The data stored column by column. If not null, the input is read from this object. */
+    protected final DataColumns               columns;
+    
     /** The column map array. */
     protected final int[][][]                 columnMapArray;
     
@@ -264,6 +271,9 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     /** The intuple. */
     protected int[]                           intuple;
     
+    /** The buffer for rows decoded from columns. */
+    protected final int[]                     inputBuffer;
+    
     /** The generalization hierarchies. */
     protected int[][][]                       map;
     /** The outindices. */
@@ -371,15 +381,18 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param config
+     * @param columns the data stored column by column, may be null
      */
     public AbstractTransformer(final int[][] data,
                                final GeneralizationHierarchy[] hierarchies,
                                final int[][] otherData,
                                final IntArrayDictionary dictionarySensValue,
                                final IntArrayDictionary dictionarySensFreq,
-                               final ARXConfigurationInternal config) {
+                               final ARXConfigurationInternal config,
+                               final DataColumns columns) {
         this.config = config;
         this.data = data;
+        this.columns = columns;
         this.hierarchies = hierarchies;
         this.otherData = otherData;
         this.dictionarySensValue = dictionarySensValue;
@@ -387,7 +400,8 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         this.ssStepWidth = config.getSnapshotLength();
 
         // Init arrays
-        this.dimensions = data[0].length;
+        this.dimensions = columns != null ? columns.getNumColumns() : data[0].length;
+        this.inputBuffer = new int[dimensions];
         int arraySizes = 15;
         if (this.dimensions > arraySizes) {
             arraySizes = this.dimensions;
@@ -432,6 +446,16 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     public HashGroupify call() {
         // clear local groupify
         groupify.stateClear();
+        return process();
+    }
+
+    /**
+     * Processes the input without clearing the groupify operator first. This can be used
+     * for adding further classes from another block of a snapshot.
+     *
+     * @return
+     */
+    public HashGroupify process() {
 
         switch (transition) {
         case UNOPTIMIZED:
@@ -507,6 +531,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
                 index++;
             }
         }
+        this.columnIndexCount = index;
 
         // Store groupify
         this.groupify = groupify;
@@ -622,6 +647,21 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         outindex14 = outindices2[14];
     }
 
+    /**
+     * Returns the given row of the input. If the input is stored column by column, the
+     * columns which are not projected away are decoded into a buffer.
+     *
+     * @param row
+     * @return
+     */
+    protected int[] getInput(final int row) {
+        if (columns == null) {
+            return data[row];
+        } else {
+            return columns.getRow(row, inputBuffer, columnIndexArray, columnIndexCount);
+        }
+    }
+
     /**
      * Process complete input dataset.
      */
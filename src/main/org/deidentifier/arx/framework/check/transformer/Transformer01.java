@@ -19,6 +19,7 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataColumns;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -38,14 +39,16 @@ public class Transformer01 extends AbstractTransformer {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param config
+     * @param columns
      */
     public Transformer01(final int[][] data,
                          final GeneralizationHierarchy[] hierarchies,
                          final int[][] otherValues,
                          final IntArrayDictionary dictionarySensValue,
                          final IntArrayDictionary dictionarySensFreq,
-                         final ARXConfigurationInternal config) {
-        super(data, hierarchies, otherValues, dictionarySensValue, dictionarySensFreq, config);
+                         final ARXConfigurationInternal config,
+                         final DataColumns columns) {
+        super(data, hierarchies, otherValues, dictionarySensValue, dictionarySensFreq, config, columns);
     }
 
     /*
@@ -59,7 +62,7 @@ public class Transformer01 extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i++) {
 
             // Transform
-            intuple = data[i];
+            intuple = getInput(i);
             outtuple = buffer[i];
             outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
 
@@ -79,7 +82,7 @@ public class Transformer01 extends AbstractTransformer {
 
         while (element != null) {
 
-            intuple = data[element.representative];
+            intuple = getInput(element.representative);
             outtuple = buffer[element.representative];
             outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
 
@@ -105,7 +108,7 @@ public class Transformer01 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
+            intuple = getInput(snapshot[i]);
             outtuple = buffer[snapshot[i]];
             outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
 
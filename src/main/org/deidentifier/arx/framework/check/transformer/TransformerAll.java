@@ -19,10 +19,13 @@ package org.deidentifier.arx.framework.check.transformer;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.data.DataColumns;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * The class TransformerAll.
+ * The class TransformerAll, which is used when more than 15 columns need to be
+ * transformed. Like the unrolled transformers, it only transforms the columns which
+ * are not projected away and reads all per-column state from local variables.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -38,14 +41,16 @@ public class TransformerAll extends AbstractTransformer {
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param config
+     * @param columns
      */
     public TransformerAll(final int[][] data,
                           final GeneralizationHierarchy[] hierarchies,
                           final int[][] otherValues,
                           final IntArrayDictionary dictionarySensValue,
                           final IntArrayDictionary dictionarySensFreq,
-                          final ARXConfigurationInternal config) {
-        super(data, hierarchies, otherValues, dictionarySensValue, dictionarySensFreq, config);
+                          final ARXConfigurationInternal config,
+                          final DataColumns columns) {
+        super(data, hierarchies, otherValues, dictionarySensValue, dictionarySensFreq, config, columns);
     }
 
     /*
@@ -56,14 +61,15 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
-        final int dimensions = data[0].length;
+        final int count = columnIndexCount;
+        final int[] indices = columnIndexArray;
+        final int[] levels = generalizationIndexArray;
+        final int[][][] maps = columnMapArray;
+        final IGroupify delegate = this.delegate;
         for (int i = startIndex; i < stopIndex; i++) {
-            intuple = data[i];
+            intuple = getInput(i);
             outtuple = buffer[i];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple, count, indices, levels, maps);
 
             // Call
             delegate.callAll(outtuple, i);
@@ -78,14 +84,16 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processGroupify() {
+        final int count = columnIndexCount;
+        final int[] indices = columnIndexArray;
+        final int[] levels = generalizationIndexArray;
+        final int[][][] maps = columnMapArray;
+        final IGroupify delegate = this.delegate;
         while (element != null) {
 
-            intuple = data[element.representative];
+            intuple = getInput(element.representative);
             outtuple = buffer[element.representative];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple, count, indices, levels, maps);
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -107,16 +115,40 @@ public class TransformerAll extends AbstractTransformer {
         startIndex *= ssStepWidth;
         stopIndex *= ssStepWidth;
 
+        final int count = columnIndexCount;
+        final int[] indices = columnIndexArray;
+        final int[] levels = generalizationIndexArray;
+        final int[][][] maps = columnMapArray;
+        final IGroupify delegate = this.delegate;
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
+            intuple = getInput(snapshot[i]);
             outtuple = buffer[snapshot[i]];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
-            }
+            transform(intuple, outtuple, count, indices, levels, maps);
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
         }
     }
+
+    /**
+     * Transforms the columns which are not projected away.
+     *
+     * @param intuple
+     * @param outtuple
+     * @param count
+     * @param indices
+     * @param levels
+     * @param maps
+     */
+    private void transform(final int[] intuple,
+                           final int[] outtuple,
+                           final int count,
+                           final int[] indices,
+                           final int[] levels,
+                           final int[][][] maps) {
+        for (int d = 0; d < count; d++) {
+            final int index = indices[d];
+            outtuple[index] = maps[d][intuple[index]][levels[d]];
+        }
+    }
 }
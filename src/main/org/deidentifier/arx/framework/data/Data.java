@@ -26,7 +26,7 @@ import org.deidentifier.arx.RowSet;
 /**
  * Encodes a data object consisting of a dictionary encoded two-dimensional
  * array, an associated dictionary, a header and a mapping to the columns in the
- * input data set.
+ * input data set. The array is either stored row by row or column by column.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -34,22 +34,25 @@ import org.deidentifier.arx.RowSet;
 public class Data implements Cloneable{
 
     /** The outliers mask. */
-    public static final int  OUTLIER_MASK        = 1 << 31;
+    public static final int   OUTLIER_MASK        = 1 << 31;
 
     /** The inverse outliers mask. */
-    public static final int  REMOVE_OUTLIER_MASK = ~OUTLIER_MASK;
+    public static final int   REMOVE_OUTLIER_MASK = ~OUTLIER_MASK;
 
-    /** Row, Dimension. */
-    private final int[][]    data;
+    /** Row, Dimension. Null, if the data is stored column by column. */
+    private final int[][]     data;
+
+    /** The data stored column by column, if any. */
+    private final DataColumns columns;
 
     /** The header. */
-    private final String[]   header;
+    private final String[]    header;
 
     /** The associated dictionary. */
-    private final Dictionary dictionary;
+    private final Dictionary  dictionary;
 
     /** The associated map. */
-    private final int[]      map;
+    private final int[]       map;
 
     /**
      * Creates a new data object.
@@ -68,6 +71,30 @@ public class Data implements Cloneable{
                 final int[] map,
                 final Dictionary dictionary) {
         this.data = data;
+        this.columns = null;
+        this.header = header;
+        this.dictionary = dictionary;
+        this.map = map;
+    }
+
+    /**
+     * Creates a new data object, which is stored column by column.
+     * 
+     * @param columns
+     *            The columns
+     * @param header
+     *            The header
+     * @param map
+     *            The map
+     * @param dictionary
+     *            The dictionary
+     */
+    public Data(final DataColumns columns,
+                final String[] header,
+                final int[] map,
+                final Dictionary dictionary) {
+        this.data = null;
+        this.columns = columns;
         this.header = header;
         this.dictionary = dictionary;
         this.map = map;
@@ -75,15 +102,26 @@ public class Data implements Cloneable{
 
     @Override
     public Data clone(){
-        int[][] newData = new int[data.length][];
-        for (int i=0; i < data.length; i++){
-            newData[i] = Arrays.copyOf(data[i], header.length);
+        int[][] newData = new int[getDataLength()][];
+        for (int i=0; i < newData.length; i++){
+            newData[i] = data != null ? Arrays.copyOf(data[i], header.length) : columns.getRow(i, new int[header.length]);
         }
         return new Data(newData, header, map, dictionary);
     }
 
     /**
-     * Returns the data array.
+     * Returns the value in the given cell.
+     *
+     * @param row
+     * @param column
+     * @return
+     */
+    public int get(final int row, final int column) {
+        return data != null ? data[row][column] : columns.get(row, column);
+    }
+
+    /**
+     * Returns the data array. Null, if the data is stored column by column.
      *
      * @return
      */
@@ -92,7 +130,16 @@ public class Data implements Cloneable{
     }
 
     /**
-     * Returns the data.
+     * Returns the data stored column by column. Null, if the data is stored row by row.
+     *
+     * @return
+     */
+    public DataColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the data. Null, if the data is stored column by column.
      *
      * @return
      */
@@ -106,7 +153,7 @@ public class Data implements Cloneable{
      * @return the data length
      */
     public int getDataLength() {
-        return data.length;
+        return data != null ? data.length : columns.getNumRows();
     }
 
     /**
@@ -137,13 +184,34 @@ public class Data implements Cloneable{
     }
 
     /**
-     * Returns a new instance that is projected onto the given subset
+     * Returns the given row. If the data is stored column by column, the row is decoded
+     * into the given buffer.
+     *
+     * @param row
+     * @param buffer
+     * @return
+     */
+    public int[] getRow(final int row, final int[] buffer) {
+        return data != null ? data[row] : columns.getRow(row, buffer);
+    }
+
+    /**
+     * Returns a new instance that is projected onto the given subset. The instance
+     * is always stored row by row.
      * @param rowset
      * @return
      */
     public Data getSubsetInstance(RowSet rowset) {
         int[][] array = null;
-        if (this.data != null) {
+        if (this.columns != null) {
+            List<int[]> newdata = new ArrayList<int[]>();
+            for (int row = 0; row < this.columns.getNumRows(); row++) {
+                if (rowset.contains(row)) {
+                    newdata.add(columns.getRow(row, new int[header.length]));
+                }
+            }
+            array = newdata.toArray(new int[newdata.size()][]);
+        } else if (this.data != null) {
             List<int[]> newdata = new ArrayList<int[]>();
             for (int row = 0; row < this.data.length; row++) {
                 if (rowset.contains(row)) {
@@ -157,4 +225,20 @@ public class Data implements Cloneable{
         }
         return new Data(array, header, map, dictionary);
     }
+
+    /**
+     * Swaps the given rows.
+     *
+     * @param row1
+     * @param row2
+     */
+    public void swap(final int row1, final int row2) {
+        if (data != null) {
+            final int[] temp = data[row1];
+            data[row1] = data[row2];
+            data[row2] = temp;
+        } else if (columns != null) {
+            columns.swap(row1, row2);
+        }
+    }
 }
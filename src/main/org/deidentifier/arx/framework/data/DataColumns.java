@@ -0,0 +1,668 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores a dictionary encoded two-dimensional array column by column. The values of each column
+ * are bit-packed into longs, using as many bits as are needed to represent the largest value in
+ * the column. The packed columns are either kept on the heap or in a memory-mapped file, in which
+ * case the operating system decides which parts of the data are held in memory. Files are owned
+ * by the caller, which may reuse them across runs and is responsible for deleting them. The packed values
+ * are never modified. Swapping rows is implemented with a permutation of row indices, which is
+ * created on demand.
+ *
+ * @author Fabian Prasser
+ */
+public class DataColumns {
+
+    /**
+     * Consumes the longs of packed columns, which are passed column by column.
+     *
+     * @author Fabian Prasser
+     */
+    private static abstract class Consumer {
+
+        /**
+         * Consumes the next long.
+         *
+         * @param value
+         * @return Whether further longs should be passed to the consumer
+         * @throws IOException
+         */
+        abstract boolean put(long value) throws IOException;
+    }
+
+    /** Magic number identifying files */
+    private static final int   MAGIC = 0x41525843;
+
+    /** The number of bits per value for each column */
+    private final int[]        bits;
+
+    /** The packed values of each column, if mapped into memory */
+    private final LongBuffer[] buffers;
+
+    /** The packed values of each column, if stored on the heap */
+    private final long[][]     columns;
+
+    /** The masks for extracting values of each column */
+    private final long[]       masks;
+
+    /** The permutation of rows, null if no rows have been swapped */
+    private int[]              order;
+
+    /** The number of rows */
+    private final int          rows;
+
+    /**
+     * Creates a new instance from the given array, which is kept on the heap. Values must not be negative.
+     *
+     * @param data
+     * @param dimensions
+     */
+    public DataColumns(final int[][] data, final int dimensions) {
+        this(data, getIdentity(dimensions));
+    }
+
+    /**
+     * Creates a new instance from the given columns of the given array, which is kept on the heap.
+     * Column <code>i</code> of the instance contains the values of column <code>columns[i]</code>
+     * of the array. Values must not be negative.
+     *
+     * @param data
+     * @param columns Indices of the columns of the array
+     */
+    public DataColumns(final int[][] data, final int[] columns) {
+        this.rows = data.length;
+        this.bits = getBits(data, columns);
+        this.masks = getMasks(bits);
+        this.columns = new long[columns.length][];
+        this.buffers = null;
+        for (int column = 0; column < columns.length; column++) {
+            this.columns[column] = pack(data, columns[column], bits[column]);
+        }
+    }
+
+    /**
+     * Creates a new instance from the given array, which is stored in the given file and mapped
+     * into memory. Values must not be negative.
+     *
+     * @param data
+     * @param dimensions
+     * @param file
+     * @throws IOException
+     */
+    public DataColumns(final int[][] data, final int dimensions, final File file) throws IOException {
+        this(data, getIdentity(dimensions), file);
+    }
+
+    /**
+     * Creates a new instance from the given columns of the given array, which is stored in the
+     * given file and mapped into memory. Column <code>i</code> of the instance contains the values
+     * of column <code>columns[i]</code> of the array. If the file already contains exactly these
+     * values, e.g. because it has been created in a previous run, it is mapped as is. This is
+     * verified by comparing its contents with the packed values. Otherwise, the columns are packed
+     * into a new file, which replaces the given file. Existing mappings of the replaced file remain
+     * valid. Values must not be negative.
+     *
+     * @param data
+     * @param columns Indices of the columns of the array
+     * @param file
+     * @throws IOException
+     */
+    public DataColumns(final int[][] data, final int[] columns, final File file) throws IOException {
+
+        // Write, if needed
+        final int[] bits = getBits(data, columns);
+        if (!isValid(file, data, columns, bits)) {
+            File temp = new File(file.getPath() + ".tmp");
+            write(temp, data, columns, bits);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // Map
+        this.rows = data.length;
+        this.bits = bits;
+        this.masks = getMasks(bits);
+        this.columns = null;
+        this.buffers = map(file, getHeaderSize(bits.length), rows, bits, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Maps bit-packed columns into memory, which are stored consecutively in the given file,
+     * starting at the given offset. Each column occupies ceil(rows * bits / 64) longs.
+     *
+     * @param file
+     * @param offset
+     * @param rows
+     * @param bits The number of bits per value for each column
+     * @param order The byte order of the longs
+     * @throws IOException
+     */
+    public DataColumns(final File file, final long offset, final int rows, final int[] bits, final ByteOrder order) throws IOException {
+        for (int width : bits) {
+            if (width < 1 || width > 32) {
+                throw new IOException("Invalid file format");
+            }
+        }
+        this.rows = rows;
+        this.bits = bits.clone();
+        this.masks = getMasks(bits);
+        this.columns = null;
+        this.buffers = map(file, offset, rows, bits, order);
+    }
+
+    /**
+     * Maps a file which has been created with {@link #DataColumns(int[][], int, File)} into memory.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public DataColumns(final File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = readHeader(input.getChannel());
+            this.rows = header.getInt();
+            this.bits = new int[header.getInt()];
+            for (int column = 0; column < bits.length; column++) {
+                this.bits[column] = header.getInt();
+            }
+        } finally {
+            input.close();
+        }
+        this.masks = getMasks(bits);
+        this.columns = null;
+        this.buffers = map(file, getHeaderSize(bits.length), rows, bits, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the number of bits for each of the given columns.
+     *
+     * @param data
+     * @param columns
+     * @return
+     */
+    private static int[] getBits(final int[][] data, final int[] columns) {
+        int[] bits = new int[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            final int source = columns[column];
+            int max = 0;
+            for (int row = 0; row < data.length; row++) {
+                int value = data[row][source];
+                if (value < 0) {
+                    throw new IllegalArgumentException("Values must not be negative");
+                }
+                max = Math.max(max, value);
+            }
+            bits[column] = Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the size of the header of a file, which is aligned to 8 bytes. It consists of
+     * the magic number, the number of rows and columns and the number of bits per column.
+     *
+     * @param dimensions
+     * @return
+     */
+    private static int getHeaderSize(final int dimensions) {
+        return ((12 + dimensions * 4) + 7) & ~7;
+    }
+
+    /**
+     * Returns the indices of the given number of columns.
+     *
+     * @param dimensions
+     * @return
+     */
+    private static int[] getIdentity(final int dimensions) {
+        int[] columns = new int[dimensions];
+        for (int column = 0; column < dimensions; column++) {
+            columns[column] = column;
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the masks for extracting values.
+     *
+     * @param bits
+     * @return
+     */
+    private static long[] getMasks(final int[] bits) {
+        long[] masks = new long[bits.length];
+        for (int column = 0; column < bits.length; column++) {
+            masks[column] = (1L << bits[column]) - 1L;
+        }
+        return masks;
+    }
+
+    /**
+     * Returns the number of longs needed for a column.
+     *
+     * @param rows
+     * @param bits
+     * @return
+     */
+    private static int getSize(final int rows, final int bits) {
+        long size = ((long) rows * bits + 63L) >>> 6;
+        if (size > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("Column too large");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Returns whether the given file exists and contains exactly the values in the given columns
+     * of the given array. Values are packed while they are compared with the contents of the file,
+     * so that no packed column is held in memory.
+     *
+     * @param file
+     * @param data
+     * @param columns
+     * @param bits
+     * @return
+     */
+    private static boolean isValid(final File file, final int[][] data, final int[] columns, final int[] bits) {
+        if (!file.exists()) {
+            return false;
+        }
+        try {
+            RandomAccessFile input = new RandomAccessFile(file, "r");
+            try {
+                
+                // Compare layout
+                final FileChannel channel = input.getChannel();
+                ByteBuffer header = readHeader(channel);
+                if (header.getInt() != data.length || header.getInt() != bits.length) {
+                    return false;
+                }
+                long size = getHeaderSize(bits.length);
+                for (int column = 0; column < bits.length; column++) {
+                    if (header.getInt() != bits[column]) {
+                        return false;
+                    }
+                    size += getSize(data.length, bits[column]) * 8L;
+                }
+                if (channel.size() != size) {
+                    return false;
+                }
+                
+                // Compare values
+                final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.nativeOrder());
+                buffer.flip();
+                return pack(data, columns, bits, new Consumer() {
+                    
+                    /** The position in the file from which the buffer is filled next */
+                    private long position = getHeaderSize(bits.length);
+                    
+                    @Override
+                    boolean put(long value) throws IOException {
+                        if (!buffer.hasRemaining()) {
+                            buffer.clear();
+                            buffer.limit((int) Math.min(buffer.capacity(), channel.size() - position));
+                            read(channel, buffer, position);
+                            position += buffer.limit();
+                        }
+                        return buffer.getLong() == value;
+                    }
+                });
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Maps the columns in the given file.
+     *
+     * @param file
+     * @param offset
+     * @param rows
+     * @param bits
+     * @param order
+     * @return
+     * @throws IOException
+     */
+    private static LongBuffer[] map(final File file, long offset, final int rows, final int[] bits, final ByteOrder order) throws IOException {
+        LongBuffer[] buffers = new LongBuffer[bits.length];
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            for (int column = 0; column < bits.length; column++) {
+                long length = getSize(rows, bits[column]) * 8L;
+                if (offset + length > channel.size()) {
+                    throw new IOException("Invalid file format");
+                }
+                buffers[column] = channel.map(MapMode.READ_ONLY, offset, length).order(order).asLongBuffer();
+                offset += length;
+            }
+        } finally {
+            // Mappings remain valid after the channel has been closed
+            input.close();
+        }
+        return buffers;
+    }
+
+    /**
+     * Packs the given column.
+     *
+     * @param data
+     * @param column
+     * @param width
+     * @return
+     */
+    private static long[] pack(final int[][] data, final int column, final int width) {
+        final long[] packed = new long[getSize(data.length, width)];
+        for (int row = 0; row < data.length; row++) {
+            final long offset = (long) row * width;
+            final int index = (int) (offset >>> 6);
+            final int shift = (int) (offset & 63L);
+            final long value = data[row][column];
+            packed[index] |= value << shift;
+            if (shift + width > 64) {
+                packed[index + 1] |= value >>> (64 - shift);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Packs the given columns and passes the packed longs to the given consumer, column by column.
+     *
+     * @param data
+     * @param columns
+     * @param bits
+     * @param consumer
+     * @return Whether all longs have been passed to the consumer
+     * @throws IOException
+     */
+    private static boolean pack(final int[][] data, final int[] columns, final int[] bits, final Consumer consumer) throws IOException {
+        for (int column = 0; column < columns.length; column++) {
+            final int source = columns[column];
+            final int width = bits[column];
+            long current = 0L;
+            int used = 0;
+            for (int row = 0; row < data.length; row++) {
+                final long value = data[row][source];
+                current |= value << used;
+                used += width;
+                if (used >= 64) {
+                    if (!consumer.put(current)) {
+                        return false;
+                    }
+                    used -= 64;
+                    current = used == 0 ? 0L : value >>> (width - used);
+                }
+            }
+            if (used > 0 && !consumer.put(current)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the buffer completely.
+     *
+     * @param channel
+     * @param buffer
+     * @param position
+     * @throws IOException
+     */
+    private static void read(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Invalid file format");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Reads the header of a file. The returned buffer is positioned after the magic number.
+     *
+     * @param channel
+     * @return
+     * @throws IOException
+     */
+    private static ByteBuffer readHeader(final FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.nativeOrder());
+        read(channel, header, 0);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Invalid file format");
+        }
+        int dimensions = header.getInt(8);
+        if (dimensions < 0 || getHeaderSize(dimensions) > channel.size()) {
+            throw new IOException("Invalid file format");
+        }
+        ByteBuffer result = ByteBuffer.allocate(getHeaderSize(dimensions)).order(ByteOrder.nativeOrder());
+        read(channel, result, 0);
+        result.getInt();
+        return result;
+    }
+
+    /**
+     * Writes the given columns to the given file. Values are packed while they are written,
+     * so that no packed column is held in memory.
+     *
+     * @param file
+     * @param data
+     * @param columns
+     * @param bits
+     * @throws IOException
+     */
+    private static void write(final File file, final int[][] data, final int[] columns, final int[] bits) throws IOException {
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.setLength(0);
+            final FileChannel channel = output.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(getHeaderSize(columns.length)).order(ByteOrder.nativeOrder());
+            header.putInt(MAGIC).putInt(data.length).putInt(columns.length);
+            for (int column = 0; column < columns.length; column++) {
+                header.putInt(bits[column]);
+            }
+            header.rewind();
+            write(channel, header);
+            final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.nativeOrder());
+            pack(data, columns, bits, new Consumer() {
+                @Override
+                boolean put(long value) throws IOException {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        write(channel, buffer);
+                        buffer.clear();
+                    }
+                    buffer.putLong(value);
+                    return true;
+                }
+            });
+            buffer.flip();
+            write(channel, buffer);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Writes the buffer completely.
+     *
+     * @param channel
+     * @param buffer
+     * @throws IOException
+     */
+    private static void write(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the value in the given cell.
+     *
+     * @param row
+     * @param column
+     * @return
+     */
+    public int get(final int row, final int column) {
+        return decode(order == null ? row : order[row], column);
+    }
+
+    /**
+     * Returns the value at the given position of the given column, ignoring the permutation of rows.
+     *
+     * @param position
+     * @param column
+     * @return
+     */
+    private int decode(final int position, final int column) {
+        final int width = bits[column];
+        final long offset = (long) position * width;
+        final int index = (int) (offset >>> 6);
+        final int shift = (int) (offset & 63L);
+        long value;
+        if (columns != null) {
+            final long[] packed = columns[column];
+            value = packed[index] >>> shift;
+            if (shift + width > 64) {
+                value |= packed[index + 1] << (64 - shift);
+            }
+        } else {
+            final LongBuffer packed = buffers[column];
+            value = packed.get(index) >>> shift;
+            if (shift + width > 64) {
+                value |= packed.get(index + 1) << (64 - shift);
+            }
+        }
+        return (int) (value & masks[column]);
+    }
+
+    /**
+     * Returns the number of bits used for the values of the given column.
+     *
+     * @param column
+     * @return
+     */
+    public int getBits(final int column) {
+        return bits[column];
+    }
+
+    /**
+     * Returns the number of bytes occupied by the packed values.
+     *
+     * @return
+     */
+    public long getByteSize() {
+        long size = 0;
+        for (int column = 0; column < bits.length; column++) {
+            size += getSize(rows, bits[column]) * 8L;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return
+     */
+    public int getNumColumns() {
+        return bits.length;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * Decodes the given row into the given buffer.
+     *
+     * @param row
+     * @param buffer
+     * @return The buffer
+     */
+    public int[] getRow(final int row, final int[] buffer) {
+        final int index = order == null ? row : order[row];
+        for (int column = 0; column < bits.length; column++) {
+            buffer[column] = decode(index, column);
+        }
+        return buffer;
+    }
+
+    /**
+     * Decodes the given columns of the given row into the given buffer. Other elements of
+     * the buffer are not modified.
+     *
+     * @param row
+     * @param buffer
+     * @param columns Indices of the columns to decode
+     * @param length Number of columns to decode
+     * @return The buffer
+     */
+    public int[] getRow(final int row, final int[] buffer, final int[] columns, final int length) {
+        final int index = order == null ? row : order[row];
+        for (int i = 0; i < length; i++) {
+            final int column = columns[i];
+            buffer[column] = decode(index, column);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns whether the data is mapped into memory from a file.
+     *
+     * @return
+     */
+    public boolean isMapped() {
+        return buffers != null;
+    }
+
+    /**
+     * Swaps the given rows. Must not be called concurrently with other methods.
+     *
+     * @param row1
+     * @param row2
+     */
+    public void swap(final int row1, final int row2) {
+        if (order == null) {
+            order = getIdentity(rows);
+        }
+        final int temp = order[row1];
+        order[row1] = order[row2];
+        order[row2] = temp;
+    }
+}
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.data;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,6 +42,7 @@ import org.deidentifier.arx.metric.v2.DomainShare;
 import org.deidentifier.arx.metric.v2.DomainShareInterval;
 import org.deidentifier.arx.metric.v2.DomainShareMaterialized;
 import org.deidentifier.arx.metric.v2.DomainShareRedaction;
+import org.deidentifier.arx.metric.v2.DomainShareTable;
 
 import cern.colt.Sorting;
 import cern.colt.function.IntComparator;
@@ -151,6 +154,29 @@ public class DataManager {
                        final DataDefinition definition,
                        final Set<PrivacyCriterion> criteria,
                        final Map<String, DistributionAggregateFunction> functions) {
+        this(header, data, dictionary, definition, criteria, functions, false, null);
+    }
+
+    /**
+     * Creates a new data manager from pre-encoded data.
+     * 
+     * @param header
+     * @param data
+     * @param dictionary
+     * @param definition
+     * @param criteria
+     * @param function
+     * @param columnar Whether the data which is generalized is stored column by column instead of row by row
+     * @param file The file into which the columns are mapped, null if they are kept on the heap
+     */
+    public DataManager(final String[] header,
+                       final int[][] data,
+                       final Dictionary dictionary,
+                       final DataDefinition definition,
+                       final Set<PrivacyCriterion> criteria,
+                       final Map<String, DistributionAggregateFunction> functions,
+                       final boolean columnar,
+                       final File file) {
 
         // Store columns for reordering the output
         this.header = header;
@@ -244,7 +270,9 @@ public class DataManager {
                                     dictionaryStatic,
                                     headerGH,
                                     headerDI,
-                                    headerIS);
+                                    headerIS,
+                                    columnar,
+                                    file);
         dataGeneralized = ddata[0];
         dataAnalyzed = ddata[1];
         dataStatic = ddata[2];
@@ -572,6 +600,13 @@ public class DataManager {
                                                             dataGeneralized.getDictionary().getMapping()[i],
                                                             hierarchiesGeneralized[i].getArray());
                 }
+                
+                // Materialize into a flat table, if the domain is not too large
+                int values = dataGeneralized.getDictionary().getMapping()[i].length;
+                int levels = hierarchiesGeneralized[i].getArray().length == 0 ? 0 : hierarchiesGeneralized[i].getHeight();
+                if (DomainShareTable.isSupported(values, levels)) {
+                    this.shares[i] = new DomainShareTable(this.shares[i], values, levels);
+                }
             }
         }
         
@@ -897,6 +932,8 @@ public class DataManager {
      * @param headerGeneralized
      * @param headerAnalyzed
      * @param headerStatic
+     * @param columnar
+     * @param file
      * @return
      */
     private Data[] encode(final int[][] data,
@@ -909,10 +946,15 @@ public class DataManager {
                           final Dictionary dictionaryStatic,
                           final String[] headerGeneralized,
                           final String[] headerAnalyzed,
-                          final String[] headerStatic) {
+                          final String[] headerStatic,
+                          final boolean columnar,
+                          final File file) {
+
+        // The data which is generalized is copied column by column from the input, if requested
+        final boolean rows = !columnar || headerGeneralized.length == 0;
 
         // Parse the dataset
-        final int[][] valsGH = headerGeneralized.length == 0 ? null : new int[data.length][];
+        final int[][] valsGH = !rows || headerGeneralized.length == 0 ? null : new int[data.length][];
         final int[][] valsDI = headerAnalyzed.length == 0 ? null : new int[data.length][];
         final int[][] valsIS = headerStatic.length == 0 ? null : new int[data.length][];
 
@@ -920,7 +962,7 @@ public class DataManager {
         for (final int[] tuple : data) {
 
             // Process a tuple
-            final int[] tupleGH = headerGeneralized.length == 0 ? null : new int[headerGeneralized.length];
+            final int[] tupleGH = !rows || headerGeneralized.length == 0 ? null : new int[headerGeneralized.length];
             final int[] tupleDI = headerAnalyzed.length == 0 ? null : new int[headerAnalyzed.length];
             final int[] tupleIS = headerStatic.length == 0 ? null : new int[headerStatic.length];
 
@@ -930,7 +972,7 @@ public class DataManager {
                 final int iPos = map[idx + 1];
                 switch (aType) {
                 case AttributeTypeInternal.QUASI_IDENTIFYING_GENERALIZED:
-                    tupleGH[iPos] = tuple[i];
+                    if (rows) tupleGH[iPos] = tuple[i];
                     break;
                 case AttributeTypeInternal.IDENTIFYING:
                     // Ignore
@@ -953,15 +995,39 @@ public class DataManager {
         }
 
         // Build data object
-        final Data[] result = { new Data(valsGH,
-                                         headerGeneralized,
-                                         mapGeneralized,
-                                         dictionaryGeneralized),
+        final Data[] result = { rows ? new Data(valsGH,
+                                                headerGeneralized,
+                                                mapGeneralized,
+                                                dictionaryGeneralized)
+                                     : new Data(getColumns(data, mapGeneralized, file),
+                                                headerGeneralized,
+                                                mapGeneralized,
+                                                dictionaryGeneralized),
                 new Data(valsDI, headerAnalyzed, mapAnalyzed, dictionaryAnalyzed),
                 new Data(valsIS, headerStatic, mapStatic, dictionaryStatic) };
         return result;
     }
 
+    /**
+     * Copies the given columns of the input into a bit-packed, columnar representation,
+     * which is stored in the given file, if any.
+     * 
+     * @param data
+     * @param columns
+     * @param file
+     * @return
+     */
+    private DataColumns getColumns(final int[][] data, final int[] columns, final File file) {
+        if (file == null) {
+            return new DataColumns(data, columns);
+        }
+        try {
+            return new DataColumns(data, columns, file);
+        } catch (IOException e) {
+            throw new RuntimeException("Error mapping data from file: " + file, e);
+        }
+    }
+
     /**
      * Returns the data definitions
      * @return
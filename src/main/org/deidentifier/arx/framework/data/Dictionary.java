@@ -48,6 +48,16 @@ public class Dictionary {
         }
     }
 
+    /**
+     * Instantiates a new, finalized dictionary from the given mapping.
+     *
+     * @param mapping the mapping dimension->integer->string
+     */
+    public Dictionary(final String[][] mapping) {
+        this.maps = null;
+        this.mapping = mapping;
+    }
+
     /**
      * Definalizes the dictionary
      */
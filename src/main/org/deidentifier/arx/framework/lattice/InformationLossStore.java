@@ -0,0 +1,146 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.v2.ILCodec;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
+/**
+ * Stores information loss for transformations. Instances of the same type are stored as primitive
+ * values in a flat array, which is indexed by a map from the transformation's identifier to a slot.
+ * All other instances are stored as objects. Instances returned by this class are copies.
+ * 
+ * @author Fabian Prasser
+ */
+public class InformationLossStore {
+
+    /** Initial number of slots */
+    private static final int                  INITIAL_CAPACITY = 64;
+
+    /** The codec, if any */
+    private ILCodec                           codec;
+
+    /** Whether a codec has been determined */
+    private boolean                           codecInitialized;
+
+    /** Unused slots */
+    private int[]                             free             = new int[0];
+
+    /** Number of unused slots */
+    private int                               freeSize;
+
+    /** Objects that cannot be encoded */
+    private LongObjectOpenHashMap<InformationLoss<?>> objects = new LongObjectOpenHashMap<InformationLoss<?>>();
+
+    /** Number of used slots */
+    private int                               size;
+
+    /** Maps identifiers to slots */
+    private LongIntOpenHashMap                slots            = new LongIntOpenHashMap();
+
+    /** Encoded values */
+    private double[]                          values;
+
+    /**
+     * Returns the information loss stored for the given identifier, null if there is none.
+     * 
+     * @param identifier
+     * @return
+     */
+    public InformationLoss<?> get(long identifier) {
+        if (slots.containsKey(identifier)) {
+            return codec.decode(values, slots.lget() * codec.getLength());
+        }
+        return objects.getOrDefault(identifier, null);
+    }
+
+    /**
+     * Stores the information loss for the given identifier. Passing null removes any existing value.
+     * 
+     * @param identifier
+     * @param loss
+     */
+    public void put(long identifier, InformationLoss<?> loss) {
+        
+        // Initialize codec
+        if (!codecInitialized && loss != null) {
+            codec = ILCodec.create(loss);
+            codecInitialized = true;
+            if (codec != null) {
+                values = new double[INITIAL_CAPACITY * codec.getLength()];
+            }
+        }
+        
+        // Store encoded
+        if (codec != null && codec.isSupported(loss)) {
+            objects.remove(identifier);
+            int slot;
+            if (slots.containsKey(identifier)) {
+                slot = slots.lget();
+            } else {
+                slot = allocate();
+                slots.put(identifier, slot);
+            }
+            codec.encode(loss, values, slot * codec.getLength());
+            
+        // Store as object
+        } else {
+            if (slots.containsKey(identifier)) {
+                release(slots.remove(identifier));
+            }
+            if (loss == null) {
+                objects.remove(identifier);
+            } else {
+                objects.put(identifier, loss);
+            }
+        }
+    }
+
+    /**
+     * Returns a slot for a new value.
+     * 
+     * @return
+     */
+    private int allocate() {
+        if (freeSize > 0) {
+            return free[--freeSize];
+        }
+        int slot = size++;
+        if (size * codec.getLength() > values.length) {
+            values = Arrays.copyOf(values, values.length << 1);
+        }
+        return slot;
+    }
+
+    /**
+     * Marks the given slot as unused.
+     * 
+     * @param slot
+     */
+    private void release(int slot) {
+        if (freeSize == free.length) {
+            free = Arrays.copyOf(free, Math.max(INITIAL_CAPACITY, free.length << 1));
+        }
+        free[freeSize++] = slot;
+    }
+}
@@ -24,6 +24,8 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.metric.InformationLoss;
 
+import cern.colt.list.LongArrayList;
+
 import com.carrotsearch.hppc.LongObjectOpenHashMap;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
@@ -42,7 +44,9 @@ public class SolutionSpace {
     /** The backing JHPL lattice */
     private final Lattice<Integer, Integer>           lattice;
     /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> lowerBound                  = new LongObjectOpenHashMap<InformationLoss<?>>();
+    private final InformationLossStore                lowerBound                  = new InformationLossStore();
+    /** Lower bounds propagated from predecessors */
+    private final InformationLossStore                lowerBoundPropagated        = new InformationLossStore();
     /** The offsets for indices */
     private final int[]                               offsetIndices;
     /** The offset the level */
@@ -82,7 +86,7 @@ public class SolutionSpace {
                                                                                                            Direction.NONE);
 
     /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> utility                     = new LongObjectOpenHashMap<InformationLoss<?>>();
+    private final InformationLossStore                utility                     = new InformationLossStore();
 
     /**
      * For de-serialization
@@ -315,7 +319,34 @@ public class SolutionSpace {
      * @return
      */
     public InformationLoss<?> getUtility(long identifier) {
-        return utility.getOrDefault(identifier, null);
+        return utility.get(identifier);
+    }
+    
+    /**
+     * Propagates the lower bound of the given transformation to its direct successors. Each successor
+     * retains the greatest lower bound propagated from any of its predecessors. Bounds which the given
+     * transformation received from its own predecessors are propagated as well, if they are greater
+     * than its own. This relies on the lower bound being monotonic, which must be ensured by the caller.
+     * @param transformation
+     */
+    public void propagateLowerBound(Transformation transformation) {
+        
+        // Determine bound
+        long identifier = transformation.getIdentifier();
+        InformationLoss<?> bound = max(lowerBound.get(identifier), lowerBoundPropagated.get(identifier));
+        if (bound == null) {
+            return;
+        }
+        
+        // Propagate
+        LongArrayList successors = transformation.getSuccessors();
+        for (int i = 0; i < successors.size(); i++) {
+            long successor = successors.getQuick(i);
+            InformationLoss<?> current = lowerBoundPropagated.get(successor);
+            if (current == null || current.compareTo(bound) < 0) {
+                lowerBoundPropagated.put(successor, bound);
+            }
+        }
     }
     
     /**
@@ -394,6 +425,18 @@ public class SolutionSpace {
         return lattice.unsafe().listAllNodesAsIdentifiers(toJHPL(level));
     }
 
+    /**
+     * Returns the max of both, handles null values
+     * @param first
+     * @param second
+     * @return
+     */
+    private InformationLoss<?> max(InformationLoss<?> first, InformationLoss<?> second) {
+        return (first == null) ? second :
+               (second == null) ? first :
+               (first.compareTo(second) < 0) ? second : first;    
+    }
+
     /**
      * Reverses the given array
      * @param input
@@ -453,7 +496,7 @@ public class SolutionSpace {
      * @return
      */
     protected InformationLoss<?> getInformationLoss(long identifier) {
-        return utility.getOrDefault(identifier, null);
+        return utility.get(identifier);
     }
     
     /**
@@ -462,7 +505,16 @@ public class SolutionSpace {
      * @return
      */
     protected InformationLoss<?> getLowerBound(long identifier) {
-        return lowerBound.getOrDefault(identifier, null);
+        return lowerBound.get(identifier);
+    }
+    
+    /**
+     * Returns the greatest lower bound that has been propagated from predecessors
+     * @param identifier
+     * @return
+     */
+    protected InformationLoss<?> getLowerBoundFromPredecessors(long identifier) {
+        return lowerBoundPropagated.get(identifier);
     }
 
     /**
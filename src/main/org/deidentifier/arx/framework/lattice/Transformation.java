@@ -141,6 +141,15 @@ public class Transformation {
     public InformationLoss<?> getLowerBound() {
         return solutionSpace.getLowerBound(this.identifier);
     }
+    
+    /**
+     * Returns the greatest lower bound on information loss that has been propagated
+     * from predecessors, if any
+     * @return
+     */
+    public InformationLoss<?> getLowerBoundFromPredecessors() {
+        return solutionSpace.getLowerBoundFromPredecessors(this.identifier);
+    }
 
     /**
      * Returns all predeccessors of the transformation with the given identifier
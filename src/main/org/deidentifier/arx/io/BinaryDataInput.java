@@ -0,0 +1,195 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.deidentifier.arx.framework.data.DataColumns;
+
+/**
+ * Provides access to data which has been written with {@link BinaryDataOutput}. The
+ * dictionaries are read into memory, while the codes are memory-mapped from the file.
+ * Data objects can be created from instances of this class with Data.create(IEncodedData).
+ * 
+ * @author Fabian Prasser
+ */
+public class BinaryDataInput implements IEncodedData, Iterable<String[]> {
+
+    /** The packed codes. */
+    private final DataColumns columns;
+
+    /** The dictionaries. */
+    private final String[][]  dictionaries;
+
+    /** The header. */
+    private final String[]    header;
+
+    /**
+     * Instantiate.
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public BinaryDataInput(final File file) throws IOException {
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        int offset;
+        int rows;
+        int[] bits;
+        try {
+            
+            // Header
+            if (input.readInt() != BinaryDataOutput.MAGIC || input.readInt() != BinaryDataOutput.VERSION) {
+                throw new IOException("Invalid file format");
+            }
+            offset = input.readInt();
+            rows = input.readInt();
+            int dimensions = input.readInt();
+            if (offset < 0 || rows < 0 || dimensions < 0) {
+                throw new IOException("Invalid file format");
+            }
+            this.header = new String[dimensions];
+            for (int column = 0; column < dimensions; column++) {
+                this.header[column] = readString(input);
+            }
+            
+            // Dictionaries
+            this.dictionaries = new String[dimensions][];
+            bits = new int[dimensions];
+            for (int column = 0; column < dimensions; column++) {
+                this.dictionaries[column] = new String[input.readInt()];
+                bits[column] = input.readInt();
+                for (int code = 0; code < dictionaries[column].length; code++) {
+                    this.dictionaries[column][code] = readString(input);
+                }
+            }
+        } finally {
+            input.close();
+        }
+        
+        // Map codes
+        this.columns = new DataColumns(file, offset, rows, bits, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Instantiate.
+     *
+     * @param filename the filename
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public BinaryDataInput(final String filename) throws IOException {
+        this(new File(filename));
+    }
+
+    @Override
+    public String[] getDictionary(int column) {
+        return dictionaries[column];
+    }
+
+    @Override
+    public int getEncodedValue(int row, int column) {
+        return columns.get(row, column);
+    }
+
+    @Override
+    public String[] getHeader() {
+        return header;
+    }
+
+    @Override
+    public int getNumRows() {
+        return columns.getNumRows();
+    }
+
+    /**
+     * Returns the value in the given cell.
+     *
+     * @param row the row
+     * @param column the column
+     * @return the value
+     */
+    public String getValue(int row, int column) {
+        return dictionaries[column][columns.get(row, column)];
+    }
+
+    /**
+     * Returns an iterator over all rows, starting with the header.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<String[]> iterator() {
+        return new Iterator<String[]>() {
+
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < columns.getNumRows();
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String[] result;
+                if (row == -1) {
+                    result = header.clone();
+                } else {
+                    result = new String[header.length];
+                    for (int column = 0; column < result.length; column++) {
+                        result[column] = getValue(row, column);
+                    }
+                }
+                row++;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param input the input
+     * @return the string
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private String readString(final DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid file format");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides methods for writing encoded data in a binary columnar format, which can be read with
+ * {@link BinaryDataInput}. The file consists of a header, which contains the attribute names and
+ * one dictionary per column, followed by the codes of each column, which are bit-packed into longs.
+ * Dictionaries only contain distinct values which occur in the data. All numbers are stored in
+ * big-endian byte order.<br>
+ * <br>
+ * Layout: magic number (int), version (int), offset of the columns (int), number of rows (int),
+ * number of columns (int), attribute names (strings), for each column: size of the dictionary (int),
+ * number of bits per code (int), values (strings). Strings are stored as their length in bytes (int),
+ * followed by their UTF-8 encoding. The columns start at an offset which is a multiple of 8, and each
+ * column occupies ceil(rows * bits / 64) longs. Code i of a column is stored in bits (i * bits) to
+ * ((i + 1) * bits - 1) of the column, where bit j is bit (j mod 64) of long (j / 64).
+ * 
+ * @author Fabian Prasser
+ */
+public class BinaryDataOutput {
+
+    /** Magic number identifying files */
+    static final int           MAGIC            = 0x41525842;
+
+    /** Version of the file format */
+    static final int           VERSION          = 1;
+
+    /** Number of bytes written at once */
+    private static final int   BUFFER_SIZE      = 1 << 16;
+
+    /** The stream. */
+    private final OutputStream stream;
+
+    /** Should the stream be closed. */
+    private final boolean      close;
+
+    /**
+     * Instantiate.
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public BinaryDataOutput(final File file) throws IOException {
+        this(new FileOutputStream(file), true);
+    }
+
+    /**
+     * Instantiate.
+     *
+     * @param stream the stream
+     */
+    public BinaryDataOutput(final OutputStream stream) {
+        this(stream, false);
+    }
+
+    /**
+     * Instantiate.
+     *
+     * @param filename the filename
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public BinaryDataOutput(final String filename) throws IOException {
+        this(new File(filename));
+    }
+
+    /**
+     * Instantiate.
+     *
+     * @param stream the stream
+     * @param close should the stream be closed
+     */
+    private BinaryDataOutput(final OutputStream stream, final boolean close) {
+        this.stream = stream;
+        this.close = close;
+    }
+
+    /**
+     * Writes encoded data. The data is read twice: once for compacting the dictionaries and
+     * once for writing the codes.
+     *
+     * @param data the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void write(final IEncodedData data) throws IOException {
+
+        try {
+            
+            // Prepare
+            final String[] header = data.getHeader();
+            final int rows = data.getNumRows();
+            final int[][] codes = new int[header.length][];
+            final String[][] dictionaries = new String[header.length][];
+            final int[] bits = new int[header.length];
+            for (int column = 0; column < header.length; column++) {
+                codes[column] = new int[data.getDictionary(column).length];
+                Arrays.fill(codes[column], -1);
+            }
+            
+            // Mark values which occur in the data
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < header.length; column++) {
+                    codes[column][data.getEncodedValue(row, column)] = 0;
+                }
+            }
+            
+            // Compact dictionaries
+            for (int column = 0; column < header.length; column++) {
+                String[] dictionary = data.getDictionary(column);
+                Map<String, Integer> map = new HashMap<String, Integer>();
+                List<String> values = new ArrayList<String>();
+                for (int code = 0; code < dictionary.length; code++) {
+                    if (codes[column][code] != -1) {
+                        Integer compacted = map.get(dictionary[code]);
+                        if (compacted == null) {
+                            compacted = values.size();
+                            map.put(dictionary[code], compacted);
+                            values.add(dictionary[code]);
+                        }
+                        codes[column][code] = compacted;
+                    }
+                }
+                dictionaries[column] = values.toArray(new String[values.size()]);
+                bits[column] = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, dictionaries[column].length - 1)));
+            }
+            
+            // Write header
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(rows);
+            output.writeInt(header.length);
+            for (String attribute : header) {
+                writeString(output, attribute);
+            }
+            for (int column = 0; column < header.length; column++) {
+                output.writeInt(dictionaries[column].length);
+                output.writeInt(bits[column]);
+                for (String value : dictionaries[column]) {
+                    writeString(output, value);
+                }
+            }
+            output.flush();
+            int offset = (12 + bytes.size() + 7) & ~7;
+            output = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(offset);
+            bytes.writeTo(output);
+            output.write(new byte[offset - 12 - bytes.size()]);
+            
+            // Write columns
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            for (int column = 0; column < header.length; column++) {
+                final int width = bits[column];
+                final int[] map = codes[column];
+                long current = 0L;
+                int used = 0;
+                for (int row = 0; row < rows; row++) {
+                    long value = map[data.getEncodedValue(row, column)];
+                    current |= value << used;
+                    used += width;
+                    if (used >= 64) {
+                        write(output, buffer, current);
+                        used -= 64;
+                        current = used == 0 ? 0L : value >>> (width - used);
+                    }
+                }
+                if (used > 0) {
+                    write(output, buffer, current);
+                }
+            }
+            output.write(buffer.array(), 0, buffer.position());
+            output.flush();
+            
+        } finally {
+            if (close) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a long, flushing the buffer if it is full.
+     *
+     * @param output the output
+     * @param buffer the buffer
+     * @param value the value
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void write(final OutputStream output, final ByteBuffer buffer, final long value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            output.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes a string.
+     *
+     * @param output the output
+     * @param string the string
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void writeString(final DataOutputStream output, final String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -18,8 +18,10 @@
 package org.deidentifier.arx.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -123,15 +125,38 @@ public class CSVDataChecksum {
         }
         csvwriter.close();
 
-        // Obtain digest
-        byte[] digest = md.digest();
+        // Obtain digest and convert to hex
+        return toHex(md.digest());
+    }
 
-        // And convert to hex
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < digest.length; i++) {
-            builder.append(Integer.toString((digest[i] & 0xff) + 0x100, 16).substring(1));
+    /**
+     * Returns a hex-encoded SHA-256 checksum for the given raw CSV input. In contrast to
+     * {@link #getSHA256Checksum(Iterator)}, the data is not parsed. The syntax is included
+     * in the checksum, as the same bytes represent different data when parsed differently.
+     * The stream is not closed.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    public String getSHA256Checksum(final InputStream stream) throws IOException, NoSuchAlgorithmException {
+
+        // Initialize message digest
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        CsvFormat format = settings.getFormat();
+        md.update(String.valueOf(new char[] { format.getDelimiter(), format.getQuote(), format.getQuoteEscape() }).getBytes(StandardCharsets.UTF_8));
+        md.update(String.valueOf(format.getLineSeparator()).getBytes(StandardCharsets.UTF_8));
+
+        // Digest
+        byte[] buffer = new byte[1 << 16];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
         }
-        return builder.toString();
+
+        // Obtain digest and convert to hex
+        return toHex(md.digest());
     }
     
     /**
@@ -157,4 +182,18 @@ public class CSVDataChecksum {
         settings.setFormat(format);
         return settings;
     }
+
+    /**
+     * Converts the digest to hex.
+     *
+     * @param digest
+     * @return
+     */
+    private String toHex(final byte[] digest) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < digest.length; i++) {
+            builder.append(Integer.toString((digest[i] & 0xff) + 0x100, 16).substring(1));
+        }
+        return builder.toString();
+    }
 }
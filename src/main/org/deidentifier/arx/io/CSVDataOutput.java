@@ -22,8 +22,13 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.univocity.parsers.csv.CsvFormat;
 import com.univocity.parsers.csv.CsvWriter;
@@ -37,15 +42,30 @@ import com.univocity.parsers.csv.CsvWriterSettings;
  */
 public class CSVDataOutput {
 
+    /** The default number of rows per block. */
+    public static final int         DEFAULT_BLOCK_SIZE = 4096;
+
     /** A writer. */
     private final Writer            writer;
 
     /** Settings. */
     private final CsvWriterSettings settings;
 
+    /** The delimiter. */
+    private final char              delimiter;
+
+    /** The linebreak. */
+    private final char[]            linebreak;
+
     /** Should the writer be closed. */
     private boolean           close;
 
+    /** The number of rows formatted per block, when writing encoded data. */
+    private int                     blockSize          = DEFAULT_BLOCK_SIZE;
+
+    /** The number of threads used for formatting blocks, when writing encoded data. */
+    private int                     numberOfThreads    = 1;
+
     /**
      * Instantiate.
      *
@@ -273,10 +293,143 @@ public class CSVDataOutput {
      */
     public CSVDataOutput(final Writer writer, final char delimiter, final char quote, final char escape, final char[] linebreak) throws IOException {
         this.writer = writer;
+        this.delimiter = delimiter;
+        this.linebreak = linebreak;
         close = true;
         settings = createSettings(delimiter, quote, escape, linebreak);
     }
 
+    /**
+     * Returns the number of rows formatted per block, when writing encoded data.
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the number of threads used for formatting blocks, when writing encoded data.
+     *
+     * @return the number of threads
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of rows formatted per block, when writing encoded data. At most
+     * blockSize * numberOfThreads rows are buffered in memory.
+     *
+     * @param blockSize the block size
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be > 0");
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Sets the number of threads used for formatting blocks, when writing encoded data.
+     *
+     * @param numberOfThreads the number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Writes encoded data. Each value of the dictionaries is formatted only once and the rows
+     * are written in blocks, without materializing individual rows. The result equals the
+     * result of writing an iterator over the same rows, with the header being the first row.
+     *
+     * @param data the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void write(final IEncodedData data) throws IOException {
+
+        // Format header and dictionaries
+        final String[] header = data.getHeader();
+        final String[][] dictionaries = new String[header.length][];
+        StringWriter buffer = new StringWriter();
+        CsvWriter csvwriter = new CsvWriter(buffer, settings);
+        for (int column = 0; column < header.length; column++) {
+            dictionaries[column] = format(data.getDictionary(column), csvwriter, buffer);
+        }
+        StringBuilder builder = new StringBuilder();
+        append(builder, format(header, csvwriter, buffer));
+        writer.write(builder.toString());
+        
+        // Prepare
+        final int rows = data.getNumRows();
+        final StringBuilder[] builders = new StringBuilder[numberOfThreads];
+        builders[0] = builder;
+        char[] chars = new char[0];
+        ForkJoinPool pool = numberOfThreads == 1 ? null : new ForkJoinPool(numberOfThreads);
+
+        // Write blocks
+        try {
+            for (int offset = 0; offset < rows; offset += blockSize * numberOfThreads) {
+                
+                // Format
+                if (pool == null) {
+                    builder.setLength(0);
+                    format(data, dictionaries, offset, Math.min(offset + blockSize, rows), builder);
+                } else {
+                    final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+                    for (int i = 0; i < numberOfThreads && offset + i * blockSize < rows; i++) {
+                        if (builders[i] == null) {
+                            builders[i] = new StringBuilder();
+                        }
+                        final StringBuilder _builder = builders[i];
+                        final int start = offset + i * blockSize;
+                        final int end = Math.min(start + blockSize, rows);
+                        _builder.setLength(0);
+                        tasks.add(new RecursiveAction() {
+                            private static final long serialVersionUID = -6374180476574829213L;
+                            @Override
+                            protected void compute() {
+                                format(data, dictionaries, start, end, _builder);
+                            }
+                        });
+                    }
+                    pool.invoke(new RecursiveAction() {
+                        private static final long serialVersionUID = 2853219612906637291L;
+                        @Override
+                        protected void compute() {
+                            invokeAll(tasks);
+                        }
+                    });
+                }
+                
+                // Write
+                for (int i = 0; i < numberOfThreads && offset + i * blockSize < rows; i++) {
+                    StringBuilder block = builders[i];
+                    if (chars.length < block.length()) {
+                        chars = new char[block.length()];
+                    }
+                    block.getChars(0, block.length(), chars, 0);
+                    writer.write(chars, 0, block.length());
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        // Done
+        if (close) {
+            writer.close();
+        } else {
+            writer.flush();
+        }
+    }
+
     /**
      * Write the results.
      *
@@ -315,6 +468,62 @@ public class CSVDataOutput {
         }
     }
 
+    /**
+     * Appends a row of formatted values.
+     *
+     * @param builder the builder
+     * @param values the values
+     */
+    private void append(StringBuilder builder, String[] values) {
+        for (int column = 0; column < values.length; column++) {
+            if (column != 0) {
+                builder.append(delimiter);
+            }
+            builder.append(values[column]);
+        }
+        builder.append(linebreak);
+    }
+
+    /**
+     * Formats the given rows of encoded data.
+     *
+     * @param data the data
+     * @param dictionaries the formatted dictionaries
+     * @param start the first row
+     * @param end the last row, exclusive
+     * @param builder the builder
+     */
+    private void format(IEncodedData data, String[][] dictionaries, int start, int end, StringBuilder builder) {
+        for (int row = start; row < end; row++) {
+            for (int column = 0; column < dictionaries.length; column++) {
+                if (column != 0) {
+                    builder.append(delimiter);
+                }
+                builder.append(dictionaries[column][data.getEncodedValue(row, column)]);
+            }
+            builder.append(linebreak);
+        }
+    }
+
+    /**
+     * Formats each value as a cell of a CSV file.
+     *
+     * @param values the values
+     * @param csvwriter a writer for the buffer
+     * @param buffer the buffer
+     * @return the formatted values
+     */
+    private String[] format(String[] values, CsvWriter csvwriter, StringWriter buffer) {
+        String[] result = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            buffer.getBuffer().setLength(0);
+            csvwriter.writeRow(new Object[] { values[i] });
+            csvwriter.flush();
+            result[i] = buffer.getBuffer().substring(0, buffer.getBuffer().length() - linebreak.length);
+        }
+        return result;
+    }
+
     /**
      * Creates the settings.
      *
@@ -0,0 +1,60 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+/**
+ * Interface to be implemented by data which is encoded with one dictionary per column. Such
+ * data can be written without materializing individual rows. Implementations must support
+ * concurrent calls to getEncodedValue().
+ *
+ * @author Fabian Prasser
+ */
+public interface IEncodedData {
+
+    /**
+     * Returns the dictionary of the given column. It must contain all values that may be
+     * returned by getEncodedValue() for this column.
+     *
+     * @param column the column
+     * @return the dictionary
+     */
+    public String[] getDictionary(int column);
+
+    /**
+     * Returns the code of the value in the given cell.
+     *
+     * @param row the row
+     * @param column the column
+     * @return the index of the value in the dictionary of the column
+     */
+    public int getEncodedValue(int row, int column);
+
+    /**
+     * Returns the header.
+     *
+     * @return the header
+     */
+    public String[] getHeader();
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getNumRows();
+}
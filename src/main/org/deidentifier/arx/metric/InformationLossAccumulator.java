@@ -0,0 +1,57 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * Accumulates information loss while the equivalence classes of a transformation are analyzed
+ * regarding the privacy models. This allows to determine privacy, suppression and utility in one
+ * pass over the classes. Accumulators may be used outside of the lock which guards utility
+ * measures and must therefore only read state of the measure which does not change after
+ * initialization. An accumulator must only be used by one thread at a time.
+ *
+ * @author Fabian Prasser
+ * @param <T>
+ */
+public interface InformationLossAccumulator<T extends InformationLoss<?>> {
+
+    /**
+     * Adds a class. Must be called for all classes in the order in which they are
+     * stored, after it has been determined whether the class is suppressed.
+     *
+     * @param entry
+     */
+    public void add(HashGroupifyEntry entry);
+
+    /**
+     * Returns the information loss and lower bound of the classes added since the last
+     * call to <code>start()</code>.
+     *
+     * @return
+     */
+    public InformationLossWithBound<T> getInformationLoss();
+
+    /**
+     * Starts accumulating the information loss of the given transformation.
+     *
+     * @param transformation
+     */
+    public void start(Transformation transformation);
+}
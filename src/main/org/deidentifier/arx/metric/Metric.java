@@ -1210,6 +1210,16 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         this.gFactor = gsFactor <= 0.5d ? 1d            : 1d - 2d * (gsFactor - 0.5d);
     }
 
+    /**
+     * Returns an accumulator which computes the information loss while the classes of a transformation
+     * are analyzed, or null, if this is not supported. Must only be called after initialization.
+     *
+     * @return
+     */
+    public InformationLossAccumulator<T> createAccumulator() {
+        return null;
+    }
+
     /**
      * Returns an instance of the highest possible score. Lower is better.
      * @return
@@ -1293,13 +1303,19 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
     }
     
     /**
-     * Evaluates the metric for the given node.
+     * Evaluates the metric for the given node. If the information loss has already been accumulated
+     * while analyzing the classes, the accumulated result is returned.
      *
      * @param node The node for which to compute the information loss
      * @param groupify The groupify operator of the previous check
      * @return the information loss
      */
+    @SuppressWarnings("unchecked")
     public final InformationLossWithBound<T> getInformationLoss(final Transformation node, final HashGroupify groupify) {
+        InformationLossAccumulator<?> accumulator = groupify != null ? groupify.getAccumulator(this, node) : null;
+        if (accumulator != null) {
+            return (InformationLossWithBound<T>) accumulator.getInformationLoss();
+        }
         return this.getInformationLossInternal(node, groupify);
     }
     
@@ -1401,6 +1417,16 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return false;
     }
 
+    /**
+     * Returns whether the pre-computed variant of this metric computes the same information loss
+     * and only differs in that it derives lower bounds without transforming the data.
+     *
+     * @return
+     */
+    public boolean isPrecomputationOfLowerBoundsSupported() {
+        return false;
+    }
+
     /**
      * Returns whether this metric requires the transformed data or groups to
      * determine information loss.
@@ -189,24 +189,25 @@ public class MetricEntropy extends MetricDefault {
         RowSet rSubset = super.getSubset(config);
 
         // Create reference to the hierarchies
-        final int[][] data = input.getArray();
-        hierarchies = new int[data[0].length][][];
+        final int dimensions = input.getHeader().length;
+        hierarchies = new int[dimensions][][];
         for (int i = 0; i < ahierarchies.length; i++) {
             hierarchies[i] = ahierarchies[i].getArray();
             // Column -> Id -> Level -> Output
         }
 
         // Initialize counts
-        cardinalities = new int[data[0].length][][];
+        cardinalities = new int[dimensions][][];
         for (int i = 0; i < cardinalities.length; i++) {
             cardinalities[i] = new int[dictionary.getMapping()[i].length][ahierarchies[i].getArray()[0].length];
             // Column -> Id -> Level -> Count
         }
 
-		for (int i = 0; i < data.length; i++) { 
+		final int[] buffer = new int[dimensions];
+		for (int i = 0; i < input.getDataLength(); i++) { 
 			// only use the rows contained in the research subset
 			if (rSubset == null || rSubset.contains(i)) {
-				final int[] row = data[i];
+				final int[] row = input.getRow(i, buffer);
 				for (int column = 0; column < row.length; column++) {
 					cardinalities[column][row[column]][0]++;
 				}
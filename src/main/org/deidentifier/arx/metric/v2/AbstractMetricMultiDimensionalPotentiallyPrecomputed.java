@@ -26,6 +26,7 @@ import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 import org.deidentifier.arx.metric.InformationLossWithBound;
 
 /**
@@ -88,6 +89,17 @@ public abstract class AbstractMetricMultiDimensionalPotentiallyPrecomputed exten
     
     
 
+    @Override
+    public InformationLossAccumulator<AbstractILMultiDimensional> createAccumulator() {
+        if (precomputed) {
+            return precomputedMetric.createAccumulator();
+        } else {
+            return defaultMetric.createAccumulator();
+        }
+    }
+
+
+
     @Override
     public InformationLoss<?> createMaxInformationLoss() {
         if (precomputed) {
@@ -48,19 +48,19 @@ public class Cardinalities implements Serializable {
      */
     public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies){
 
-        int[][] array = data.getArray();
         Dictionary dictionary = data.getDictionary();
         
         // Initialize counts
-        cardinalities = new int[array[0].length][][];
+        cardinalities = new int[data.getHeader().length][][];
         for (int i = 0; i < cardinalities.length; i++) {
             cardinalities[i] = new int[dictionary.getMapping()[i].length][hierarchies[i].getArray()[0].length];
         }
 
         // Compute counts
-        for (int i = 0; i < array.length; i++) { 
+        final int[] buffer = new int[cardinalities.length];
+        for (int i = 0; i < data.getDataLength(); i++) { 
             if (subset == null || subset.contains(i)) {
-                final int[] row = array[i];
+                final int[] row = data.getRow(i, buffer);
                 for (int column = 0; column < row.length; column++) {
                     cardinalities[column][row[column]][0]++;
                 }
@@ -0,0 +1,158 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric.v2;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * This class represents a set of domain shares for an attribute, which are stored in a flat table
+ * with one entry per combination of value and generalization level. The table is derived from
+ * another set of domain shares. It is not serialized but rebuilt after de-serialization.
+ * 
+ * @author Fabian Prasser
+ */
+public class DomainShareTable implements DomainShare {
+
+    /** SVUID. */
+    private static final long serialVersionUID = -1946335722150233307L;
+
+    /** The maximal number of entries in a table: 4M entries, i.e. 32 MB per attribute */
+    private static final long MAX_SIZE         = 1L << 22;
+
+    /**
+     * Returns whether shares for a domain with the given properties can be stored in a table.
+     *
+     * @param values
+     * @param levels
+     * @return
+     */
+    public static boolean isSupported(int values, int levels) {
+        return values > 0 && levels > 0 && (long) values * (long) levels <= MAX_SIZE;
+    }
+
+    /** The shares from which the table has been derived. */
+    private final DomainShare source;
+
+    /** Number of values. */
+    private final int         values;
+
+    /** Number of generalization levels. */
+    private final int         levels;
+
+    /** The size of the domain. */
+    private final double      size;
+
+    /** Shares, indexed by <code>value * levels + level</code>. */
+    private transient double[] table;
+
+    /**
+     * Creates a new table of domain shares derived from the given shares.
+     *
+     * @param source
+     * @param values
+     * @param levels
+     */
+    public DomainShareTable(DomainShare source, int values, int levels) {
+        if (!isSupported(values, levels)) {
+            throw new IllegalArgumentException("Domain too large to be represented in a table");
+        }
+        this.source = source;
+        this.values = values;
+        this.levels = levels;
+        this.size = source.getDomainSize();
+        this.table = createTable(source, values, levels);
+    }
+
+    /**
+     * Clone constructor
+     * @param source
+     * @param values
+     * @param levels
+     * @param table
+     */
+    private DomainShareTable(DomainShare source, int values, int levels, double[] table) {
+        this.source = source;
+        this.values = values;
+        this.levels = levels;
+        this.size = source.getDomainSize();
+        this.table = table;
+    }
+
+    @Override
+    public DomainShareTable clone() {
+        return new DomainShareTable(this.source.clone(), this.values, this.levels, this.table);
+    }
+
+    /**
+     * Returns the size of the domain.
+     *
+     * @return
+     */
+    @Override
+    public double getDomainSize() {
+        return size;
+    }
+
+    /**
+     * Returns the share of the given value.
+     *
+     * @param value
+     * @param level
+     * @return
+     */
+    @Override
+    public double getShare(int value, int level) {
+        return table[value * levels + level];
+    }
+
+    /**
+     * Materializes the given shares.
+     *
+     * @param source
+     * @param values
+     * @param levels
+     * @return
+     */
+    private double[] createTable(DomainShare source, int values, int levels) {
+        double[] table = new double[values * levels];
+        int index = 0;
+        for (int value = 0; value < values; value++) {
+            for (int level = 0; level < levels; level++) {
+                table[index++] = source.getShare(value, level);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * De-serialization.
+     *
+     * @param aInputStream
+     * @throws ClassNotFoundException
+     * @throws IOException
+     */
+    private void readObject(ObjectInputStream aInputStream) throws ClassNotFoundException, IOException {
+
+        // Default de-serialization
+        aInputStream.defaultReadObject();
+
+        // Rebuild table
+        table = createTable(source, values, levels);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric.v2;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Encodes information loss into arrays of primitive values and decodes it again. This allows
+ * storing large numbers of results without maintaining an object for each of them. A codec
+ * is derived from a prototype and only supports instances of the same class with the
+ * same number of dimensions and weights. Metadata is not encoded.
+ *
+ * @author Fabian Prasser
+ */
+public class ILCodec {
+
+    /**
+     * Creates a codec for the given prototype. Returns null, if the type of
+     * information loss is not supported.
+     *
+     * @param prototype
+     * @return
+     */
+    public static ILCodec create(InformationLoss<?> prototype) {
+        if (prototype != null && prototype.getClass() == ILSingleDimensional.class) {
+            return new ILCodec(prototype, 1);
+        } else if (prototype instanceof AbstractILMultiDimensional) {
+            return new ILCodec(prototype, ((AbstractILMultiDimensional) prototype).getValues().length);
+        } else {
+            return null;
+        }
+    }
+
+    /** The prototype */
+    private final InformationLoss<?> prototype;
+
+    /** The number of values per instance */
+    private final int                length;
+
+    /**
+     * Creates a new instance
+     * @param prototype
+     * @param length
+     */
+    private ILCodec(InformationLoss<?> prototype, int length) {
+        this.prototype = prototype;
+        this.length = length;
+    }
+
+    /**
+     * Decodes the information loss stored at the given offset.
+     *
+     * @param array
+     * @param offset
+     * @return
+     */
+    public InformationLoss<?> decode(double[] array, int offset) {
+        if (length == 1 && prototype instanceof ILSingleDimensional) {
+            return new ILSingleDimensional(array[offset]);
+        } else {
+            AbstractILMultiDimensional result = (AbstractILMultiDimensional) prototype.clone();
+            result.setValues(Arrays.copyOfRange(array, offset, offset + length));
+            return result;
+        }
+    }
+
+    /**
+     * Encodes the information loss at the given offset.
+     *
+     * @param loss
+     * @param array
+     * @param offset
+     */
+    public void encode(InformationLoss<?> loss, double[] array, int offset) {
+        if (loss instanceof ILSingleDimensional) {
+            array[offset] = ((ILSingleDimensional) loss).getValue();
+        } else {
+            System.arraycopy(((AbstractILMultiDimensional) loss).getValues(), 0, array, offset, length);
+        }
+    }
+
+    /**
+     * Returns the number of values per instance.
+     *
+     * @return
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns whether the given information loss can be encoded without losing information.
+     *
+     * @param loss
+     * @return
+     */
+    public boolean isSupported(InformationLoss<?> loss) {
+        if (loss == null || loss.getClass() != prototype.getClass() || !loss.getMetadata().isEmpty()) {
+            return false;
+        } else if (loss instanceof AbstractILMultiDimensional) {
+            AbstractILMultiDimensional multi = (AbstractILMultiDimensional) loss;
+            AbstractILMultiDimensional reference = (AbstractILMultiDimensional) prototype;
+            return multi.getValues().length == length &&
+                   (multi.getWeights() == reference.getWeights() || Arrays.equals(multi.getWeights(), reference.getWeights()));
+        } else {
+            return true;
+        }
+    }
+}
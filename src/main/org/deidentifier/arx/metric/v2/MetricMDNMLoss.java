@@ -29,6 +29,7 @@ import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLossAccumulator;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
 /**
@@ -38,6 +39,59 @@ import org.deidentifier.arx.metric.MetricConfiguration;
  */
 public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
 
+    /**
+     * Accumulates information loss and lower bounds over the classes of a transformation.
+     * 
+     * @author Fabian Prasser
+     */
+    private class Accumulator implements InformationLossAccumulator<AbstractILMultiDimensional> {
+
+        /** Number of generalized dimensions */
+        private final int      dimensionsGeneralized = getDimensionsGeneralized();
+
+        /** Information loss */
+        private final double[] result                = new double[getDimensions()];
+
+        /** Lower bound */
+        private final double[] bound                 = new double[getDimensions()];
+
+        /** The generalization levels */
+        private int[]          transformation;
+
+        @Override
+        public void add(HashGroupifyEntry m) {
+            if (m.count > 0) {
+                for (int dimension = 0; dimension < dimensionsGeneralized; dimension++) {
+                    int value = m.key[dimension];
+                    int level = transformation[dimension];
+                    double share = (double) m.count * shares[dimension].getShare(value, level);
+                    result[dimension] += m.isNotOutlier ? share * gFactor :
+                                         (sFactor == 1d ? m.count : share + sFactor * ((double) m.count - share));
+                    bound[dimension] += share * gFactor;
+                }
+            }
+        }
+
+        @Override
+        public ILMultiDimensionalWithBound getInformationLoss() {
+            double[] result = new double[this.result.length];
+            double[] bound = new double[this.bound.length];
+            for (int dimension = 0; dimension < dimensionsGeneralized; dimension++) {
+                result[dimension] = normalizeGeneralized(this.result[dimension], dimension);
+                bound[dimension] = normalizeGeneralized(this.bound[dimension], dimension);
+            }
+            return new ILMultiDimensionalWithBound(createInformationLoss(result),
+                                                   createInformationLoss(bound));
+        }
+
+        @Override
+        public void start(Transformation transformation) {
+            this.transformation = transformation.getGeneralization();
+            Arrays.fill(result, 0d);
+            Arrays.fill(bound, 0d);
+        }
+    }
+
     /** SUID. */
     private static final long serialVersionUID = -573670902335136600L;
 
@@ -93,6 +147,12 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         this.gFactor = gsFactor <= 0.5d ? 1d            : 1d - 2d * (gsFactor - 0.5d);
     }
     
+    @Override
+    public InformationLossAccumulator<AbstractILMultiDimensional> createAccumulator() {
+        // Errors of microaggregation functions are not accumulated
+        return getDimensionsAggregated() == 0 ? new Accumulator() : null;
+    }
+    
     /**
      * Returns the configuration of this metric.
      *
@@ -130,6 +190,11 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         return sFactor;
     }
 
+    @Override
+    public boolean isPrecomputationOfLowerBoundsSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAbleToHandleMicroaggregation() {
         return true;
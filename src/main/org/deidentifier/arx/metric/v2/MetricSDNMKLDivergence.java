@@ -254,7 +254,7 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         RowSet subset = super.getSubset(config);
         
         // Tuple matcher
-        this.matcher = new TupleMatcher(hierarchies, input.getArray());
+        this.matcher = new TupleMatcher(hierarchies, input);
        
         // Areamax
         this.maximalArea = 1d;
@@ -264,9 +264,15 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
         
         // Groupify
        Map<TupleWrapper, Integer> groupify = new HashMap<TupleWrapper, Integer>();
+       int[] buffer = new int[hierarchies.length];
        for (int row = 0; row < input.getDataLength(); row++) {
            if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
+               int[] tuple = input.getRow(row, buffer);
+               if (tuple == buffer) {
+                   // Wrappers keep references to decoded rows
+                   buffer = new int[hierarchies.length];
+               }
+               TupleWrapper wrapper = new TupleWrapper(tuple);
                Integer count = groupify.get(wrapper);
                count = count == null ? 1 : count + 1;
                groupify.put(wrapper, count);
@@ -275,10 +281,10 @@ public class MetricSDNMKLDivergence extends AbstractMetricSingleDimensional {
        
        // Build input distribution and compute max
        this.max = 0d;
-       this.inputDistribution = new double[input.getArray().length];
+       this.inputDistribution = new double[input.getDataLength()];
        for (int row = 0; row < input.getDataLength(); row++) {
            if (subset == null || subset.contains(row)) {
-               TupleWrapper wrapper = new TupleWrapper(input.getArray()[row]);
+               TupleWrapper wrapper = new TupleWrapper(input.getRow(row, buffer));
                double frequency = groupify.get(wrapper).doubleValue() / this.tuples;
                this.inputDistribution[row] = frequency ;
                this.max += frequency * log2(frequency * maximalArea);
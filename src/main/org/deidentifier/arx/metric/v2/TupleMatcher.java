@@ -21,6 +21,7 @@ import java.io.Serializable;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -36,19 +37,21 @@ public class TupleMatcher implements Serializable {
     /** Data*/
     private final int[][][] hierarchies;
     /** Data*/
-    private final int[][] data;
+    private final transient Data data;
     /** Data*/
     private final int[] tuple;
+    /** Buffer for decoding rows*/
+    private final int[] buffer;
 
     /**
      * Creates a new instance
      * @param hierarchies
      * @param input
      */
-    TupleMatcher(GeneralizationHierarchy[] hierarchies, int[][] input) {
+    TupleMatcher(GeneralizationHierarchy[] hierarchies, Data input) {
         
         // Store hierarchies
-        this.hierarchies = new int[input[0].length][][];
+        this.hierarchies = new int[input.getHeader().length][][];
         for (int dimension = 0; dimension < this.hierarchies.length; dimension++) {
             this.hierarchies[dimension] = hierarchies[dimension].getArray();
         }
@@ -58,6 +61,7 @@ public class TupleMatcher implements Serializable {
         
         // Create tuple
         this.tuple = new int[this.hierarchies.length];
+        this.buffer = new int[this.hierarchies.length];
     }
     
     /**
@@ -70,7 +74,7 @@ public class TupleMatcher implements Serializable {
     HashGroupifyEntry getEntry(int row, int[] generalization, HashGroupify groupify) {
         
         // Transform the tuple
-        int[] inputtuple = data[row];
+        int[] inputtuple = data.getRow(row, buffer);
         for (int dimension = 0; dimension < tuple.length; dimension++) {
             tuple[dimension] = hierarchies[dimension][inputtuple[dimension]][generalization[dimension]];
         }
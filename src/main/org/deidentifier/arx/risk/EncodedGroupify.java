@@ -0,0 +1,259 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Builds the equivalence classes of a data handle from the dictionary-encoded values of
+ * a set of attributes. Suppressed records are ignored. The values of a record are packed
+ * into a single long, if the sizes of the domains of the attributes permit this. Otherwise,
+ * the attributes are processed in multiple passes, each of which packs the identifier of
+ * the class of the record in the previous pass together with the values of some further
+ * attributes. Optionally, suppressed records are grouped by their values before suppression.<br>
+ * <br>
+ * Codes are canonicalized, i.e. values which are contained in a dictionary more than once
+ * and suppressed values are mapped to one code each.
+ *
+ * @author Fabian Prasser
+ */
+class EncodedGroupify {
+
+    /**
+     * Returns the number of bits needed for representing values between zero and the given value
+     *
+     * @param value
+     * @return
+     */
+    static int getNumberOfBits(int value) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Returns an array, which maps each code of the given dictionary to the smallest
+     * code representing the same value. The array contains an additional element
+     * for suppressed values.
+     *
+     * @param dictionary
+     * @return
+     */
+    private static int[] getCanonicalCodes(String[] dictionary) {
+        ObjectIntOpenHashMap<String> values = new ObjectIntOpenHashMap<String>(dictionary.length + 1);
+        int[] codes = new int[dictionary.length + 1];
+        for (int code = 0; code < codes.length; code++) {
+            String value = code < dictionary.length ? dictionary[code] : DataType.ANY_VALUE;
+            codes[code] = values.putIfAbsent(value, code) ? code : values.lget();
+        }
+        return codes;
+    }
+
+    /** The class of each record, -1 for records which have been ignored */
+    private final int[]              classes;
+
+    /** Canonical codes per attribute */
+    private final int[][]            codes;
+
+    /** The handle */
+    private final DataHandleInternal handle;
+
+    /** Whether suppression is ignored */
+    private final boolean            ignoreSuppression;
+
+    /** The column indices of the attributes */
+    private final int[]              indices;
+
+    /** The number of classes */
+    private int                      numClasses;
+
+    /** A record from each class */
+    private int[]                    representatives;
+
+    /** The size of each class */
+    private int[]                    sizes;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param handle
+     * @param indices The column indices of the attributes
+     * @param ignoreSuppression Whether to group suppressed records by their values before suppression
+     * @param stop
+     * @param progress Will be set to values between 0 and <code>factor</code>
+     * @param factor
+     */
+    EncodedGroupify(final DataHandleInternal handle,
+                    final int[] indices,
+                    final boolean ignoreSuppression,
+                    final WrappedBoolean stop,
+                    final WrappedInteger progress,
+                    final double factor) {
+
+        // Prepare encoding
+        this.handle = handle;
+        this.indices = indices;
+        this.ignoreSuppression = ignoreSuppression;
+        final int numRows = handle.getNumRows();
+        this.classes = new int[numRows];
+        this.codes = new int[indices.length][];
+        final int[] bits = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            codes[i] = getCanonicalCodes(handle.getDictionary(indices[i]));
+            bits[i] = getNumberOfBits(codes[i].length - 1);
+        }
+
+        // Plan passes, assuming the worst case for the number of classes in previous passes
+        final int[] passes = new int[indices.length + 1];
+        int numPasses = 0;
+        int used = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0 && used + bits[i] > Long.SIZE) {
+                passes[numPasses++] = i;
+                used = getNumberOfBits(numRows);
+            }
+            used += bits[i];
+        }
+        passes[numPasses++] = indices.length;
+
+        // Calculate equivalence classes
+        int capacity = numRows / 10;
+        capacity = capacity > 10 ? capacity : 10;
+        this.sizes = new int[capacity];
+        this.representatives = new int[capacity];
+        int[] identifiers = null;
+        int identifierBits = 0;
+        int start = 0;
+        for (int pass = 0; pass < numPasses; pass++) {
+
+            final boolean last = pass == numPasses - 1;
+            final int end = passes[pass];
+            final int[] nextIdentifiers = last ? classes : new int[numRows];
+            final LongIntOpenHashMap map = new LongIntOpenHashMap(capacity);
+            for (int row = 0; row < numRows; row++) {
+
+                int prog = (int) Math.round((double) (pass * numRows + row) / (double) (numPasses * numRows) * factor);
+                if (prog != progress.value) {
+                    progress.value = prog;
+                }
+
+                if (identifiers == null ? ignoreSuppression || !handle.isOutlier(row) : identifiers[row] != -1) {
+
+                    // Pack
+                    long key = identifiers == null ? 0L : identifiers[row];
+                    int shift = identifierBits;
+                    for (int i = start; i < end; i++) {
+                        key |= (long) codes[i][handle.getEncodedValue(row, indices[i], ignoreSuppression)] << shift;
+                        shift += bits[i];
+                    }
+
+                    // Identify
+                    int size = map.size();
+                    int identifier = map.putIfAbsent(key, size) ? size : map.lget();
+                    nextIdentifiers[row] = identifier;
+                    if (last) {
+                        if (identifier == size) {
+                            if (size == sizes.length) {
+                                sizes = Arrays.copyOf(sizes, size * 2);
+                                representatives = Arrays.copyOf(representatives, size * 2);
+                            }
+                            representatives[size] = row;
+                        }
+                        sizes[identifier]++;
+                    }
+                } else {
+                    nextIdentifiers[row] = -1;
+                }
+                if (stop.value) { throw new ComputationInterruptedException(); }
+            }
+
+            // Prepare next pass
+            if (!last) {
+                identifiers = nextIdentifiers;
+                identifierBits = getNumberOfBits(map.size());
+                start = end;
+            } else {
+                numClasses = map.size();
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical code of the value of the given attribute in the given row
+     *
+     * @param row
+     * @param attribute The index of the attribute in the array of column indices
+     * @return
+     */
+    int getCode(int row, int attribute) {
+        return codes[attribute][handle.getEncodedValue(row, indices[attribute], ignoreSuppression)];
+    }
+
+    /**
+     * Returns the equivalence class of each record, -1 for records which have been ignored
+     *
+     * @return
+     */
+    int[] getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the number of codes of the given attribute
+     *
+     * @param attribute The index of the attribute in the array of column indices
+     * @return
+     */
+    int getNumberOfCodes(int attribute) {
+        return codes[attribute].length;
+    }
+
+    /**
+     * Returns the number of equivalence classes
+     *
+     * @return
+     */
+    int getNumberOfClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Returns a record from each equivalence class. The array may be larger than the number of classes.
+     *
+     * @return
+     */
+    int[] getRepresentatives() {
+        return representatives;
+    }
+
+    /**
+     * Returns the size of each equivalence class. The array may be larger than the number of classes.
+     *
+     * @return
+     */
+    int[] getSizes() {
+        return sizes;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.common.WrappedInteger;
+
+/**
+ * Caches the equivalence classes of a data handle, so that the risk models obtained for the
+ * same set of quasi-identifiers and the same transformation share one pass over the data.
+ * The cache is owned by the handle, which invalidates it whenever its data changes.
+ * This is part of the internal API.
+ *
+ * @author Fabian Prasser
+ */
+public class EquivalenceClassCache {
+
+    /** The maximal number of cached indices */
+    private static final int                          MAX_ENTRIES = 8;
+
+    /** The cached indices, in access order */
+    private final Map<String, EquivalenceClassIndex> indices     = new LinkedHashMap<String, EquivalenceClassIndex>(16, 0.75f, true) {
+        private static final long serialVersionUID = -4606577564618302383L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EquivalenceClassIndex> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Removes all cached indices
+     */
+    public synchronized void invalidate() {
+        indices.clear();
+    }
+
+    /**
+     * Returns the equivalence classes of the given handle with respect to the given attributes.
+     * The handle must be the owner of this cache.
+     *
+     * @param handle
+     * @param qis
+     * @param ignoreSuppression Whether to group suppressed records by their values before suppression
+     * @param stop
+     * @param progress
+     * @param factor
+     * @return
+     */
+    synchronized EquivalenceClassIndex getIndex(DataHandleInternal handle,
+                                                Set<String> qis,
+                                                boolean ignoreSuppression,
+                                                WrappedBoolean stop,
+                                                WrappedInteger progress,
+                                                double factor) {
+
+        /* ********************************
+         * Check
+         * ********************************/
+        if (handle == null) { throw new NullPointerException("Handle is null"); }
+        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
+        for (String q : qis) {
+            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
+        }
+
+        // Key consists of the attributes, their generalization levels and the treatment of suppressed records
+        final int[] columns = new int[qis.size()];
+        int index = 0;
+        for (final String attribute : qis) {
+            columns[index++] = handle.getColumnIndexOf(attribute);
+        }
+        Arrays.sort(columns);
+        final int[] levels = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            levels[i] = handle.getGeneralization(handle.getAttributeName(columns[i]));
+        }
+        String key = Arrays.toString(columns) + Arrays.toString(levels) + ignoreSuppression;
+
+        // Lookup or build
+        EquivalenceClassIndex result = indices.get(key);
+        if (result == null) {
+            result = new EquivalenceClassIndex(handle, columns, ignoreSuppression, stop, progress, factor);
+            indices.put(key, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * The equivalence classes of a data handle with respect to a set of attributes: the class
+ * of each record, the size of each class and the distribution of class sizes.
+ *
+ * @author Fabian Prasser
+ */
+class EquivalenceClassIndex {
+
+    /** The class of each record, -1 for records which have been ignored */
+    private final int[]              classes;
+
+    /** The distribution of class sizes */
+    private final RiskModelHistogram histogram;
+
+    /** The size of each class */
+    private final int[]              sizes;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param handle
+     * @param indices The column indices of the attributes
+     * @param ignoreSuppression Whether to group suppressed records by their values before suppression
+     * @param stop
+     * @param progress Will be set to values between 0 and <code>factor * 100</code>
+     * @param factor
+     */
+    EquivalenceClassIndex(final DataHandleInternal handle,
+                          final int[] indices,
+                          final boolean ignoreSuppression,
+                          final WrappedBoolean stop,
+                          final WrappedInteger progress,
+                          final double factor) {
+
+        // Calculate equivalence classes
+        EncodedGroupify groupify = new EncodedGroupify(handle, indices, ignoreSuppression, stop, progress, factor * 80d);
+        this.classes = groupify.getClasses();
+        this.sizes = Arrays.copyOf(groupify.getSizes(), groupify.getNumberOfClasses());
+        groupify = null;
+
+        // Group by size
+        IntIntOpenHashMap grouped = new IntIntOpenHashMap();
+        for (int i = 0; i < sizes.length; i++) {
+            int prog = (int) Math.round((80d + (double) i / (double) sizes.length * 20d) * factor);
+            if (prog != progress.value) {
+                progress.value = prog;
+            }
+            grouped.putOrAdd(sizes[i], 1, 1);
+            if (stop.value) { throw new ComputationInterruptedException(); }
+        }
+        this.histogram = new RiskModelHistogram(grouped, stop, progress);
+    }
+
+    /**
+     * Returns the class of the given record, -1 if the record has been ignored
+     *
+     * @param row
+     * @return
+     */
+    int getClass(int row) {
+        return classes[row];
+    }
+
+    /**
+     * Returns the distribution of class sizes
+     *
+     * @return
+     */
+    RiskModelHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns the number of classes
+     *
+     * @return
+     */
+    int getNumberOfClasses() {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the size of each class
+     *
+     * @return
+     */
+    int[] getSizes() {
+        return sizes;
+    }
+}
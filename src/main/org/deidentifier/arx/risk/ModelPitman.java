@@ -40,7 +40,10 @@ import de.linearbits.newtonraphson.Vector2D;
 class ModelPitman extends RiskModelPopulation {
 
     /** The result */
-    private final double numUniques;
+    private final double   numUniques;
+
+    /** The solution of the system */
+    private final Vector2D solution;
 
     /**
      * Creates a new instance
@@ -49,11 +52,13 @@ class ModelPitman extends RiskModelPopulation {
      * @param histogram
      * @param config
      * @param stop
+     * @param start Start value for the solver, may be null
      */
     ModelPitman(final ARXPopulationModel model,
                 final RiskModelHistogram histogram,
                 final NewtonRaphsonConfiguration<?> config,
-                final WrappedBoolean stop) {
+                final WrappedBoolean stop,
+                final Vector2D start) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -71,6 +76,18 @@ class ModelPitman extends RiskModelPopulation {
                    (((2 * c1 * u) + (c1 * c)) - (n * c));
         double a = ((t * (c1 - n)) + ((n - 1) * c1)) / (n * u);
 
+        // Try to warm-start the solver with the closed forms, if a start value is given
+        if (start != null) {
+            NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
+                                                         getConstraint()).configure(config);
+            Vector2D result = solver.solve(start);
+            if (isValid(result, histogram.getHistogram(), u, n, config) && !Double.isNaN(getResult(result, p))) {
+                this.solution = result;
+                this.numUniques = getResult(result, p);
+                return;
+            }
+        }
+
         // Solve the Maximum Likelihood Estimates with Polygamma functions
         NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
                                                      getConstraint()).configure(config);
@@ -86,13 +103,8 @@ class ModelPitman extends RiskModelPopulation {
             // Else check the result against the iterative implementation
         } else {
 
-            // Run test
-            Vector2D test = getObjectFunctionsIterative(histogram.getHistogram(), u, n).evaluate(result);
-
-            // Check result of test
-            if (Double.isNaN(test.x) || Double.isNaN(test.y) ||
-                Math.abs(test.x) > config.getAccuracy() ||
-                Math.abs(test.y) > config.getAccuracy()) {
+            // Check result against the iterative implementation
+            if (!isValid(result, histogram.getHistogram(), u, n, config)) {
 
                 // Use iterative implementation
                 solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
@@ -102,6 +114,7 @@ class ModelPitman extends RiskModelPopulation {
         }
 
         // Compile the result
+        this.solution = result;
         this.numUniques = getResult(result, p);
     }
 
@@ -114,6 +127,15 @@ class ModelPitman extends RiskModelPopulation {
         return this.numUniques;
     }
 
+    /**
+     * Returns the solution of the system, i.e. theta and alpha
+     * 
+     * @return
+     */
+    public Vector2D getSolution() {
+        return this.solution;
+    }
+
     /**
      * Returns a constraint on theta
      * @return
@@ -372,6 +394,30 @@ class ModelPitman extends RiskModelPopulation {
         };
     }
 
+    /**
+     * Checks a solution obtained with the closed forms against the iterative implementation
+     * 
+     * @param result
+     * @param classes
+     * @param u
+     * @param n
+     * @param config
+     * @return
+     */
+    private boolean isValid(Vector2D result,
+                            int[] classes,
+                            double u,
+                            double n,
+                            NewtonRaphsonConfiguration<?> config) {
+        if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+            return false;
+        }
+        Vector2D test = getObjectFunctionsIterative(classes, u, n).evaluate(result);
+        return !Double.isNaN(test.x) && !Double.isNaN(test.y) &&
+               Math.abs(test.x) <= config.getAccuracy() &&
+               Math.abs(test.y) <= config.getAccuracy();
+    }
+
     /**
      * Compiles the result of running the solver
      * 
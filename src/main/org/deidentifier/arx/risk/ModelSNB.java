@@ -38,7 +38,10 @@ import de.linearbits.newtonraphson.Vector2D;
 class ModelSNB extends RiskModelPopulation {
 
     /** The result */
-    private final double uniques;
+    private final double   uniques;
+
+    /** The solution of the system */
+    private final Vector2D solution;
 
     /**
      * Creates a new instance
@@ -47,11 +50,13 @@ class ModelSNB extends RiskModelPopulation {
      * @param histogram
      * @param config
      * @param stop
+     * @param start Start value for the solver, may be null
      */
     ModelSNB(final ARXPopulationModel model,
              final RiskModelHistogram histogram,
              final NewtonRaphsonConfiguration<?> config,
-             final WrappedBoolean stop) {
+             final WrappedBoolean stop,
+             final Vector2D start) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -63,13 +68,23 @@ class ModelSNB extends RiskModelPopulation {
                                                       c1, super.getSamplingFraction());
         double f = getSamplingFraction();
 
-        // Solve the maximum likelihood estimates
-        Vector2D result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
-                                              getDerivatives(k, f, c1, c2))
-                                             .configure(config)
-                                             .solve();
+        // Solve the maximum likelihood estimates, starting with the given value, if any
+        Vector2D result = null;
+        if (start != null) {
+            result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
+                                         getDerivatives(k, f, c1, c2))
+                                        .configure(config)
+                                        .solve(start);
+        }
+        if (result == null || Double.isNaN(result.x) || Double.isNaN(result.y)) {
+            result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
+                                         getDerivatives(k, f, c1, c2))
+                                        .configure(config)
+                                        .solve();
+        }
 
         // Compile and store
+        this.solution = result;
         this.uniques = k * Math.pow(result.y, result.x);
     }
 
@@ -82,6 +97,15 @@ class ModelSNB extends RiskModelPopulation {
         return this.uniques;
     }
 
+    /**
+     * Returns the solution of the system, i.e. alpha and beta
+     * 
+     * @return
+     */
+    public Vector2D getSolution() {
+        return this.solution;
+    }
+
     /**
      * @return Shlosser estimator for variable K, giving number of non zero
      *         classes in the population estimated according to Haas, 1998 and
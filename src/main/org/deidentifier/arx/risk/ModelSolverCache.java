@@ -0,0 +1,274 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXSolverConfiguration;
+import org.deidentifier.arx.common.WrappedBoolean;
+
+import de.linearbits.newtonraphson.Vector2D;
+
+/**
+ * Caches the estimates of the statistical models which are solved numerically, i.e. Pitman's
+ * model and the SNB model. Estimates are keyed by the histogram of class sizes and the size of
+ * the population. Optionally, the solvers are warm-started with the most recent solution
+ * obtained for a histogram describing a sample of the same size. A cache must only be used
+ * with one solver configuration. This class is thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class ModelSolverCache {
+
+    /**
+     * Key of a cached estimate
+     *
+     * @author Fabian Prasser
+     */
+    private static class Signature {
+
+        /** Hash code */
+        private final int    hashCode;
+        /** Histogram */
+        private final int[]  histogram;
+        /** Model */
+        private final int    model;
+        /** Population */
+        private final long   populationSize;
+
+        /**
+         * Creates a new instance
+         * @param model
+         * @param populationSize
+         * @param histogram
+         */
+        Signature(int model, long populationSize, int[] histogram) {
+            this.model = model;
+            this.populationSize = populationSize;
+            this.histogram = histogram;
+            int result = 31 + model;
+            result = 31 * result + (int) (populationSize ^ (populationSize >>> 32));
+            this.hashCode = 31 * result + Arrays.hashCode(histogram);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Signature other = (Signature) obj;
+            return hashCode == other.hashCode && model == other.model &&
+                   populationSize == other.populationSize &&
+                   Arrays.equals(histogram, other.histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** Model */
+    private static final int              MODEL_PITMAN      = 0;
+    /** Model */
+    private static final int              MODEL_SNB         = 1;
+    /** The default maximal number of cached estimates */
+    private static final int              DEFAULT_MAX_SIZE  = 1024;
+
+    /** The maximal number of cached estimates */
+    private final int                     maxSize;
+    /** The cached estimates, in access order */
+    private final Map<Signature, Double>  estimates;
+    /** The most recent solutions, per model and sample size */
+    private final Map<Long, Vector2D>     solutions         = new HashMap<Long, Vector2D>();
+    /** Whether solvers are warm-started */
+    private final boolean                 warmStart;
+
+    /**
+     * Creates a new instance, which caches up to 1024 estimates
+     *
+     * @param warmStart Whether to warm-start solvers with previous solutions. This may
+     *                  lead to estimates which differ from cold starts in the order of the
+     *                  accuracy of the solver and which depend on the order of evaluation.
+     */
+    public ModelSolverCache(boolean warmStart) {
+        this(warmStart, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param warmStart Whether to warm-start solvers with previous solutions. This may
+     *                  lead to estimates which differ from cold starts in the order of the
+     *                  accuracy of the solver and which depend on the order of evaluation.
+     * @param maxSize The maximal number of cached estimates
+     */
+    public ModelSolverCache(boolean warmStart, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Size must be >0");
+        }
+        this.warmStart = warmStart;
+        this.maxSize = maxSize;
+        this.estimates = new LinkedHashMap<Signature, Double>(16, 0.75f, true) {
+            private static final long serialVersionUID = 3286727925436101327L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Signature, Double> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Removes all cached estimates and solutions
+     */
+    public synchronized void clear() {
+        estimates.clear();
+        solutions.clear();
+    }
+
+    /**
+     * Returns the maximal number of cached estimates
+     *
+     * @return
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of cached estimates
+     *
+     * @return
+     */
+    public synchronized int getSize() {
+        return estimates.size();
+    }
+
+    /**
+     * Returns whether solvers are warm-started
+     *
+     * @return
+     */
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Returns the number of population uniques according to Pitman's model
+     *
+     * @param model
+     * @param histogram
+     * @param config
+     * @param stop
+     * @return
+     */
+    double getNumUniquesPitman(ARXPopulationModel model,
+                               RiskModelHistogram histogram,
+                               ARXSolverConfiguration config,
+                               WrappedBoolean stop) {
+
+        Signature signature = new Signature(MODEL_PITMAN, model.getPopulationSize(), histogram.getHistogram());
+        Double estimate = getEstimate(signature);
+        if (estimate != null) {
+            return estimate;
+        }
+        Long key = getSolutionKey(MODEL_PITMAN, histogram);
+        ModelPitman pitman = new ModelPitman(model, histogram, config, stop, getSolution(key));
+        put(signature, pitman.getNumUniques(), key, pitman.getSolution());
+        return pitman.getNumUniques();
+    }
+
+    /**
+     * Returns the number of population uniques according to the SNB model
+     *
+     * @param model
+     * @param histogram
+     * @param config
+     * @param stop
+     * @return
+     */
+    double getNumUniquesSNB(ARXPopulationModel model,
+                            RiskModelHistogram histogram,
+                            ARXSolverConfiguration config,
+                            WrappedBoolean stop) {
+
+        Signature signature = new Signature(MODEL_SNB, model.getPopulationSize(), histogram.getHistogram());
+        Double estimate = getEstimate(signature);
+        if (estimate != null) {
+            return estimate;
+        }
+        Long key = getSolutionKey(MODEL_SNB, histogram);
+        ModelSNB snb = new ModelSNB(model, histogram, config, stop, getSolution(key));
+        put(signature, snb.getNumUniques(), key, snb.getSolution());
+        return snb.getNumUniques();
+    }
+
+    /**
+     * Returns a cached estimate, null if there is none
+     *
+     * @param signature
+     * @return
+     */
+    private synchronized Double getEstimate(Signature signature) {
+        return estimates.get(signature);
+    }
+
+    /**
+     * Returns the start value for the solver, null if the solver should be cold-started
+     *
+     * @param key
+     * @return
+     */
+    private synchronized Vector2D getSolution(Long key) {
+        if (!warmStart) {
+            return null;
+        }
+        Vector2D solution = solutions.get(key);
+        return solution == null ? null : new Vector2D(solution.x, solution.y);
+    }
+
+    /**
+     * Returns the key under which solutions for similar histograms are stored
+     *
+     * @param model
+     * @param histogram
+     * @return
+     */
+    private Long getSolutionKey(int model, RiskModelHistogram histogram) {
+        return ((long) histogram.getNumRecords() << 1) | model;
+    }
+
+    /**
+     * Stores an estimate and the solution from which it has been derived
+     *
+     * @param signature
+     * @param estimate
+     * @param key
+     * @param solution
+     */
+    private synchronized void put(Signature signature, double estimate, Long key, Vector2D solution) {
+        estimates.put(signature, estimate);
+        if (warmStart && solution != null && !Double.isNaN(solution.x) && !Double.isNaN(solution.y) &&
+            !Double.isInfinite(solution.x) && !Double.isInfinite(solution.y)) {
+            solutions.put(key, solution);
+        }
+    }
+}
@@ -173,8 +173,41 @@ public class RiskEstimateBuilder {
      * @return the RiskModelAttributes data from risk analysis
      */
     public RiskModelAttributes getAttributeRisks() {
+        return getAttributeRisks(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only combinations of up to
+     * the given number of attributes are analyzed, using a single thread.
+     *
+     * @param maxSize The maximal number of attributes in a combination
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize) {
+        return getAttributeRisks(maxSize, 1);
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only combinations of up to
+     * the given number of attributes are analyzed, using the given number of threads.
+     * Each thread requires memory for the classes of as many combinations as the maximal
+     * number of attributes.
+     *
+     * @param maxSize The maximal number of attributes in a combination
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize, int numberOfThreads) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximal size must be > 0");
+        }
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be > 0");
+        }
         progress.value = 0;
-        return new RiskModelAttributes(this.population, this.handle, this.identifiers, this.stop, progress, this.solverconfig, this.arxconfig);
+        return new RiskModelAttributes(this.handle, this.identifiers, this.stop, progress, maxSize, numberOfThreads);
     }
 
     /**
@@ -229,6 +262,7 @@ public class RiskEstimateBuilder {
                 stop,
                 progress,
                 solverconfig,
+                null,
                 false);
     }
 
@@ -282,7 +316,7 @@ public class RiskEstimateBuilder {
         synchronized (this) {
             if (classes == null) {
                 progress.value = 0;
-                classes = new RiskModelHistogram(handle, identifiers, stop, progress, factor);
+                classes = handle.getEquivalenceClassCache().getIndex(handle, identifiers, false, stop, progress, factor).getHistogram();
             }
             return classes;
         }
@@ -300,6 +334,7 @@ public class RiskEstimateBuilder {
                 stop,
                 progress,
                 solverconfig,
+                null,
                 true);
     }
 
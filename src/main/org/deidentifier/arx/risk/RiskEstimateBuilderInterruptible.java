@@ -53,6 +53,39 @@ public class RiskEstimateBuilderInterruptible {
         }
     }
 
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only combinations of up to
+     * the given number of attributes are analyzed, using a single thread.
+     *
+     * @param maxSize The maximal number of attributes in a combination
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize) throws InterruptedException {
+        try {
+            return parent.getAttributeRisks(maxSize);
+        } catch (ComputationInterruptedException e) {
+            throw new InterruptedException("Computation interrupted");
+        }
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only combinations of up to
+     * the given number of attributes are analyzed, using the given number of threads.
+     *
+     * @param maxSize The maximal number of attributes in a combination
+     * @param numberOfThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize, int numberOfThreads) throws InterruptedException {
+        try {
+            return parent.getAttributeRisks(maxSize, numberOfThreads);
+        } catch (ComputationInterruptedException e) {
+            throw new InterruptedException("Computation interrupted");
+        }
+    }
+
     /**
      * Returns a model of the equivalence classes in this data set
      * 
@@ -21,31 +21,223 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.deidentifier.arx.ARXConfiguration;
-import org.deidentifier.arx.ARXPopulationModel;
-import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
 /**
  * A class for analyzing attribute-related risks. Calculates alpha-distinction and
  * alpha separation as described in R. Motwani et al.
- * "Efficient algorithms for masking and finding quasi-identifiers" Proc. VLDB Conf., 2007.
- *
+ * "Efficient algorithms for masking and finding quasi-identifiers" Proc. VLDB Conf., 2007.<br>
+ * <br>
+ * The data is scanned only once, to build the equivalence classes with respect to all attributes.
+ * The classes for subsets of attributes are then derived from the classes of a subset with one
+ * attribute less, by merging the distinct combinations of values. Subsets may be evaluated in parallel.
  *
  * @author Fabian Prasser
  * @author Maximilian Zitzmann
  */
 public class RiskModelAttributes {
 
+    /**
+     * Evaluates subsets of attributes. A task consists of a subset, which is evaluated. If the
+     * subset has the size at which the power set is split into tasks, all subsets which extend it
+     * with attributes of a larger index are evaluated as well, depth-first. Each worker reuses one
+     * buffer per depth for the classes of the subsets on its current path, so that the memory
+     * required is bounded by the number of workers times the maximal size of subsets.
+     *
+     * @author Fabian Prasser
+     */
+    private class Worker implements Callable<Void> {
+
+        /** The classes of the distinct combinations of values, per depth */
+        private final int[][]            classes;
+
+        /** The number of classes, per depth */
+        private final int[]              numClasses;
+
+        /** The attributes on the current path */
+        private final int[]              path;
+
+        /** The number of attributes on the current path, for which the classes are valid */
+        private int                      length;
+
+        /** The tasks */
+        private final List<int[]>        tasks;
+
+        /** The index of the next task */
+        private final AtomicInteger      next;
+
+        /** The size of subsets which are evaluated together with their extensions */
+        private final int                split;
+
+        /** Buffer for merging classes with an array */
+        private int[]                    table = new int[0];
+
+        /** Buffer for merging classes with a hash table */
+        private final LongIntOpenHashMap map   = new LongIntOpenHashMap();
+
+        /** Buffer for the sizes of classes */
+        private final int[]              sizes = new int[numCombinations];
+
+        /**
+         * Creates a new instance.
+         *
+         * @param root The classes of the empty set
+         * @param tasks
+         * @param next
+         * @param split
+         */
+        private Worker(int[] root, List<int[]> tasks, AtomicInteger next, int split) {
+            this.classes = new int[maxSize + 1][];
+            this.classes[0] = root;
+            this.numClasses = new int[maxSize + 1];
+            this.numClasses[0] = 1;
+            this.path = new int[maxSize];
+            this.length = 0;
+            this.tasks = tasks;
+            this.next = next;
+            this.split = split;
+        }
+
+        @Override
+        public Void call() {
+            for (int index = next.getAndIncrement(); index < tasks.size(); index = next.getAndIncrement()) {
+
+                // Reuse the classes of the prefix shared with the previous task
+                int[] subset = tasks.get(index);
+                int depth = 0;
+                while (depth < length && depth < subset.length && path[depth] == subset[depth]) {
+                    depth++;
+                }
+                for (; depth < subset.length; depth++) {
+                    merge(depth, subset[depth]);
+                }
+                length = subset.length;
+
+                // Evaluate
+                evaluate(length);
+                if (length == split) {
+                    extend(length);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Evaluates the subset on the current path with the given size.
+         *
+         * @param depth
+         */
+        private void evaluate(int depth) {
+            List<String> identifier = new ArrayList<String>();
+            for (int i = 0; i < depth; i++) {
+                identifier.add(attributes.get(path[i]));
+            }
+            results.add(new QuasiIdentifierRisk(identifier, getHistogram(classes[depth], numClasses[depth])));
+            percentageDone.value = (int) Math.round((double) done.incrementAndGet() / (double) numSubsets * 100d);
+        }
+
+        /**
+         * Evaluates all subsets which extend the subset on the current path with the given size.
+         *
+         * @param depth
+         */
+        private void extend(int depth) {
+            if (depth == maxSize) {
+                return;
+            }
+            for (int attribute = path[depth - 1] + 1; attribute < attributes.size(); attribute++) {
+                merge(depth, attribute);
+                evaluate(depth + 1);
+                extend(depth + 1);
+            }
+        }
+
+        /**
+         * Merges the distinct combinations of values, which belong to the same class of the subset
+         * on the current path with the given size and have the same value of the given attribute.
+         * The attribute is added to the path.
+         *
+         * @param depth
+         * @param attribute
+         */
+        private void merge(int depth, int attribute) {
+
+            final int[] parentClasses = classes[depth];
+            final int parentNumClasses = numClasses[depth];
+            final int[] values = codes[attribute];
+            final int domain = numCodes[attribute];
+            if (classes[depth + 1] == null) {
+                classes[depth + 1] = new int[numCombinations];
+            }
+            final int[] result = classes[depth + 1];
+            int count = 0;
+
+            // Merge using an array
+            if ((long) parentNumClasses * (long) domain <= Math.max(MAX_DIRECT_MERGE, numCombinations)) {
+                int size = parentNumClasses * domain;
+                if (table.length < size) {
+                    table = new int[size];
+                }
+                Arrays.fill(table, 0, size, -1);
+                for (int combination = 0; combination < numCombinations; combination++) {
+                    int slot = parentClasses[combination] * domain + values[combination];
+                    if (table[slot] == -1) {
+                        table[slot] = count++;
+                    }
+                    result[combination] = table[slot];
+                }
+
+            // Merge using a hash table
+            } else {
+                map.clear();
+                for (int combination = 0; combination < numCombinations; combination++) {
+                    long key = (long) parentClasses[combination] * domain + values[combination];
+                    result[combination] = map.putIfAbsent(key, count) ? count++ : map.lget();
+                }
+            }
+            checkInterrupt();
+            path[depth] = attribute;
+            numClasses[depth + 1] = count;
+        }
+
+        /**
+         * Returns the distribution of class sizes
+         *
+         * @param classes The classes of all combinations of values
+         * @param numClasses
+         * @return
+         */
+        private RiskModelHistogram getHistogram(int[] classes, int numClasses) {
+            Arrays.fill(sizes, 0, numClasses, 0);
+            for (int combination = 0; combination < numCombinations; combination++) {
+                sizes[classes[combination]] += frequencies[combination];
+            }
+            IntIntOpenHashMap grouped = new IntIntOpenHashMap();
+            for (int i = 0; i < numClasses; i++) {
+                grouped.putOrAdd(sizes[i], 1, 1);
+            }
+            checkInterrupt();
+            return new RiskModelHistogram(grouped);
+        }
+    }
+
     /**
      * Risks associated with a certain quasi-identifier
      *
@@ -65,20 +257,13 @@ public class RiskModelAttributes {
          * Creates a new instance
          *
          * @param identifier
+         * @param histogram The distribution of class sizes
          */
-        private QuasiIdentifierRisk(List<String> identifier) {
+        private QuasiIdentifierRisk(List<String> identifier, RiskModelHistogram histogram) {
 
             // Store identifier
             this.identifier = identifier;
 
-            // Calculate distribution of class sizes
-            RiskModelHistogram histogram = new RiskEstimateBuilder(population,
-                                                                   handle,
-                                                                   new HashSet<String>(identifier),
-                                                                   stop,
-                                                                   solverconfig,
-                                                                   arxconfig).getEquivalenceClassModel();
-
             // Calculate distinction and separation
             this.alphaDistinction = getAlphaDistinction(histogram);
             this.alphaSeparation = getAlphaSeparation(histogram);
@@ -136,82 +321,122 @@ public class RiskModelAttributes {
             return alphaSeparation;
         }
     }
+    /** The maximal product of the number of classes and the size of a domain for merging classes with an array */
+    private static final int                 MAX_DIRECT_MERGE = 1 << 20;
+
     /** Stop flag */
-    private final WrappedBoolean        stop;
+    private final WrappedBoolean             stop;
     /** Results */
-    private final QuasiIdentifierRisk[] risks;
-    /** Just needed for creating risk models */
-    private ARXPopulationModel          population;
-    /** Data handle */
-    private DataHandleInternal          handle;
-    /** Just needed for creating risk models */
-    private ARXSolverConfiguration      solverconfig;
-    /** Just needed for creating risk models */
-    private ARXConfiguration            arxconfig;
+    private final QuasiIdentifierRisk[]      risks;
+    /** The attributes, sorted by column index */
+    private final List<String>               attributes;
+    /** The codes of the distinct combinations of values, per attribute */
+    private final int[][]                    codes;
+    /** The number of codes per attribute */
+    private final int[]                      numCodes;
+    /** The number of distinct combinations of values */
+    private final int                        numCombinations;
+    /** The number of records with each combination of values */
+    private final int[]                      frequencies;
+    /** The maximal size of subsets */
+    private final int                        maxSize;
+    /** The number of subsets */
+    private final int                        numSubsets;
+    /** The number of evaluated subsets */
+    private final AtomicInteger              done    = new AtomicInteger();
+    /** Progress */
+    private final WrappedInteger             percentageDone;
+    /** Results, collected concurrently */
+    private final Queue<QuasiIdentifierRisk> results = new ConcurrentLinkedQueue<QuasiIdentifierRisk>();
 
     /**
      * Creates a new instance
-     * @param population
      * @param handle
      * @param identifiers
      * @param stop
      * @param percentageDone
-     * @param solverconfig
-     * @param arxconfig
+     * @param maxSize The maximal number of attributes in a subset
+     * @param numberOfThreads
      */
-    RiskModelAttributes(final ARXPopulationModel population,
-                        final DataHandleInternal handle,
+    RiskModelAttributes(final DataHandleInternal handle,
                         final Set<String> identifiers,
                         final WrappedBoolean stop,
                         final WrappedInteger percentageDone,
-                        final ARXSolverConfiguration solverconfig,
-                        final ARXConfiguration arxconfig) {
+                        final int maxSize,
+                        final int numberOfThreads) {
         
-        this.population = population;
-        this.handle = handle;
         this.stop = stop;
-        this.solverconfig = solverconfig;
-        this.arxconfig = arxconfig;
-
-        // Find order list of qis
-        List<List<String>> qis = new ArrayList<>();
-        Set<Set<String>> powerset = getPowerSet(identifiers);
-        for (Set<String> set : powerset) {
-            
-            // Exclude empty set
-            if (!set.isEmpty()) {
-                
-                // Create and add
-                List<String> qi = new ArrayList<String>(set);
-                qis.add(qi);
-                
-                // Sort by column index
-                Collections.sort(qi, new Comparator<String>(){
-                    @Override
-                    public int compare(String o1, String o2) {
-                        int index1 = handle.getColumnIndexOf(o1);
-                        int index2 = handle.getColumnIndexOf(o2);
-                        return new Integer(index1).compareTo(index2);
-                    }
-                });
+        this.percentageDone = percentageDone;
+
+        // Sort attributes by column index
+        this.attributes = new ArrayList<String>(identifiers);
+        Collections.sort(attributes, new Comparator<String>(){
+            @Override
+            public int compare(String o1, String o2) {
+                int index1 = handle.getColumnIndexOf(o1);
+                int index2 = handle.getColumnIndexOf(o2);
+                return new Integer(index1).compareTo(index2);
             }
+        });
+        int[] indices = new int[attributes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = handle.getColumnIndexOf(attributes.get(i));
+        }
+        this.maxSize = Math.min(maxSize, attributes.size());
+        this.numSubsets = getNumberOfSubsets(attributes.size(), this.maxSize);
+
+        // Find distinct combinations of values
+        EncodedGroupify groupify = new EncodedGroupify(handle, indices, false, stop, new WrappedInteger(), 0d);
+        this.numCombinations = groupify.getNumberOfClasses();
+        this.frequencies = groupify.getSizes();
+        this.codes = new int[indices.length][numCombinations];
+        this.numCodes = new int[indices.length];
+        int[] representatives = groupify.getRepresentatives();
+        for (int i = 0; i < indices.length; i++) {
+            numCodes[i] = groupify.getNumberOfCodes(i);
+            for (int combination = 0; combination < numCombinations; combination++) {
+                codes[i][combination] = groupify.getCode(representatives[combination], i);
+            }
+            checkInterrupt();
         }
+        groupify = null;
         
+        // Split the power set into tasks
+        int split = getSplit(numberOfThreads);
+        List<int[]> tasks = new ArrayList<int[]>();
+        getTasks(new int[0], split, tasks);
+        AtomicInteger next = new AtomicInteger();
+        int[] root = new int[numCombinations];
+
         // Compute risk estimates for all elements in the power set
-        Map<List<String>, QuasiIdentifierRisk> scores = new HashMap<>();
-        int done = 0;
-        for (List<String> qi : qis) {
-            checkInterrupt();
-            scores.put(qi, new QuasiIdentifierRisk(qi));
-            percentageDone.value = (int) Math.round((double) done++ / (double) (powerset.size() - 1) * 100d);
+        if (numberOfThreads == 1) {
+            new Worker(root, tasks, next, split).call();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+            try {
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int i = 0; i < numberOfThreads; i++) {
+                    futures.add(executor.submit(new Worker(root, tasks, next, split)));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                throw new ComputationInterruptedException(e);
+            } catch (ExecutionException e) {
+                next.set(tasks.size());
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdown();
+            }
         }
+        checkInterrupt();
 
         // Now create sorted array
-        risks = new QuasiIdentifierRisk[scores.size()];
-        int idx = 0;
-        for (QuasiIdentifierRisk value : scores.values()) {
-            risks[idx++] = value;
-        }
+        risks = results.toArray(new QuasiIdentifierRisk[results.size()]);
         Arrays.sort(risks);
     }
 
@@ -309,29 +534,59 @@ public class RiskModelAttributes {
     }
 
     /**
-     * Returns the power set
+     * Returns the size of subsets at which the power set is split into tasks. The subsets of
+     * smaller sizes are evaluated as separate tasks. With multiple threads, the power set is
+     * split such that the largest task covers at most a quarter of the share of each thread.
      *
-     * @param originalSet
+     * @param numberOfThreads
      * @return
      */
-    private <T> Set<Set<T>> getPowerSet(Set<T> originalSet) {
-        checkInterrupt();
-        Set<Set<T>> sets = new HashSet<Set<T>>();
-        if (originalSet.isEmpty()) {
-            sets.add(new HashSet<T>());
-            return sets;
+    private int getSplit(int numberOfThreads) {
+        if (numberOfThreads == 1) {
+            return 1;
         }
-        List<T> list = new ArrayList<T>(originalSet);
-        T head = list.get(0);
-        Set<T> rest = new HashSet<T>(list.subList(1, list.size()));
-        for (Set<T> set : getPowerSet(rest)) {
-            checkInterrupt();
-            Set<T> newSet = new HashSet<T>();
-            newSet.add(head);
-            newSet.addAll(set);
-            sets.add(newSet);
-            sets.add(set);
+        long share = (long) numSubsets / (4L * numberOfThreads);
+        int split = 1;
+        while (split < maxSize && getNumberOfSubsets(attributes.size() - split, maxSize - split) + 1 > share) {
+            split++;
+        }
+        return split;
+    }
+
+    /**
+     * Collects all extensions of the given subset with attributes of a larger index, which contain
+     * at most the given number of attributes, in depth-first order.
+     *
+     * @param subset
+     * @param split
+     * @param tasks
+     */
+    private void getTasks(int[] subset, int split, List<int[]> tasks) {
+        int start = subset.length == 0 ? 0 : subset[subset.length - 1] + 1;
+        for (int attribute = start; attribute < attributes.size(); attribute++) {
+            int[] task = Arrays.copyOf(subset, subset.length + 1);
+            task[subset.length] = attribute;
+            tasks.add(task);
+            if (task.length < split) {
+                getTasks(task, split, tasks);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of non-empty subsets of a set of the given size, which contain at most the given number of elements
+     *
+     * @param size
+     * @param maxSize
+     * @return
+     */
+    private int getNumberOfSubsets(int size, int maxSize) {
+        int result = 0;
+        long binomial = 1;
+        for (int k = 1; k <= maxSize; k++) {
+            binomial = binomial * (size - k + 1) / k;
+            result += binomial;
         }
-        return sets;
+        return result;
     }
 }
\ No newline at end of file
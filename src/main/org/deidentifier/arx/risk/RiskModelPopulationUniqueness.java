@@ -18,6 +18,10 @@
 package org.deidentifier.arx.risk;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.ARXSolverConfiguration;
@@ -66,6 +70,73 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
     private ARXSolverConfiguration    config;
     /** Parameter */
     private WrappedBoolean            stop;
+    /** Parameter */
+    private ModelSolverCache          cache;
+
+    /**
+     * Estimates population uniqueness for many histograms in parallel. The estimates are computed
+     * with the given statistical model and are available from the returned objects. The solvers
+     * share the given cache.
+     * 
+     * @param model
+     * @param histograms
+     * @param config
+     * @param cache
+     * @param statisticalModel
+     * @param numberOfThreads
+     * @return
+     */
+    public static RiskModelPopulationUniqueness[] estimate(final ARXPopulationModel model,
+                                                           final RiskModelHistogram[] histograms,
+                                                           final ARXSolverConfiguration config,
+                                                           final ModelSolverCache cache,
+                                                           final PopulationUniquenessModel statisticalModel,
+                                                           int numberOfThreads) {
+
+        // Check
+        if (model == null || histograms == null || config == null || cache == null || statisticalModel == null) {
+            throw new NullPointerException("Parameters must not be null");
+        }
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be >0");
+        }
+
+        // Prepare
+        final RiskModelPopulationUniqueness[] result = new RiskModelPopulationUniqueness[histograms.length];
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int i = 0; i < histograms.length; i++) {
+            final int index = i;
+            tasks.add(new RecursiveAction() {
+                private static final long serialVersionUID = -6196924286311395417L;
+                @Override
+                protected void compute() {
+                    result[index] = new RiskModelPopulationUniqueness(model,
+                                                                      histograms[index],
+                                                                      new WrappedBoolean(),
+                                                                      new WrappedInteger(),
+                                                                      config,
+                                                                      cache,
+                                                                      false);
+                    result[index].getNumUniqueTuples(statisticalModel);
+                }
+            });
+        }
+
+        // Estimate
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 2946232349342916371L;
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
 
     /**
      * Creates a new instance
@@ -82,6 +153,29 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
              new WrappedBoolean(),
              new WrappedInteger(),
              config,
+             null,
+             false);
+    }
+
+    /**
+     * Creates a new instance, which obtains the estimates of numerically solved models from
+     * the given cache
+     * 
+     * @param model
+     * @param classes
+     * @param config
+     * @param cache
+     */
+    public RiskModelPopulationUniqueness(ARXPopulationModel model,
+                                         RiskModelHistogram classes,
+                                         ARXSolverConfiguration config,
+                                         ModelSolverCache cache) {
+        this(model,
+             classes,
+             new WrappedBoolean(),
+             new WrappedInteger(),
+             config,
+             cache,
              false);
     }
 
@@ -93,6 +187,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
      * @param stop
      * @param progress
      * @param config
+     * @param cache May be null
      * @param precompute
      */
     RiskModelPopulationUniqueness(ARXPopulationModel model,
@@ -100,6 +195,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
                                   WrappedBoolean stop,
                                   WrappedInteger progress,
                                   ARXSolverConfiguration config,
+                                  ModelSolverCache cache,
                                   boolean precompute) {
         super(histogram, model, stop, progress);
 
@@ -110,6 +206,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         this.histogram = histogram;
         this.config = config;
         this.stop = stop;
+        this.cache = cache;
 
         // Handle cases where there are no sample uniques
         if (numClassesOfSize1 == 0) {
@@ -269,11 +366,14 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         if (numUniquesPitman == -1) {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesPitman = 0;
+            } else if (cache != null) {
+                numUniquesPitman = cache.getNumUniquesPitman(model, histogram, config, stop);
             } else {
                 numUniquesPitman = new ModelPitman(model,
                                                    histogram,
                                                    config,
-                                                   stop).getNumUniques();
+                                                   stop,
+                                                   null).getNumUniques();
             }
         }
         return isValid(numUniquesPitman) ? numUniquesPitman : 0d;
@@ -287,11 +387,14 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         if (numUniquesSNB == -1) {
             if (this.numClassesOfSize1 == 0) {
                 numUniquesSNB = 0;
+            } else if (cache != null) {
+                numUniquesSNB = cache.getNumUniquesSNB(model, histogram, config, stop);
             } else {
                 numUniquesSNB = new ModelSNB(model,
                                              histogram,
                                              config,
-                                             stop).getNumUniques();
+                                             stop,
+                                             null).getNumUniques();
             }
         }
         return isValid(numUniquesSNB) ? numUniquesSNB : 0d;
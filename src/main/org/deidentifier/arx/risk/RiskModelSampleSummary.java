@@ -16,13 +16,9 @@
  */
 package org.deidentifier.arx.risk;
 
-import java.util.Arrays;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
-import org.deidentifier.arx.common.Groupify;
-import org.deidentifier.arx.common.Groupify.Group;
-import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -174,18 +170,32 @@ public class RiskModelSampleSummary {
         // Init
         this.threshold = threshold;
         
-        // Prepare
-        Groupify<TupleWrapper> sample;
-        Groupify<TupleWrapper> population;
+        // Prepare: class sizes in the sample and sizes of the according classes in the population
+        EquivalenceClassIndex sampleIndex;
+        int[] sample;
+        int[] population;
         if (handle.getSuperset() != null) {
-            sample = getGroups(handle, identifiers, 0d, 0.45d, stop, progress, false);
-            population = getGroups(handle.getSuperset(), identifiers,  0.45d, 0.45d, stop, progress, true);
+            DataHandleInternal superset = handle.getSuperset();
+            sampleIndex = handle.getEquivalenceClassCache().getIndex(handle, identifiers, false, stop, progress, 0.0045d);
+            EquivalenceClassIndex populationIndex = superset.getEquivalenceClassCache().getIndex(superset, identifiers, true, stop, progress, 0.0045d);
+            sample = sampleIndex.getSizes();
+            population = new int[sample.length];
+            int[] sizes = populationIndex.getSizes();
+            int numRows = handle.getNumRows();
+            for (int row = 0; row < numRows; row++) {
+                int clazz = sampleIndex.getClass(row);
+                if (clazz != -1) {
+                    population[clazz] = sizes[populationIndex.getClass(handle.getSupersetRow(row))];
+                }
+                if (stop.value) { throw new ComputationInterruptedException(); }
+            }
         } else {
-            sample = getGroups(handle, identifiers, 0d, 0.9d, stop, progress, false);
+            sampleIndex = handle.getEquivalenceClassCache().getIndex(handle, identifiers, false, stop, progress, 0.009d);
+            sample = sampleIndex.getSizes();
             population = sample;
         }
         
-        this.prosecutorRisk = getProsecutorRisk(population, sample, 0.9d, stop, progress);
+        this.prosecutorRisk = getProsecutorRisk(sample, 0.9d, stop, progress);
         this.journalistRisk = getJournalistRisk(population, sample, 0.933d, stop, progress);
         this.marketerRisk = getMarketerRisk(population, sample, 0.966d, stop, progress);
     }
@@ -222,76 +232,17 @@ public class RiskModelSampleSummary {
         return threshold;
     }
 
-    /**
-     * Computes the equivalence classes
-     * @param handle
-     * @param qis
-     * @param offset
-     * @param factor
-     * @param stop
-     * @param progress
-     * @param ignoreOutliers 
-     * @return
-     */
-    private Groupify<TupleWrapper> getGroups(DataHandleInternal handle,
-                                             Set<String> qis,
-                                             double offset,
-                                             double factor,
-                                             WrappedBoolean stop,
-                                             WrappedInteger progress,
-                                             boolean ignoreOutliers) {
-
-        /* ********************************
-         * Check 
-         * ********************************/
-        if (handle == null) { throw new NullPointerException("Handle is null"); }
-        if (qis == null) { throw new NullPointerException("Quasi identifiers must not be null"); }
-        for (String q : qis) {
-            if (handle.getColumnIndexOf(q) == -1) { throw new IllegalArgumentException(q + " is not an attribute"); }
-        }
-
-        /* ********************************
-         * Build equivalence classes 
-         * ********************************/
-        final int[] indices = new int[qis.size()];
-        int index = 0;
-        for (final String attribute : qis) {
-            indices[index++] = handle.getColumnIndexOf(attribute);
-        }
-        Arrays.sort(indices);
-
-        // Calculate equivalence classes
-        int capacity = handle.getNumRows() / 10;
-        capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
-        int numRows = handle.getNumRows();
-        for (int row = 0; row < numRows; row++) {
-
-            int prog = (int) Math.round(offset + (double) row / (double) numRows * factor);
-            if (prog != progress.value) {
-                progress.value = prog;
-            }
-
-            TupleWrapper tuple = new TupleWrapper(handle, indices, row, ignoreOutliers);
-            map.add(tuple);
-            if (stop.value) { throw new ComputationInterruptedException(); }
-        }
-
-        // Return
-        return map;
-    }
-
     /**
      * Computes risks
-     * @param population
-     * @param sample
+     * @param population The size of the class of each class of the sample in the population
+     * @param sample The size of each class of the sample
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private JournalistRisk getJournalistRisk(Groupify<TupleWrapper> population,
-                                             Groupify<TupleWrapper> sample,
+    private JournalistRisk getJournalistRisk(int[] population,
+                                             int[] sample,
                                              double offset,
                                              WrappedBoolean stop,
                                              WrappedInteger progress) {
@@ -304,45 +255,33 @@ public class RiskModelSampleSummary {
         double numRecordsInSample = 0d;
         double numClassesInSample = 0d;
         double smallestClassSizeInPopulation = Integer.MAX_VALUE;
-        int maxindex = sample.size();
-        int index = 0;
+        int maxindex = sample.length;
         
-        // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        // For each group of unsuppressed records
+        for (int index = 0; index < maxindex; index++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) index / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
-            // Only process unsuppressed records
-            if (!element.getElement().isOutlier()) {
-                
-                int groupSizeInSample = element.getCount();
-                int groupSizeInPopulation = groupSizeInSample;
-                if (population != sample) {
-                    groupSizeInPopulation = population.get(element.getElement()).getCount();
-                }
-                
-                // Compute rA
-                if (1d / groupSizeInPopulation > threshold) {
-                    rA += groupSizeInSample;
-                }
-                // Compute rB
-                if (groupSizeInPopulation < smallestClassSizeInPopulation) {
-                    smallestClassSizeInPopulation = groupSizeInPopulation;
-                }
-                // Compute rC
-                numClassesInSample++;
-                numRecordsInSample += groupSizeInSample;
-                rC1 += groupSizeInPopulation;
-                rC2 += (double)groupSizeInSample / (double)groupSizeInPopulation;
+            int groupSizeInSample = sample[index];
+            int groupSizeInPopulation = population[index];
+            
+            // Compute rA
+            if (1d / groupSizeInPopulation > threshold) {
+                rA += groupSizeInSample;
+            }
+            // Compute rB
+            if (groupSizeInPopulation < smallestClassSizeInPopulation) {
+                smallestClassSizeInPopulation = groupSizeInPopulation;
             }
-                
-            // Next element
-            element = element.next();
+            // Compute rC
+            numClassesInSample++;
+            numRecordsInSample += groupSizeInSample;
+            rC1 += groupSizeInPopulation;
+            rC2 += (double)groupSizeInSample / (double)groupSizeInPopulation;
             
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
@@ -365,15 +304,15 @@ public class RiskModelSampleSummary {
 
     /**
      * Computes risks
-     * @param population
-     * @param sample
+     * @param population The size of the class of each class of the sample in the population
+     * @param sample The size of each class of the sample
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private MarketerRisk getMarketerRisk(Groupify<TupleWrapper> population,
-                                         Groupify<TupleWrapper> sample,
+    private MarketerRisk getMarketerRisk(int[] population,
+                                         int[] sample,
                                          double offset,
                                          WrappedBoolean stop,
                                          WrappedInteger progress) {
@@ -381,35 +320,23 @@ public class RiskModelSampleSummary {
         // Init
         double rC = 0d;
         double numRecordsInSample = 0d;
-        int maxindex = sample.size();
-        int index = 0;
+        int maxindex = sample.length;
         
-        // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        // For each group of unsuppressed records
+        for (int index = 0; index < maxindex; index++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) index / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
-            // Only process unsuppressed records
-            if (!element.getElement().isOutlier()) {
-                
-                int groupSizeInSample = element.getCount();
-                int groupSizeInPopulation = groupSizeInSample;
-                if (population != sample) {
-                    groupSizeInPopulation = population.get(element.getElement()).getCount();
-                }
-                
-                // Compute rC
-                numRecordsInSample += groupSizeInSample;
-                rC += (double)groupSizeInSample / (double)groupSizeInPopulation;
-            }
-                
-            // Next element
-            element = element.next();
+            int groupSizeInSample = sample[index];
+            int groupSizeInPopulation = population[index];
+            
+            // Compute rC
+            numRecordsInSample += groupSizeInSample;
+            rC += (double)groupSizeInSample / (double)groupSizeInPopulation;
             
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
@@ -424,15 +351,13 @@ public class RiskModelSampleSummary {
 
     /**
      * Computes risks
-     * @param population
-     * @param sample
+     * @param sample The size of each class of the sample
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private ProsecutorRisk getProsecutorRisk(Groupify<TupleWrapper> population,
-                                             Groupify<TupleWrapper> sample,
+    private ProsecutorRisk getProsecutorRisk(int[] sample,
                                              double offset,
                                              WrappedBoolean stop,
                                              WrappedInteger progress) {
@@ -444,38 +369,29 @@ public class RiskModelSampleSummary {
         double numRecords = 0d;
         double numClasses = 0d;
         double smallestClassSize = Integer.MAX_VALUE;
-        int maxindex = sample.size();
-        int index = 0;
+        int maxindex = sample.length;
         
-        // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        // For each group of unsuppressed records
+        for (int index = 0; index < maxindex; index++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) index / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
-            // Only process unsuppressed records
-            if (!element.getElement().isOutlier()) {
-                
-                // Compute rA
-                int groupSize = element.getCount();
-                if (1d / groupSize > threshold) {
-                    rA += groupSize;
-                }
-                // Compute rB
-                if (groupSize < smallestClassSize) {
-                    smallestClassSize = groupSize;
-                }
-                // Compute rC
-                numClasses++;
-                numRecords += groupSize;
+            // Compute rA
+            int groupSize = sample[index];
+            if (1d / groupSize > threshold) {
+                rA += groupSize;
+            }
+            // Compute rB
+            if (groupSize < smallestClassSize) {
+                smallestClassSize = groupSize;
             }
-                
-            // Next element
-            element = element.next();
+            // Compute rC
+            numClasses++;
+            numRecords += groupSize;
             
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
@@ -0,0 +1,136 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Test;
+
+/**
+ * Tests anonymizing data with more quasi-identifiers than there are unrolled
+ * transformers. The classification of all checked transformations is compared
+ * to the result of a naive implementation.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationHighDimensional extends AbstractTest {
+
+    /** The number of quasi-identifiers */
+    private static final int DIMENSIONS = 16;
+
+    /** The number of records */
+    private static final int ROWS       = 300;
+
+    /** The parameter k */
+    private static final int K          = 2;
+
+    /**
+     * Performs the test.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        // Create data
+        Random random = new Random(0xCAFEBABE);
+        String[][] records = new String[ROWS][DIMENSIONS];
+        DefaultData data = Data.create();
+        String[] header = new String[DIMENSIONS];
+        for (int column = 0; column < DIMENSIONS; column++) {
+            header[column] = "attribute" + column;
+        }
+        data.add(header);
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < DIMENSIONS; column++) {
+                records[row][column] = String.valueOf(random.nextInt(column < 9 ? 2 : 3));
+            }
+            data.add(records[row]);
+        }
+        for (int column = 0; column < DIMENSIONS; column++) {
+            DefaultHierarchy hierarchy = Hierarchy.create();
+            for (int value = 0; value < 3; value++) {
+                hierarchy.add(String.valueOf(value), "*");
+            }
+            data.getDefinition().setAttributeType(header[column], hierarchy);
+        }
+
+        // Anonymize
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(K));
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+
+        // Compare
+        int checked = 0;
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                if (node.isChecked()) {
+                    int[] generalization = new int[DIMENSIONS];
+                    for (int column = 0; column < DIMENSIONS; column++) {
+                        generalization[column] = node.getGeneralization(header[column]);
+                    }
+                    assertEquals(isAnonymous(records, generalization), node.getAnonymity() == Anonymity.ANONYMOUS);
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > 1);
+    }
+
+    /**
+     * Returns whether the records are k-anonymous when transformed with the given generalization.
+     *
+     * @param records
+     * @param generalization
+     * @return
+     */
+    private boolean isAnonymous(String[][] records, int[] generalization) {
+        Map<String, Integer> classes = new HashMap<String, Integer>();
+        for (String[] record : records) {
+            StringBuilder builder = new StringBuilder();
+            for (int column = 0; column < DIMENSIONS; column++) {
+                builder.append(generalization[column] == 0 ? record[column] : "*").append(';');
+            }
+            String key = builder.toString();
+            Integer count = classes.get(key);
+            classes.put(key, count == null ? 1 : count + 1);
+        }
+        for (int count : classes.values()) {
+            if (count < K) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
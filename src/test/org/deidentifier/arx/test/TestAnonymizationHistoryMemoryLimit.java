@@ -0,0 +1,109 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests whether limiting the memory occupied by the history changes the result.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationHistoryMemoryLimit extends AbstractTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() {
+        return Arrays.asList(new Object[][] {
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 0d, null, false) },
+        });
+    }
+
+    /** The test case */
+    private final ARXAnonymizationTestCase testCase;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationHistoryMemoryLimit(final ARXAnonymizationTestCase testCase) {
+        this.testCase = testCase;
+    }
+
+    /**
+     * Compares a run without a memory limit with runs with a small and a large limit.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        ARXResult unlimited = anonymize(0L);
+        for (long limit : new long[] { 64L * 1024L, 64L * 1024L * 1024L }) {
+            ARXResult limited = anonymize(limit);
+            assertArrayEquals(unlimited.getGlobalOptimum().getTransformation(), limited.getGlobalOptimum().getTransformation());
+            assertEquals(unlimited.getGlobalOptimum().getHighestScore().toString(), limited.getGlobalOptimum().getHighestScore().toString());
+            DataHandle output1 = unlimited.getOutput();
+            DataHandle output2 = limited.getOutput();
+            for (int row = 0; row < output1.getNumRows(); row++) {
+                for (int column = 0; column < output1.getNumColumns(); column++) {
+                    assertEquals(output1.getValue(row, column), output2.getValue(row, column));
+                }
+            }
+            output1.release();
+            output2.release();
+        }
+    }
+
+    /**
+     * Anonymizes the data of the test case with the given memory limit
+     * @param limit
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(long limit) throws IOException {
+        ARXConfiguration config = testCase.config.clone();
+        config.setHistoryMemoryLimit(limit);
+        return new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+}
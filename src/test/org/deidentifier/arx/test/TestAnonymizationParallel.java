@@ -0,0 +1,158 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.criteria.OrderedDistanceTCloseness;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests whether parallel checking of transformations yields the same results as
+ * a single-threaded search.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationParallel extends AbstractTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 0d, null, true) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new OrderedDistanceTCloseness("occupation", 0.2d)), "occupation", "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(getHeuristicSearch(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), 300), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(getHeuristicSearch(ARXConfiguration.create(0.0d, Metric.createPrecisionMetric()).addPrivacyModel(new KAnonymity(5)), 300), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new KAnonymity(5)).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "./data/adult.csv", 0d, null, false) },
+        });
+    }
+
+    /**
+     * Enables the heuristic search algorithm with the given limit on the number of checks
+     * @param config
+     * @param steps
+     * @return
+     */
+    private static ARXConfiguration getHeuristicSearch(ARXConfiguration config, int steps) {
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+        config.setHeuristicSearchStepLimit(steps);
+        return config;
+    }
+
+    /** The test case */
+    private final ARXAnonymizationTestCase testCase;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationParallel(final ARXAnonymizationTestCase testCase) {
+        this.testCase = testCase;
+    }
+
+    /**
+     * Compares a single-threaded with a multi-threaded run.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        testCase.config.setPracticalMonotonicity(testCase.practical);
+        ARXResult sequential = anonymize(1);
+        ARXResult parallel = anonymize(4);
+
+        // Compare optimum
+        if (sequential.getGlobalOptimum() == null) {
+            assertEquals(null, parallel.getGlobalOptimum());
+        } else {
+            assertArrayEquals(sequential.getGlobalOptimum().getTransformation(), parallel.getGlobalOptimum().getTransformation());
+            assertEquals(sequential.getGlobalOptimum().getHighestScore().toString(), parallel.getGlobalOptimum().getHighestScore().toString());
+        }
+
+        // Compare classification of the solution space
+        assertArrayEquals(getStatistics(sequential), getStatistics(parallel));
+        
+        // Check limit
+        assertTrue(getStatistics(parallel)[1] <= testCase.config.getHeuristicSearchStepLimit());
+    }
+
+    /**
+     * Anonymizes the data of the test case with the given number of threads
+     * @param threads
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(int threads) throws IOException {
+        ARXConfiguration config = testCase.config.clone();
+        config.setNumberOfThreads(threads);
+        return new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+
+    /**
+     * Collects statistics about the solution space
+     * @param result
+     * @return
+     */
+    private int[] getStatistics(ARXResult result) {
+        int[] statistics = new int[4];
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                statistics[0]++;
+                statistics[1] += node.isChecked() ? 1 : 0;
+                statistics[2] += node.getAnonymity().ordinal();
+                statistics[3] += node.getHighestScore().compareTo(node.getLowestScore()) == 0 ? 1 : 0;
+            }
+        }
+        return statistics;
+    }
+}
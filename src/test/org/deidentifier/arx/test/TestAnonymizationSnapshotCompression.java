@@ -0,0 +1,141 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests whether compressing the snapshots in the history yields the same results as
+ * using uncompressed snapshots.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationSnapshotCompression extends AbstractTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 0d, null, true) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", 0d, null, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new KAnonymity(5)).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "./data/adult.csv", 0d, null, false) },
+        });
+    }
+
+    /** The test case */
+    private final ARXAnonymizationTestCase testCase;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationSnapshotCompression(final ARXAnonymizationTestCase testCase) {
+        this.testCase = testCase;
+    }
+
+    /**
+     * Compares a run with uncompressed snapshots with runs with compressed snapshots.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        testCase.config.setPracticalMonotonicity(testCase.practical);
+        ARXResult uncompressed = anonymize(false, 0L);
+        for (long limit : new long[] { 0L, 64L * 1024L }) {
+            ARXResult compressed = anonymize(true, limit);
+
+            // Compare optimum
+            if (uncompressed.getGlobalOptimum() == null) {
+                assertEquals(null, compressed.getGlobalOptimum());
+            } else {
+                assertArrayEquals(uncompressed.getGlobalOptimum().getTransformation(), compressed.getGlobalOptimum().getTransformation());
+                assertEquals(uncompressed.getGlobalOptimum().getHighestScore().toString(), compressed.getGlobalOptimum().getHighestScore().toString());
+            }
+
+            // Compare classification of the solution space
+            assertArrayEquals(getStatistics(uncompressed), getStatistics(compressed));
+        }
+    }
+
+    /**
+     * Anonymizes the data of the test case
+     * @param compressed
+     * @param limit
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(boolean compressed, long limit) throws IOException {
+        ARXConfiguration config = testCase.config.clone();
+        config.setSnapshotCompressionEnabled(compressed);
+        config.setHistoryMemoryLimit(limit);
+        return new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+
+    /**
+     * Collects statistics about the solution space
+     * @param result
+     * @return
+     */
+    private int[] getStatistics(ARXResult result) {
+        int[] statistics = new int[4];
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                statistics[0]++;
+                statistics[1] += node.isChecked() ? 1 : 0;
+                statistics[2] += node.getAnonymity().ordinal();
+                statistics[3] += node.getHighestScore().compareTo(node.getLowestScore()) == 0 ? 1 : 0;
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLogisticRegressionConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.aggregates.StatisticsClassification;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the evaluation of classification performance. The expected values have been
+ * obtained by encoding the features of each record as strings for each fold.
+ *
+ * @author Fabian Prasser
+ */
+public class TestClassification extends AbstractTest {
+
+    /** Features */
+    private static final String[] FEATURES = new String[] { "sex", "age", "race", "marital-status", "education",
+                                                            "native-country", "workclass", "occupation", "salary-class" };
+
+    /** Class */
+    private static final String   CLAZZ    = "marital-status";
+
+    /**
+     * Tests input data.
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testInput() throws IOException, ParseException {
+        Data data = getAdult();
+        StatisticsClassification result = data.getHandle().getStatistics().getClassificationPerformance(FEATURES, CLAZZ, ARXLogisticRegressionConfiguration.create());
+        assertEquals(0.6953119819640607d, result.getOriginalAccuracy(), 0d);
+        assertEquals(0.4663152310854718d, result.getZeroRAccuracy(), 0d);
+        assertEquals(0.6953119819640607d, result.getAccuracy(), 0d);
+        assertEquals(0.43014043993202655d, result.getOriginalAverageError(), 0d);
+        assertEquals(7, result.getNumClasses());
+        assertEquals(30162, result.getNumMeasurements());
+    }
+
+    /**
+     * Tests output data.
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testOutput() throws IOException, ParseException {
+        Data data = getAdult();
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(1d);
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        StatisticsClassification statistics = result.getOutput().getStatistics().getClassificationPerformance(FEATURES, CLAZZ, ARXLogisticRegressionConfiguration.create());
+        assertEquals(0.6953119819640607d, statistics.getOriginalAccuracy(), 0d);
+        assertEquals(0.6625555334526888d, statistics.getAccuracy(), 0d);
+        assertEquals(0.458083337747312d, statistics.getAverageError(), 0d);
+        assertEquals(30162, statistics.getNumMeasurements());
+    }
+
+    /**
+     * Tests that evaluating folds in parallel does not change the results.
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testParallel() throws IOException, ParseException {
+        Data data = getAdult();
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(1d);
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        ARXLogisticRegressionConfiguration classification = ARXLogisticRegressionConfiguration.create().setNumberOfThreads(4);
+        StatisticsClassification statistics = result.getOutput().getStatistics().getClassificationPerformance(FEATURES, CLAZZ, classification);
+        assertEquals(0.6953119819640607d, statistics.getOriginalAccuracy(), 0d);
+        assertEquals(0.43014043993202655d, statistics.getOriginalAverageError(), 0d);
+        assertEquals(0.6625555334526888d, statistics.getAccuracy(), 0d);
+        assertEquals(0.458083337747312d, statistics.getAverageError(), 0d);
+        assertEquals(30162, statistics.getNumMeasurements());
+    }
+
+    /**
+     * Returns the adult dataset
+     *
+     * @return
+     * @throws IOException
+     */
+    private Data getAdult() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        Data data = AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+        data.getDefinition().setAttributeType(CLAZZ, AttributeType.INSENSITIVE_ATTRIBUTE);
+        data.getDefinition().setDataType("age", DataType.INTEGER);
+        return data;
+    }
+}
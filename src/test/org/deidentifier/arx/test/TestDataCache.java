@@ -0,0 +1,117 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataCache;
+import org.deidentifier.arx.DataDefinition;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the persistent cache for encoded input data.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataCache extends AbstractTest {
+
+    /**
+     * Tests whether data read from the cache equals the data in the file and yields
+     * the same anonymization result.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCache() throws IOException {
+
+        // Prepare
+        File directory = File.createTempFile("arx", ".cache");
+        directory.delete();
+        directory.deleteOnExit();
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false));
+        config.addPrivacyModel(new KAnonymity(5));
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+        Data reference = AbstractAnonymizationTest.getDataObject(testCase);
+
+        // Load twice, the second time from the cache
+        DataCache cache = new DataCache(directory);
+        File file = new File(testCase.dataset);
+        CSVSyntax syntax = new CSVSyntax(';');
+        Data parsed = cache.load(file, StandardCharsets.UTF_8, syntax);
+        Data cached = cache.load(file, StandardCharsets.UTF_8, syntax);
+        File[] entries = directory.listFiles();
+        assertEquals(1, entries.length);
+        entries[0].deleteOnExit();
+
+        // Compare input
+        compare(reference.getHandle(), parsed.getHandle());
+        compare(reference.getHandle(), cached.getHandle());
+
+        // Compare output
+        setDefinition(reference.getDefinition(), parsed.getDefinition());
+        setDefinition(reference.getDefinition(), cached.getDefinition());
+        ARXResult result1 = new ARXAnonymizer().anonymize(parsed, config);
+        ARXResult result2 = new ARXAnonymizer().anonymize(cached, config);
+        assertArrayEquals(result1.getGlobalOptimum().getTransformation(), result2.getGlobalOptimum().getTransformation());
+        assertEquals(result1.getGlobalOptimum().getHighestScore().toString(), result2.getGlobalOptimum().getHighestScore().toString());
+        compare(result1.getOutput(), result2.getOutput());
+    }
+
+    /**
+     * Compares the handles
+     * @param handle1
+     * @param handle2
+     */
+    private void compare(DataHandle handle1, DataHandle handle2) {
+        assertEquals(handle1.getNumRows(), handle2.getNumRows());
+        assertEquals(handle1.getNumColumns(), handle2.getNumColumns());
+        for (int column = 0; column < handle1.getNumColumns(); column++) {
+            assertEquals(handle1.getAttributeName(column), handle2.getAttributeName(column));
+        }
+        for (int row = 0; row < handle1.getNumRows(); row++) {
+            for (int column = 0; column < handle1.getNumColumns(); column++) {
+                assertEquals(handle1.getValue(row, column), handle2.getValue(row, column));
+            }
+        }
+    }
+
+    /**
+     * Copies the attribute types
+     * @param source
+     * @param target
+     */
+    private void setDefinition(DataDefinition source, DataDefinition target) {
+        for (String attribute : source.getQuasiIdentifyingAttributes()) {
+            target.setAttributeType(attribute, source.getAttributeType(attribute));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.data.DataColumns;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the bit-packed, columnar representation of data.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataColumns extends AbstractTest {
+
+    /**
+     * Tests whether values are packed and unpacked correctly.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPacking() throws IOException {
+
+        // Columns with 1, 3, 5, 7, 13, 17, 31 bits
+        int[] domains = new int[] { 2, 5, 17, 100, 5000, 100000, Integer.MAX_VALUE };
+        Random random = new Random(0xDEADBEEF);
+        int[][] data = new int[1000][domains.length];
+        for (int row = 0; row < data.length; row++) {
+            for (int column = 0; column < domains.length; column++) {
+                data[row][column] = random.nextInt(domains[column]);
+            }
+        }
+        data[0][domains.length - 1] = Integer.MAX_VALUE - 1;
+
+        // Check on heap, mapped, reused and re-opened from file
+        File file = File.createTempFile("arx", ".columns");
+        try {
+            DataColumns[] instances = new DataColumns[] { new DataColumns(data, domains.length),
+                                                          new DataColumns(data, domains.length, file),
+                                                          new DataColumns(data, domains.length, file),
+                                                          new DataColumns(file) };
+            check(data, domains, instances);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests whether files are reused if they contain the same data and replaced otherwise,
+     * including stale files whose layout matches but whose contents differ.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testReuse() throws IOException {
+
+        int[][] data = new int[100000][2];
+        for (int row = 0; row < data.length; row++) {
+            data[row] = new int[] { row, row % 3 };
+        }
+        File file = File.createTempFile("arx", ".columns");
+        try {
+            DataColumns columns = new DataColumns(data, 2, file);
+            long modified = file.lastModified();
+            file.setLastModified(modified - 10000L);
+            modified = file.lastModified();
+
+            // Same data
+            new DataColumns(data, 2, file);
+            assertEquals(modified, file.lastModified());
+
+            // Different data
+            data[500][1] = 0;
+            DataColumns other = new DataColumns(data, 2, file);
+            assertTrue(modified != file.lastModified());
+            assertEquals(0, other.get(500, 1));
+            assertEquals(500 % 3, columns.get(500, 1));
+
+            // Stale contents
+            file.setLastModified(modified);
+            RandomAccessFile output = new RandomAccessFile(file, "rw");
+            try {
+                output.seek(output.length() - 1);
+                int value = output.read();
+                output.seek(output.length() - 1);
+                output.write(~value);
+            } finally {
+                output.close();
+            }
+            file.setLastModified(modified);
+            other = new DataColumns(data, 2, file);
+            assertTrue(modified != file.lastModified());
+            assertEquals(99999 % 3, other.get(99999, 1));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks whether the instances contain the given data.
+     *
+     * @param data
+     * @param domains
+     * @param instances
+     */
+    private void check(int[][] data, int[] domains, DataColumns[] instances) {
+        int[] buffer = new int[domains.length];
+        for (DataColumns columns : instances) {
+            assertEquals(data.length, columns.getNumRows());
+            assertEquals(domains.length, columns.getNumColumns());
+            assertEquals(31, columns.getBits(domains.length - 1));
+            for (int row = 0; row < data.length; row++) {
+                assertArrayEquals(data[row], columns.getRow(row, buffer));
+            }
+        }
+    }
+
+    /**
+     * Tests whether rows are swapped correctly.
+     */
+    @Test
+    public void testSwap() {
+
+        int[][] data = new int[100][3];
+        for (int row = 0; row < data.length; row++) {
+            data[row] = new int[] { row, row % 7, row % 2 };
+        }
+        DataColumns columns = new DataColumns(data, 3);
+        int[] buffer = new int[3];
+        for (int row = 0; row < data.length / 2; row++) {
+            int other = data.length - 1 - row;
+            columns.swap(row, other);
+            int[] temp = data[row];
+            data[row] = data[other];
+            data[other] = temp;
+        }
+        columns.swap(0, 1);
+        int[] temp = data[0];
+        data[0] = data[1];
+        data[1] = temp;
+        for (int row = 0; row < data.length; row++) {
+            assertArrayEquals(data[row], columns.getRow(row, buffer));
+            assertEquals(data[row][1], columns.get(row, 1));
+        }
+    }
+
+    /**
+     * Tests whether anonymizing with columnar input yields the same result as
+     * anonymizing with row-oriented input.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAnonymization() throws IOException {
+
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false));
+        config.addPrivacyModel(new KAnonymity(5));
+        config.addPrivacyModel(new DistinctLDiversity("occupation", 3));
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "occupation", "./data/adult.csv", 0d, null, false);
+
+        ARXResult rows = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+        ARXConfiguration columnar = config.clone();
+        columnar.setColumnarInputEnabled(true);
+        ARXResult columns = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), columnar);
+        compare(rows, columns);
+
+        // Mapped into memory
+        File file = File.createTempFile("arx", ".columns");
+        try {
+            columnar.setColumnarInputFile(file);
+            columns = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), columnar);
+            compare(rows, columns);
+        } finally {
+            file.delete();
+        }
+
+        // Sorting swaps rows of the columns
+        rows.getOutput().sort(true, 0, 3);
+        columns.getOutput().sort(true, 0, 3);
+        compare(rows, columns);
+    }
+
+    /**
+     * Compares the results
+     * @param rows
+     * @param columns
+     */
+    private void compare(ARXResult rows, ARXResult columns) {
+        assertArrayEquals(rows.getGlobalOptimum().getTransformation(), columns.getGlobalOptimum().getTransformation());
+        assertEquals(rows.getGlobalOptimum().getHighestScore().toString(), columns.getGlobalOptimum().getHighestScore().toString());
+        DataHandle output1 = rows.getOutput();
+        DataHandle output2 = columns.getOutput();
+        for (int row = 0; row < output1.getNumRows(); row++) {
+            for (int column = 0; column < output1.getNumColumns(); column++) {
+                assertEquals(output1.getValue(row, column), output2.getValue(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.BinaryDataInput;
+import org.deidentifier.arx.io.BinaryDataOutput;
+import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests writing output data directly from the encoded data, in blocks of CSV rows and in
+ * a binary columnar format.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataExport extends AbstractTest {
+
+    /**
+     * Tests writing and reading the binary format.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBinary() throws IOException {
+
+        DataHandle output = getOutput();
+        File file = File.createTempFile("arx", ".bin");
+        file.deleteOnExit();
+        output.save(new BinaryDataOutput(file));
+
+        // Writing to a stream yields the same bytes
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        output.save(new BinaryDataOutput(stream));
+        assertArrayEquals(Files.readAllBytes(file.toPath()), stream.toByteArray());
+
+        // Rows
+        BinaryDataInput input = new BinaryDataInput(file);
+        assertEquals(output.getNumRows(), input.getNumRows());
+        Iterator<String[]> expected = output.iterator();
+        for (String[] row : input) {
+            assertArrayEquals(expected.next(), row);
+        }
+        assertTrue(!expected.hasNext());
+
+        // CSV
+        stream = new ByteArrayOutputStream();
+        new CSVDataOutput(stream).write(input);
+        assertEquals(getRows(output, new CSVSyntax()), stream.toString());
+
+        // Handle
+        DataHandle handle = Data.create(input).getHandle();
+        expected = output.iterator();
+        Iterator<String[]> actual = handle.iterator();
+        while (expected.hasNext()) {
+            assertArrayEquals(expected.next(), actual.next());
+        }
+        assertTrue(!actual.hasNext());
+        for (int column = 0; column < handle.getNumColumns(); column++) {
+            assertEquals(output.getStatistics().getDistinctValues(column).length,
+                         handle.getStatistics().getDistinctValues(column).length);
+        }
+
+        // Compact
+        assertTrue(file.length() * 4 < getRows(output, new CSVSyntax()).length());
+    }
+
+    /**
+     * Tests that writing blocks yields the same result as writing rows.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBlocks() throws IOException {
+
+        DataHandle output = getOutput();
+        CSVSyntax[] syntaxes = new CSVSyntax[] { new CSVSyntax(),
+                                                 new CSVSyntax('-', '\'', '\'', "\r\n"),
+                                                 new CSVSyntax('a', '"', '"', "\r") };
+        for (CSVSyntax syntax : syntaxes) {
+            String expected = getRows(output, syntax);
+            for (int threads : new int[] { 1, 3 }) {
+                for (int blockSize : new int[] { 1, 7, CSVDataOutput.DEFAULT_BLOCK_SIZE }) {
+                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                    CSVDataOutput csv = new CSVDataOutput(stream, syntax);
+                    csv.setBlockSize(blockSize);
+                    csv.setNumberOfThreads(threads);
+                    output.save(csv);
+                    assertEquals(expected, stream.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that sorted data is written in order.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSorted() throws IOException {
+        DataHandle output = getOutput();
+        output.sort(false, 0, 1);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        output.save(stream);
+        assertEquals(getRows(output, new CSVSyntax()), stream.toString());
+    }
+
+    /**
+     * Returns an anonymized version of the adult dataset with outliers, identifiers and
+     * insensitive attributes
+     *
+     * @return
+     * @throws IOException
+     */
+    private DataHandle getOutput() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setMaxOutliers(0.04d);
+        Data data = AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+        data.getDefinition().setAttributeType("race", AttributeType.IDENTIFYING_ATTRIBUTE);
+        data.getDefinition().setAttributeType("salary-class", AttributeType.INSENSITIVE_ATTRIBUTE);
+        return new ARXAnonymizer().anonymize(data, config).getOutput();
+    }
+
+    /**
+     * Writes the rows returned by the iterator of the handle
+     *
+     * @param handle
+     * @param syntax
+     * @return
+     * @throws IOException
+     */
+    private String getRows(DataHandle handle, CSVSyntax syntax) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new CSVDataOutput(stream, syntax).write(handle.iterator());
+        return stream.toString();
+    }
+}
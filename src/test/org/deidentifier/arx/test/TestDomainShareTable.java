@@ -0,0 +1,114 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.DomainShareMaterialized;
+import org.deidentifier.arx.metric.v2.DomainShareTable;
+import org.junit.Test;
+
+/**
+ * Tests domain shares which are materialized into flat tables.
+ *
+ * @author Fabian Prasser
+ */
+public class TestDomainShareTable extends AbstractTest {
+
+    /** Hierarchy */
+    private static final String[][] HIERARCHY = new String[][] { { "a", "ab", "*" },
+                                                                 { "b", "ab", "*" },
+                                                                 { "c", "c", "*" },
+                                                                 { "d", "de", "*" },
+                                                                 { "e", "de", "*" } };
+
+    /** Encoded values */
+    private static final String[]   VALUES    = new String[] { "a", "b", "c", "d", "e", "ab", "de", "*" };
+
+    /** Encoded hierarchy */
+    private static final int[][]    ENCODED   = new int[][] { { 0, 5, 7 },
+                                                              { 1, 5, 7 },
+                                                              { 2, 2, 7 },
+                                                              { 3, 6, 7 },
+                                                              { 4, 6, 7 } };
+
+    /**
+     * Tests that the table returns the same shares as the shares it has been derived from.
+     */
+    @Test
+    public void testShares() {
+        DomainShare source = new DomainShareMaterialized(HIERARCHY, VALUES, ENCODED);
+        DomainShareTable table = new DomainShareTable(source, VALUES.length, 3);
+        assertEquals(source.getDomainSize(), table.getDomainSize(), 0d);
+        assertSameShares(source, table, 3);
+        assertSameShares(table, table.clone(), 3);
+    }
+
+    /**
+     * Tests that the table is rebuilt after de-serialization.
+     *
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        DomainShare source = new DomainShareMaterialized(HIERARCHY, VALUES, ENCODED);
+        DomainShareTable table = new DomainShareTable(source, VALUES.length, 3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(table);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        DomainShareTable restored = (DomainShareTable) in.readObject();
+        in.close();
+        assertSameShares(source, restored, 3);
+    }
+
+    /**
+     * Tests the memory limit.
+     */
+    @Test
+    public void testLimit() {
+        assertTrue(DomainShareTable.isSupported(1000, 4));
+        assertFalse(DomainShareTable.isSupported(0, 4));
+        assertFalse(DomainShareTable.isSupported(Integer.MAX_VALUE, 2));
+    }
+
+    /**
+     * Compares the shares for all values and levels.
+     *
+     * @param expected
+     * @param actual
+     * @param levels
+     */
+    private void assertSameShares(DomainShare expected, DomainShare actual, int levels) {
+        for (int value = 0; value < VALUES.length; value++) {
+            for (int level = 0; level < levels; level++) {
+                assertEquals(expected.getShare(value, level), actual.getShare(value, level), 0d);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.junit.Test;
+
+/**
+ * Tests the calculation of the hierarchical EMD. Distances are compared to distances calculated
+ * by walking all nodes of the hierarchy, for an unbalanced hierarchy, which is evaluated sparsely,
+ * and for a hierarchy in which a node has multiple parents, which is evaluated completely.
+ *
+ * @author Fabian Prasser
+ */
+public class TestHierarchicalDistanceTCloseness extends AbstractTest {
+
+    /** Number of values of the sensitive attribute */
+    private static final int VALUES        = 40;
+
+    /** Number of distributions, which is large enough for the cache to be cleared */
+    private static final int DISTRIBUTIONS = 20000;
+
+    /**
+     * Tests a hierarchy in which a node has multiple parents.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMultipleParents() throws IOException {
+        String[][] hierarchy = getHierarchy();
+        hierarchy[VALUES - 1][2] = "B0";
+        compare(hierarchy);
+    }
+
+    /**
+     * Tests an unbalanced hierarchy with multiple levels.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testUnbalancedTree() throws IOException {
+        compare(getHierarchy());
+    }
+
+    /**
+     * Calculates the distance by walking all nodes of the hierarchy.
+     *
+     * @param hierarchy
+     * @param p
+     * @param q
+     * @return
+     */
+    private double calculate(String[][] hierarchy, double[] p, double[] q) {
+
+        // Extras of leafs
+        int height = hierarchy[0].length - 1;
+        Map<String, Double> extras = new HashMap<String, Double>();
+        for (int value = 0; value < VALUES; value++) {
+            extras.put(hierarchy[value][0], p[value] - q[value]);
+        }
+
+        // Inner nodes, level by level
+        double cost = 0d;
+        for (int level = 1; level <= height; level++) {
+            Map<String, Set<String>> children = new HashMap<String, Set<String>>();
+            for (String[] row : hierarchy) {
+                if (!children.containsKey(row[level])) {
+                    children.put(row[level], new HashSet<String>());
+                }
+                children.get(row[level]).add(row[level - 1]);
+            }
+            Map<String, Double> next = new HashMap<String, Double>();
+            for (String node : children.keySet()) {
+                double positive = 0d;
+                double negative = 0d;
+                for (String child : children.get(node)) {
+                    double extra = extras.get(child);
+                    if (extra > 0d) {
+                        positive += extra;
+                    } else {
+                        negative -= extra;
+                    }
+                }
+                cost += (double) level / (double) height * Math.min(positive, negative);
+                next.put(node, positive - negative);
+            }
+            extras = next;
+        }
+        return cost;
+    }
+
+    /**
+     * Compares distances calculated by the criterion with distances calculated by walking all nodes.
+     *
+     * @param hierarchy
+     * @throws IOException
+     */
+    private void compare(String[][] hierarchy) throws IOException {
+
+        // Create data. Values are encoded in the order in which they appear.
+        DefaultData data = Data.create();
+        data.add("age", "disease");
+        int[] frequencies = new int[VALUES];
+        int rows = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int value = 0; value < VALUES; value++) {
+                if (value % 5 >= round) {
+                    data.add(String.valueOf(rows % 3), hierarchy[value][0]);
+                    frequencies[value]++;
+                    rows++;
+                }
+            }
+        }
+        DefaultHierarchy age = Hierarchy.create();
+        for (int value = 0; value < 3; value++) {
+            age.add(String.valueOf(value), "*");
+        }
+        data.getDefinition().setAttributeType("age", age);
+        data.getDefinition().setAttributeType("disease", AttributeType.SENSITIVE_ATTRIBUTE);
+
+        // Initialize criterion
+        HierarchicalDistanceTCloseness criterion = new HierarchicalDistanceTCloseness("disease", 1d, Hierarchy.create(hierarchy));
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(criterion);
+        new ARXAnonymizer().anonymize(data, config);
+
+        // Overall distribution
+        double[] p = new double[VALUES];
+        for (int value = 0; value < VALUES; value++) {
+            p[value] = (double) frequencies[value] / (double) rows;
+        }
+
+        // Random distributions, each of which is evaluated twice
+        Random random = new Random(0xCAFE);
+        List<Distribution> distributions = new ArrayList<Distribution>();
+        List<Double> expected = new ArrayList<Double>();
+        for (int i = 0; i < DISTRIBUTIONS; i++) {
+            int size = 1 + random.nextInt(VALUES);
+            int[] elements = new int[size];
+            int[] counts = new int[size];
+            double[] q = new double[VALUES];
+            int total = 0;
+            for (int j = 0; j < size; j++) {
+                elements[j] = random.nextInt(VALUES);
+                counts[j] = 1 + random.nextInt(10);
+                q[elements[j]] += counts[j];
+                total += counts[j];
+            }
+            for (int value = 0; value < VALUES; value++) {
+                q[value] /= total;
+            }
+            distributions.add(new Distribution(elements, counts));
+            expected.add(calculate(hierarchy, p, q));
+        }
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < DISTRIBUTIONS; i++) {
+                assertEquals(expected.get(i), criterion.getDistance(distributions.get(i)), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Returns an unbalanced hierarchy. Some values have no siblings, and the number of
+     * children varies between nodes and levels.
+     *
+     * @return
+     */
+    private String[][] getHierarchy() {
+        String[][] hierarchy = new String[VALUES][];
+        for (int value = 0; value < VALUES; value++) {
+            int level1 = value < 6 ? value : 6 + (value - 6) / 4;
+            int level2 = level1 < 2 ? 0 : level1 < 9 ? 1 + (level1 - 2) / 3 : 4 + (level1 - 9) / 6;
+            int level3 = level2 == 0 ? 0 : 1;
+            hierarchy[value] = new String[] { "v" + value, "A" + level1, "B" + level2, "C" + level3, "*" };
+        }
+        return hierarchy;
+    }
+}
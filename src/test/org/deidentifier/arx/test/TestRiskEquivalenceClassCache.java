@@ -0,0 +1,119 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.deidentifier.arx.risk.RiskModelSampleSummary;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests sharing equivalence classes between risk estimates for the same data handle.
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskEquivalenceClassCache extends AbstractTest {
+
+    /**
+     * Tests that cached classes are dropped when the data is modified.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInvalidation() throws IOException {
+
+        DataHandle handle = getAdult().getHandle();
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        RiskModelHistogram histogram = handle.getRiskEstimator(population).getEquivalenceClassModel();
+
+        // Sort
+        handle.sort(true, 0);
+        RiskModelHistogram sorted = handle.getRiskEstimator(population).getEquivalenceClassModel();
+        assertNotSame(histogram, sorted);
+        assertArrayEquals(histogram.getHistogram(), sorted.getHistogram());
+
+        // Replace
+        int column = handle.getColumnIndexOf("sex");
+        handle.replace(column, handle.getValue(0, column), "replaced");
+        RiskModelHistogram replaced = handle.getRiskEstimator(population).getEquivalenceClassModel();
+        assertNotSame(sorted, replaced);
+        assertArrayEquals(histogram.getHistogram(), replaced.getHistogram());
+    }
+
+    /**
+     * Tests that classes are shared between estimates for the same handle and attributes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testShared() throws IOException {
+
+        Data data = getAdult();
+        DataHandle handle = data.getHandle();
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        RiskModelHistogram histogram = handle.getRiskEstimator(population).getEquivalenceClassModel();
+        assertSame(histogram, handle.getRiskEstimator(population).getEquivalenceClassModel());
+
+        // Other attributes
+        Set<String> qis = new HashSet<String>(data.getDefinition().getQuasiIdentifyingAttributes());
+        qis.remove("sex");
+        assertNotSame(histogram, handle.getRiskEstimator(population, qis).getEquivalenceClassModel());
+
+        // Other transformation
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        DataHandle output = result.getOutput();
+        RiskModelHistogram outputHistogram = output.getRiskEstimator(population).getEquivalenceClassModel();
+        assertNotSame(histogram, outputHistogram);
+        assertSame(outputHistogram, output.getRiskEstimator(population).getEquivalenceClassModel());
+
+        // Risk summaries are based on the same classes
+        RiskModelSampleSummary summary = output.getRiskEstimator(population).getSampleBasedRiskSummary(0.1d);
+        assertEquals(outputHistogram.getNumClasses() / outputHistogram.getNumRecords(), summary.getProsecutorRisk().getSuccessRate(), 0d);
+        assertSame(outputHistogram, output.getRiskEstimator(population).getEquivalenceClassModel());
+    }
+
+    /**
+     * Returns the adult dataset
+     *
+     * @return
+     * @throws IOException
+     */
+    private Data getAdult() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        return AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.risk.RiskModelAttributes.QuasiIdentifierRisk;
+import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the incremental analysis of attribute risks. The results are compared to
+ * risks calculated from the equivalence classes of each combination of attributes.
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskModelAttributes extends AbstractTest {
+
+    /**
+     * Tests input data.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInput() throws IOException {
+        DataHandle handle = getAdult().getHandle();
+        QuasiIdentifierRisk[] risks = handle.getRiskEstimator(null).getAttributeRisks(Integer.MAX_VALUE, 1).getAttributeRisks();
+        assertEquals((1 << handle.getDefinition().getQuasiIdentifyingAttributes().size()) - 1, risks.length);
+        compare(handle, risks);
+    }
+
+    /**
+     * Tests a limit for the number of attributes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMaxSize() throws IOException {
+        DataHandle handle = getAdult().getHandle();
+        QuasiIdentifierRisk[] risks = handle.getRiskEstimator(null).getAttributeRisks(2).getAttributeRisks();
+        int size = handle.getDefinition().getQuasiIdentifyingAttributes().size();
+        assertEquals(size + size * (size - 1) / 2, risks.length);
+        compare(handle, risks);
+    }
+
+    /**
+     * Tests a limit for the number of attributes, using multiple threads.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMaxSizeMultipleThreads() throws IOException {
+        DataHandle handle = getAdult().getHandle();
+        QuasiIdentifierRisk[] risks = handle.getRiskEstimator(null).getAttributeRisks(3, 3).getAttributeRisks();
+        int size = handle.getDefinition().getQuasiIdentifyingAttributes().size();
+        assertEquals(size + size * (size - 1) / 2 + size * (size - 1) * (size - 2) / 6, risks.length);
+        compare(handle, risks);
+    }
+
+    /**
+     * Tests output data with suppressed records, using multiple threads.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOutput() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        Data data = getAdult();
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        DataHandle output = result.getOutput();
+        QuasiIdentifierRisk[] single = output.getRiskEstimator(null).getAttributeRisks(Integer.MAX_VALUE, 1).getAttributeRisks();
+        QuasiIdentifierRisk[] multi = output.getRiskEstimator(null).getAttributeRisks(Integer.MAX_VALUE, 4).getAttributeRisks();
+        assertEquals(single.length, multi.length);
+        for (int i = 0; i < single.length; i++) {
+            assertEquals(single[i].getIdentifier(), multi[i].getIdentifier());
+            assertEquals(single[i].getDistinction(), multi[i].getDistinction(), 0d);
+            assertEquals(single[i].getSeparation(), multi[i].getSeparation(), 0d);
+        }
+        compare(output, multi);
+    }
+
+    /**
+     * Compares the risks with risks calculated from the equivalence classes of each combination.
+     *
+     * @param handle
+     * @param risks
+     */
+    private void compare(DataHandle handle, QuasiIdentifierRisk[] risks) {
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        for (QuasiIdentifierRisk risk : risks) {
+
+            // Equivalence classes
+            List<String> identifier = risk.getIdentifier();
+            RiskModelHistogram histogram = handle.getRiskEstimator(population, new HashSet<String>(identifier)).getEquivalenceClassModel();
+            double records = histogram.getNumRecords();
+            int[] classes = histogram.getHistogram();
+            double pairs = 0d;
+            for (int i = 0; i < classes.length; i += 2) {
+                pairs += (double) classes[i + 1] * (double) classes[i] * (double) (classes[i] - 1) / 2d;
+            }
+
+            // Compare
+            assertEquals(identifier.toString(), histogram.getNumClasses() / records, risk.getDistinction(), 1e-9);
+            assertEquals(identifier.toString(), 1d - pairs / (records * (records - 1d) / 2d), risk.getSeparation(), 1e-9);
+        }
+    }
+
+    /**
+     * Returns the adult dataset
+     *
+     * @return
+     * @throws IOException
+     */
+    private Data getAdult() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        return AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests building equivalence classes from dictionary-encoded values for risk analyses.
+ * The resulting histograms are compared to the result of a naive implementation.
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskModelHistogram extends AbstractTest {
+
+    /**
+     * Tests input data.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInput() throws IOException {
+        DataHandle handle = getAdult().getHandle();
+        compare(handle, handle.getDefinition().getQuasiIdentifyingAttributes());
+    }
+
+    /**
+     * Tests output data with suppressed records.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOutput() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        Data data = getAdult();
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        DataHandle output = result.getOutput();
+        compare(output, data.getDefinition().getQuasiIdentifyingAttributes());
+        compare(output.getView(), data.getDefinition().getQuasiIdentifyingAttributes());
+    }
+
+    /**
+     * Tests data with attributes, the values of which cannot be packed into a single long.
+     */
+    @Test
+    public void testWide() {
+
+        // Create data
+        final int columns = 12;
+        final int rows = 5000;
+        Random random = new Random(0xCAFEBABE);
+        DefaultData data = Data.create();
+        String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = "attribute" + column;
+        }
+        data.add(header);
+        String[] record = null;
+        for (int row = 0; row < rows; row++) {
+            if (record == null || random.nextInt(3) != 0) {
+                record = new String[columns];
+                for (int column = 0; column < columns; column++) {
+                    record[column] = String.valueOf(random.nextInt(column == 0 ? 2 : 2000));
+                }
+            }
+            data.add(record);
+        }
+        compare(data.getHandle(), new HashSet<String>(Arrays.asList(header)));
+    }
+
+    /**
+     * Compares the histogram with the result of a naive implementation.
+     *
+     * @param handle
+     * @param qis
+     */
+    private void compare(DataHandle handle, Set<String> qis) {
+
+        // Naive
+        int[] indices = new int[qis.size()];
+        int index = 0;
+        for (String qi : qis) {
+            indices[index++] = handle.getColumnIndexOf(qi);
+        }
+        Map<List<String>, Integer> classes = new HashMap<List<String>, Integer>();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            if (!handle.isOutlier(row)) {
+                String[] values = new String[indices.length];
+                for (int i = 0; i < indices.length; i++) {
+                    values[i] = handle.getValue(row, indices[i]);
+                }
+                List<String> key = Arrays.asList(values);
+                Integer count = classes.get(key);
+                classes.put(key, count == null ? 1 : count + 1);
+            }
+        }
+        TreeMap<Integer, Integer> sizes = new TreeMap<Integer, Integer>();
+        for (int size : classes.values()) {
+            Integer count = sizes.get(size);
+            sizes.put(size, count == null ? 1 : count + 1);
+        }
+        int[] expected = new int[sizes.size() * 2];
+        index = 0;
+        for (Map.Entry<Integer, Integer> entry : sizes.entrySet()) {
+            expected[index++] = entry.getKey();
+            expected[index++] = entry.getValue();
+        }
+
+        // Compare
+        int[] actual = handle.getRiskEstimator(ARXPopulationModel.create(handle.getNumRows(), 0.1d), qis).getEquivalenceClassModel().getHistogram();
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Returns the adult dataset
+     *
+     * @return
+     * @throws IOException
+     */
+    private Data getAdult() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        return AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXSolverConfiguration;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.risk.ModelSolverCache;
+import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests caching and warm-starting the solvers used for estimating population uniqueness.
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskModelSolverCache extends AbstractTest {
+
+    /** Models */
+    private static final PopulationUniquenessModel[] MODELS = new PopulationUniquenessModel[] { PopulationUniquenessModel.PITMAN,
+                                                                                                PopulationUniquenessModel.SNB,
+                                                                                                PopulationUniquenessModel.DANKAR };
+
+    /**
+     * Tests that parallel batches produce the same estimates as individual estimates.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBatch() throws IOException {
+
+        ARXSolverConfiguration config = ARXSolverConfiguration.create();
+        RiskModelHistogram[] histograms = getHistograms();
+        for (double fraction : new double[] { 0.01d, 0.2d }) {
+            ARXPopulationModel population = ARXPopulationModel.create(30162, fraction);
+            for (PopulationUniquenessModel model : MODELS) {
+                RiskModelPopulationUniqueness[] result = RiskModelPopulationUniqueness.estimate(population,
+                                                                                               histograms,
+                                                                                               config,
+                                                                                               new ModelSolverCache(false),
+                                                                                               model,
+                                                                                               4);
+                assertEquals(histograms.length, result.length);
+                for (int i = 0; i < histograms.length; i++) {
+                    RiskModelPopulationUniqueness expected = new RiskModelPopulationUniqueness(population, histograms[i], config);
+                    assertEquals(expected.getNumUniqueTuples(model), result[i].getNumUniqueTuples(model), 0d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that cached estimates equal estimates obtained without a cache.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCache() throws IOException {
+
+        ARXSolverConfiguration config = ARXSolverConfiguration.create();
+        ARXPopulationModel population = ARXPopulationModel.create(30162, 0.2d);
+        ModelSolverCache cache = new ModelSolverCache(false);
+        RiskModelHistogram[] histograms = getHistograms();
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (RiskModelHistogram histogram : histograms) {
+                RiskModelPopulationUniqueness expected = new RiskModelPopulationUniqueness(population, histogram, config);
+                RiskModelPopulationUniqueness cached = new RiskModelPopulationUniqueness(population, histogram, config, cache);
+                assertEquals(expected.getNumUniqueTuplesPitman(), cached.getNumUniqueTuplesPitman(), 0d);
+                assertEquals(expected.getNumUniqueTuplesSNB(), cached.getNumUniqueTuplesSNB(), 0d);
+                assertEquals(expected.getNumUniqueTuplesDankar(), cached.getNumUniqueTuplesDankar(), 0d);
+            }
+        }
+
+        // Histograms without sample uniques are not solved
+        assertTrue(cache.getSize() <= histograms.length * 2);
+        cache.clear();
+        assertEquals(0, cache.getSize());
+
+        // Limit
+        cache = new ModelSolverCache(false, 2);
+        for (RiskModelHistogram histogram : histograms) {
+            new RiskModelPopulationUniqueness(population, histogram, config, cache).getNumUniqueTuplesPitman();
+        }
+        assertTrue(cache.getSize() <= 2);
+    }
+
+    /**
+     * Tests that warm-started solvers converge to the same estimates.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWarmStart() throws IOException {
+
+        ARXSolverConfiguration config = ARXSolverConfiguration.create();
+        RiskModelHistogram[] histograms = getHistograms();
+        for (double fraction : new double[] { 0.01d, 0.2d }) {
+            ARXPopulationModel population = ARXPopulationModel.create(30162, fraction);
+            ModelSolverCache cache = new ModelSolverCache(true);
+            for (RiskModelHistogram histogram : histograms) {
+                RiskModelPopulationUniqueness expected = new RiskModelPopulationUniqueness(population, histogram, config);
+                RiskModelPopulationUniqueness warm = new RiskModelPopulationUniqueness(population, histogram, config, cache);
+                for (PopulationUniquenessModel model : MODELS) {
+                    double value = expected.getNumUniqueTuples(model);
+                    assertEquals(value, warm.getNumUniqueTuples(model), Math.max(1e-3d, value * 1e-3d));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns histograms for subsets of the quasi-identifiers of the adult dataset
+     *
+     * @return
+     * @throws IOException
+     */
+    private RiskModelHistogram[] getHistograms() throws IOException {
+        Data data = AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(ARXConfiguration.create(), "./data/adult.csv", 0d, null, false));
+        DataHandle handle = data.getHandle();
+        ARXPopulationModel population = ARXPopulationModel.create(handle.getNumRows(), 0.1d);
+        List<String> attributes = new ArrayList<String>(data.getDefinition().getQuasiIdentifyingAttributes());
+        List<RiskModelHistogram> result = new ArrayList<RiskModelHistogram>();
+        for (int i = 0; i < attributes.size(); i++) {
+            Set<String> qis = new HashSet<String>(attributes);
+            qis.remove(attributes.get(i));
+            result.add(handle.getRiskEstimator(population, qis).getEquivalenceClassModel());
+        }
+        result.add(handle.getRiskEstimator(population).getEquivalenceClassModel());
+        return result.toArray(new RiskModelHistogram[result.size()]);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.deidentifier.arx.framework.lattice.InformationLossStore;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.v2.__MetricV2;
+import org.junit.Test;
+
+import cern.colt.list.LongArrayList;
+
+/**
+ * Tests storing information loss in the solution space and propagating lower bounds.
+ *
+ * @author Fabian Prasser
+ */
+public class TestSolutionSpaceStore extends AbstractTest {
+
+    /**
+     * Tests storing single-dimensional information loss.
+     */
+    @Test
+    public void testSingleDimensional() {
+        InformationLossStore store = new InformationLossStore();
+        for (int i = 0; i < 1000; i++) {
+            store.put(i, __MetricV2.createILSingleDimensional(i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            store.put(i, __MetricV2.createILSingleDimensional(-i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertLossEquals(__MetricV2.createILSingleDimensional(i % 2 == 0 ? -i : i), store.get(i));
+        }
+        assertNull(store.get(1000));
+        InformationLoss<?> loss = __MetricV2.createILSingleDimensional(5d);
+        store.put(5, loss);
+        assertNotSame(loss, store.get(5));
+    }
+
+    /**
+     * Tests storing multi-dimensional information loss and falling back to objects.
+     */
+    @Test
+    public void testMixed() {
+        InformationLossStore store = new InformationLossStore();
+        store.put(0, __MetricV2.createILMultiDimensionalArithmeticMean(0.5d));
+        store.put(1, __MetricV2.createILMultiDimensionalSum(0.7d));
+        store.put(2, __MetricV2.createILMultiDimensionalArithmeticMean(0.9d));
+        assertLossEquals(__MetricV2.createILMultiDimensionalArithmeticMean(0.5d), store.get(0));
+        assertLossEquals(__MetricV2.createILMultiDimensionalSum(0.7d), store.get(1));
+        assertLossEquals(__MetricV2.createILMultiDimensionalArithmeticMean(0.9d), store.get(2));
+        store.put(0, __MetricV2.createILMultiDimensionalSum(0.1d));
+        store.put(1, __MetricV2.createILMultiDimensionalArithmeticMean(0.3d));
+        store.put(2, null);
+        assertLossEquals(__MetricV2.createILMultiDimensionalSum(0.1d), store.get(0));
+        assertLossEquals(__MetricV2.createILMultiDimensionalArithmeticMean(0.3d), store.get(1));
+        assertNull(store.get(2));
+    }
+
+    /**
+     * Tests propagating lower bounds to successors.
+     */
+    @Test
+    public void testPropagation() {
+        SolutionSpace space = new SolutionSpace(new int[] { 0, 0 }, new int[] { 2, 2 });
+        Transformation bottom = space.getBottom();
+        bottom.setLowerBound(__MetricV2.createILSingleDimensional(0.2d));
+        space.propagateLowerBound(bottom);
+        
+        // Direct successors
+        LongArrayList successors = bottom.getSuccessors();
+        assertEquals(2, successors.size());
+        Transformation first = space.getTransformation(successors.get(0));
+        Transformation second = space.getTransformation(successors.get(1));
+        assertLossEquals(__MetricV2.createILSingleDimensional(0.2d), first.getLowerBoundFromPredecessors());
+        assertLossEquals(__MetricV2.createILSingleDimensional(0.2d), second.getLowerBoundFromPredecessors());
+        
+        // A smaller bound does not replace a greater one
+        first.setLowerBound(__MetricV2.createILSingleDimensional(0.1d));
+        space.propagateLowerBound(first);
+        second.setLowerBound(__MetricV2.createILSingleDimensional(0.4d));
+        space.propagateLowerBound(second);
+        Transformation center = space.getTransformation(new int[] { 1, 1 });
+        assertLossEquals(__MetricV2.createILSingleDimensional(0.4d), center.getLowerBoundFromPredecessors());
+        assertNull(space.getTop().getLowerBoundFromPredecessors());
+    }
+
+    /**
+     * Compares information loss
+     * @param expected
+     * @param actual
+     */
+    private void assertLossEquals(InformationLoss<?> expected, InformationLoss<?> actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertTrue(expected.compareTo(actual) == 0);
+    }
+}